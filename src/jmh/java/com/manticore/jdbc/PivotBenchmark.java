@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pivots of generated month-by-account booking data held in an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PivotBenchmark {
+    public static final String QUERY_STR =
+            "SELECT code_inferior, code, value_date, amount FROM bench_pivot";
+
+    @Param({"10000", "1000000"})
+    public int rowCount;
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:bench_pivot;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_pivot");
+            st.execute("CREATE TABLE bench_pivot ( code_inferior VARCHAR(40) NULL"
+                    + ", code VARCHAR(40) NULL"
+                    + ", value_date DATE NULL"
+                    + ", amount DECIMAL(33,5) NULL )");
+
+            // 12 months, 100 inferior codes and as many codes as needed for the row count
+            st.execute("INSERT INTO bench_pivot "
+                    + "SELECT 'I' || LPAD(MOD(x, 100), 3, '0')"
+                    + ", 'C' || LPAD(MOD(x / 100, " + Math.max(1, rowCount / 1200) + "), 6, '0')"
+                    + ", DATEADD(MONTH, MOD(x / 7, 12), DATE '2024-01-31')"
+                    + ", CAST(MOD(x * 7919, 100000) AS DECIMAL(33,5)) / 100 "
+                    + "FROM SYSTEM_RANGE(1, " + rowCount + ")");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE bench_pivot");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public Object[][] getPivotFromQuery() throws SQLException {
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(QUERY_STR)) {
+            return MJdbcTools.getPivotFromQuery(rs, MJdbcTools.AggregateFunction.SUM, "amount",
+                    "value_date", null, true, false);
+        }
+    }
+}
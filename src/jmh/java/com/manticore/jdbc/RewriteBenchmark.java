@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewriting of Named Parameters via the JSQLParser AST compared with the lexical scanner, and
+ * the rendering of literal values for both the Map and the VarArgs overloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RewriteBenchmark {
+    public static final String SQL_STR = "SELECT a.id, a.name, b.amount, b.value_date\n"
+            + "FROM account a\n"
+            + "    INNER JOIN booking b ON a.id = b.id_account\n"
+            + "WHERE a.id_customer = :id_customer\n"
+            + "    AND b.value_date BETWEEN :from_date AND :to_date\n"
+            + "    AND b.id_currency IN ( :currency, 'USD' )\n"
+            + "    AND b.amount > :min_amount\n"
+            + "ORDER BY b.value_date";
+
+    private final Map<String, Object> parameters = new HashMap<>();
+    private final StringBuilder builder = new StringBuilder();
+    private Object[] literals;
+
+    @Setup
+    public void setUp() {
+        parameters.put("id_customer", 1234L);
+        parameters.put("from_date", java.sql.Date.valueOf("2024-01-01"));
+        parameters.put("to_date", java.sql.Date.valueOf("2024-12-31"));
+        parameters.put("currency", "EUR");
+        parameters.put("min_amount", 100);
+
+        literals = new Object[] {1234L, new java.util.Date(1735689600000L),
+                java.sql.Date.valueOf("2024-12-31"),
+                java.sql.Timestamp.valueOf("2024-06-30 12:34:56.789"), "O'Neil & Sons",
+                new java.math.BigDecimal("1234.50"), new java.util.GregorianCalendar(), true};
+    }
+
+    @Benchmark
+    public MParsedStatement parseWithParser() throws Exception {
+        return MParsedStatement.parse(SQL_STR);
+    }
+
+    @Benchmark
+    public MParsedStatement parseLexically() throws Exception {
+        return MSqlScanner.parse(SQL_STR);
+    }
+
+    @Benchmark
+    public String rewriteLiteralsWithParser() throws Exception {
+        return MJdbcTools.rewriteStatementWithNamedParameters(SQL_STR, parameters);
+    }
+
+    @Benchmark
+    public String rewriteLiteralsWithParserUncached() throws Exception {
+        return MLiteralTemplate.compile(SQL_STR).render(parameters);
+    }
+
+    @Benchmark
+    public String rewriteLiteralsWithParserVarArgs() throws Exception {
+        return MJdbcTools.rewriteStatementWithNamedParameters(SQL_STR, 1234L,
+                java.sql.Date.valueOf("2024-01-01"), java.sql.Date.valueOf("2024-12-31"), "EUR",
+                100);
+    }
+
+    @Benchmark
+    public int renderLiterals() {
+        builder.setLength(0);
+        for (Object literal : literals) {
+            MLiteralRenderer.append(builder, literal).append(", ");
+        }
+        return builder.length();
+    }
+
+    @Benchmark
+    public String rewriteLiteralsLexically() throws Exception {
+        return MJdbcTools.rewriteStatementWithNamedParameters(SQL_STR, MRewriteMode.LEXICAL,
+                parameters);
+    }
+
+    @Benchmark
+    public MFingerprint fingerprint() {
+        return MStatementCache.getFingerprint(SQL_STR);
+    }
+
+    @Benchmark
+    public MFingerprint fingerprintUncached() {
+        return MFingerprint.compute(SQL_STR);
+    }
+
+    @Benchmark
+    public String sqlHash() throws Exception {
+        return MJdbcTools.getSQLHash(SQL_STR);
+    }
+}
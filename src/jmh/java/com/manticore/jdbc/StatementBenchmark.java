@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction, parameter binding and batch execution of {@link MPreparedStatement} against an
+ * in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatementBenchmark {
+    public static final String DML_STR =
+            "INSERT INTO bench VALUES ( :a, :b, :c, :d, :e, :f, :g, :h, :i, :j )";
+
+    private Connection conn;
+    private MPreparedStatement statement;
+    private final Map<String, Object> parameters = new CaseInsensitiveMap<>();
+    private Object[] parameterArr;
+    private long id = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench");
+            st.execute("CREATE TABLE bench ( a BIGINT PRIMARY KEY"
+                    + ", b VARCHAR(128) NOT NULL"
+                    + ", c DATE NOT NULL"
+                    + ", d TIMESTAMP NOT NULL"
+                    + ", e DECIMAL(23,5) NOT NULL"
+                    + ", f INT NOT NULL"
+                    + ", g VARCHAR(128) NULL"
+                    + ", h DATE NULL"
+                    + ", i TIMESTAMP NULL"
+                    + ", j DECIMAL(23,5) NULL"
+                    + ")");
+        }
+
+        java.util.Date now = new java.util.Date();
+        BigDecimal amount = new BigDecimal("1234.56789");
+        parameterArr = new Object[] {0L, "Test String", now, now, amount, 12, "Other String", now,
+                now, amount};
+        String[] names = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+        for (int i = 0; i < names.length; i++) {
+            parameters.put(names[i], parameterArr[i]);
+        }
+
+        statement = new MPreparedStatement(conn, DML_STR);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        conn.close();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BatchState {
+        @Param({"24", "1000"})
+        public int batchSize;
+
+        private MPreparedStatement statement;
+
+        @Setup(Level.Trial)
+        public void setUp(StatementBenchmark benchmark) throws Exception {
+            statement = new MPreparedStatement(benchmark.conn, DML_STR, batchSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            statement.executeBatch();
+            statement.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MetricsState {
+        private MPreparedStatement statement;
+
+        @Setup(Level.Trial)
+        public void setUp(StatementBenchmark benchmark) throws Exception {
+            MStatementMetrics.enable(null);
+            statement = new MPreparedStatement(benchmark.conn, DML_STR, 24);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            statement.executeBatch();
+            statement.close();
+            MStatementMetrics.disable();
+        }
+    }
+
+    @Benchmark
+    public MPreparedStatement constructCached() throws Exception {
+        MPreparedStatement st = new MPreparedStatement(conn, DML_STR);
+        st.close();
+        return st;
+    }
+
+    @Benchmark
+    public MPreparedStatement constructUncached() throws Exception {
+        MStatementCache.clear();
+        MPreparedStatement st = new MPreparedStatement(conn, DML_STR);
+        st.close();
+        return st;
+    }
+
+    @Benchmark
+    public void setParametersFromMap() throws SQLException {
+        statement.setParameters(parameters);
+    }
+
+    @Benchmark
+    public void setParametersFromVarArgs() throws SQLException {
+        statement.setParameters(parameterArr);
+    }
+
+    @Benchmark
+    public int[] addAndExecuteBatch(BatchState state) throws SQLException {
+        parameters.put("a", id++);
+        return state.statement.addAndExecuteBatch(parameters);
+    }
+
+    @Benchmark
+    public int[] addAndExecuteBatchWithMetrics(MetricsState state) throws SQLException {
+        parameters.put("a", id++);
+        return state.statement.addAndExecuteBatch(parameters);
+    }
+}
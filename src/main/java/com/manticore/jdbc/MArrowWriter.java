@@ -0,0 +1,846 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Writes the Apache Arrow IPC streaming format without depending on the Arrow libraries. The rows
+ * are read into column vectors held in reusable direct buffers, which are written as one record
+ * batch per chunk of rows.
+ * <p>
+ * Supported are the Arrow types Int, FloatingPoint, Decimal (128 bit), Bool, Date (days),
+ * Timestamp (microseconds, without time zone), Binary and Utf8, which all other columns are
+ * written as.
+ */
+final class MArrowWriter {
+    // the Type union of Schema.fbs
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DECIMAL = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 10;
+
+    // the MessageHeader union of Message.fbs
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final short METADATA_VERSION_V5 = 4;
+
+    private static final byte[] PADDING = new byte[8];
+
+    private final WritableByteChannel channel;
+    private final Column[] columns;
+    private final int batchSize;
+    private int rowCount = 0;
+
+    private MArrowWriter(WritableByteChannel channel, Column[] columns, int batchSize) {
+        this.channel = channel;
+        this.columns = columns;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a writer for the columns of the ResultSet.
+     */
+    static MArrowWriter create(WritableByteChannel channel, ResultSetMetaData metaData,
+            int batchSize) throws SQLException {
+        Column[] columns = new Column[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            int column = i + 1;
+            String name = metaData.getColumnLabel(column);
+            switch (metaData.getColumnType(column)) {
+                case Types.BIGINT:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.INT64, batchSize);
+                    break;
+                case Types.INTEGER:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.INT32, batchSize);
+                    break;
+                case Types.SMALLINT:
+                case Types.TINYINT:
+                    // TINYINT is unsigned for some databases
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.INT16, batchSize);
+                    break;
+                case Types.REAL:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.FLOAT32, batchSize);
+                    break;
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.FLOAT64, batchSize);
+                    break;
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                    int precision = metaData.getPrecision(column);
+                    int scale = metaData.getScale(column);
+                    if (precision > 0 && precision <= 38 && scale >= 0 && scale <= precision) {
+                        columns[i] = new FixedWidthColumn(name, FixedWidthColumn.DECIMAL128,
+                                batchSize).setDecimal(precision, scale);
+                    } else {
+                        columns[i] = new VariableWidthColumn(name, TYPE_UTF8, batchSize)
+                                .setDecimal(true);
+                    }
+                    break;
+                case Types.BOOLEAN:
+                case Types.BIT:
+                    columns[i] = new BoolColumn(name, batchSize);
+                    break;
+                case Types.DATE:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.DATE_DAY, batchSize);
+                    break;
+                case Types.TIMESTAMP:
+                    columns[i] = new FixedWidthColumn(name, FixedWidthColumn.TIMESTAMP_MICRO,
+                            batchSize);
+                    break;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                case Types.BLOB:
+                    columns[i] = new VariableWidthColumn(name, TYPE_BINARY, batchSize);
+                    break;
+                default:
+                    columns[i] = new VariableWidthColumn(name, TYPE_UTF8, batchSize);
+            }
+        }
+        return new MArrowWriter(channel, columns, batchSize);
+    }
+
+    /**
+     * Creates a writer for the columns of a pivot table, typed by their values.
+     */
+    static MArrowWriter create(WritableByteChannel channel, String[] columnNames,
+            Object[][] data, int batchSize) {
+        Column[] columns = new Column[columnNames.length];
+        for (int i = 0; i < columns.length; i++) {
+            Class<?> valueClass = null;
+            int scale = 0;
+            int integerDigits = 0;
+            for (Object[] rowData : data) {
+                Object value = rowData[i];
+                if (value == null) {
+                    continue;
+                } else if (valueClass == null) {
+                    valueClass = value.getClass();
+                } else if (valueClass != value.getClass()) {
+                    valueClass = String.class;
+                    break;
+                }
+                if (value instanceof BigDecimal) {
+                    BigDecimal decimal = (BigDecimal) value;
+                    scale = Math.max(scale, decimal.scale());
+                    integerDigits = Math.max(integerDigits, decimal.precision() - decimal.scale());
+                }
+            }
+
+            if (valueClass == Long.class || valueClass == Integer.class) {
+                columns[i] = new FixedWidthColumn(columnNames[i], FixedWidthColumn.INT64,
+                        batchSize);
+            } else if (valueClass == Double.class || valueClass == Float.class) {
+                columns[i] = new FixedWidthColumn(columnNames[i], FixedWidthColumn.FLOAT64,
+                        batchSize);
+            } else if (valueClass == BigDecimal.class && integerDigits + scale <= 38) {
+                columns[i] = new FixedWidthColumn(columnNames[i], FixedWidthColumn.DECIMAL128,
+                        batchSize).setDecimal(38, scale);
+            } else {
+                columns[i] = new VariableWidthColumn(columnNames[i], TYPE_UTF8, batchSize);
+            }
+        }
+        return new MArrowWriter(channel, columns, batchSize);
+    }
+
+    void writeSchema() throws IOException {
+        FlatBuilder.Table[] fields = new FlatBuilder.Table[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = new FlatBuilder.Table()
+                    .addOffset(0, new FlatBuilder.StringNode(columns[i].name))
+                    .addBool(1, true)
+                    .addByte(2, columns[i].typeId)
+                    .addOffset(3, columns[i].getType())
+                    .addOffset(5, new FlatBuilder.TableVector(new FlatBuilder.Table[0]));
+        }
+        FlatBuilder.Table schema = new FlatBuilder.Table()
+                .addShort(0, (short) 0)
+                .addOffset(1, new FlatBuilder.TableVector(fields));
+
+        writeMessage(HEADER_SCHEMA, schema, new ByteBuffer[0], 0);
+    }
+
+    void read(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].read(rs, i + 1, rowCount);
+        }
+        rowCount++;
+        if (rowCount == batchSize) {
+            writeBatch();
+        }
+    }
+
+    void append(Object[] rowData) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].append(rowData[i], rowCount);
+        }
+        rowCount++;
+        if (rowCount == batchSize) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Writes the pending rows and the end of the stream.
+     */
+    void finish() throws IOException {
+        if (rowCount > 0) {
+            writeBatch();
+        }
+        ByteBuffer end = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(-1).putInt(0).flip();
+        writeFully(new ByteBuffer[] {end});
+    }
+
+    private void writeBatch() throws IOException {
+        ArrayList<ByteBuffer> body = new ArrayList<>();
+        ByteBuffer nodes = ByteBuffer.allocate(16 * columns.length).order(ByteOrder.LITTLE_ENDIAN);
+        ArrayList<long[]> bufferRegions = new ArrayList<>();
+        long bodyLength = 0;
+
+        for (Column column : columns) {
+            nodes.putLong(rowCount).putLong(column.nullCount);
+            for (ByteBuffer buffer : column.getBuffers(rowCount)) {
+                int length = buffer.remaining();
+                bufferRegions.add(new long[] {bodyLength, length});
+                body.add(buffer);
+                int padding = (8 - length % 8) % 8;
+                if (padding > 0) {
+                    body.add(ByteBuffer.wrap(PADDING, 0, padding));
+                }
+                bodyLength += length + padding;
+            }
+        }
+
+        ByteBuffer buffers =
+                ByteBuffer.allocate(16 * bufferRegions.size()).order(ByteOrder.LITTLE_ENDIAN);
+        for (long[] region : bufferRegions) {
+            buffers.putLong(region[0]).putLong(region[1]);
+        }
+
+        FlatBuilder.Table recordBatch = new FlatBuilder.Table()
+                .addLong(0, rowCount)
+                .addOffset(1, new FlatBuilder.StructVector(16, nodes.array()))
+                .addOffset(2, new FlatBuilder.StructVector(16, buffers.array()));
+        writeMessage(HEADER_RECORD_BATCH, recordBatch, body.toArray(new ByteBuffer[0]),
+                bodyLength);
+
+        for (Column column : columns) {
+            column.reset();
+        }
+        rowCount = 0;
+    }
+
+    private void writeMessage(byte headerType, FlatBuilder.Table header, ByteBuffer[] body,
+            long bodyLength) throws IOException {
+        FlatBuilder.Table message = new FlatBuilder.Table()
+                .addShort(0, METADATA_VERSION_V5)
+                .addByte(1, headerType)
+                .addOffset(2, header)
+                .addLong(3, bodyLength);
+        ByteBuffer metadata = new FlatBuilder().finish(message);
+
+        ByteBuffer prefix = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        prefix.putInt(-1).putInt(metadata.remaining()).flip();
+
+        ByteBuffer[] buffers = new ByteBuffer[body.length + 2];
+        buffers[0] = prefix;
+        buffers[1] = metadata;
+        System.arraycopy(body, 0, buffers, 2, body.length);
+        writeFully(buffers);
+    }
+
+    private void writeFully(ByteBuffer[] buffers) throws IOException {
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * A column vector of one record batch.
+     */
+    private abstract static class Column {
+        final String name;
+        final byte typeId;
+        final ByteBuffer validity;
+        int nullCount = 0;
+
+        Column(String name, byte typeId, int batchSize) {
+            this.name = name;
+            this.typeId = typeId;
+            this.validity = allocate((batchSize + 7) / 8);
+            clear(validity);
+        }
+
+        static void clear(ByteBuffer buffer) {
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+
+        static void setBit(ByteBuffer bitmap, int index) {
+            int i = index >>> 3;
+            bitmap.put(i, (byte) (bitmap.get(i) | 1 << (index & 7)));
+        }
+
+        void setValid(int row, boolean valid) {
+            if (valid) {
+                setBit(validity, row);
+            } else {
+                nullCount++;
+            }
+        }
+
+        abstract FlatBuilder.Table getType();
+
+        abstract void read(ResultSet rs, int column, int row) throws SQLException;
+
+        abstract void append(Object value, int row);
+
+        /**
+         * @return the validity bitmap followed by the data buffers of the column
+         */
+        abstract ByteBuffer[] getBuffers(int rowCount);
+
+        ByteBuffer getValidity(int rowCount) {
+            ByteBuffer buffer = validity.duplicate();
+            buffer.position(0).limit(nullCount > 0 ? (rowCount + 7) / 8 : 0);
+            return buffer;
+        }
+
+        void reset() {
+            clear(validity);
+            nullCount = 0;
+        }
+    }
+
+    private static final class FixedWidthColumn extends Column {
+        static final int INT16 = 0;
+        static final int INT32 = 1;
+        static final int INT64 = 2;
+        static final int FLOAT32 = 3;
+        static final int FLOAT64 = 4;
+        static final int DECIMAL128 = 5;
+        static final int DATE_DAY = 6;
+        static final int TIMESTAMP_MICRO = 7;
+
+        private static final int[] WIDTHS = {2, 4, 8, 4, 8, 16, 4, 8};
+        private static final byte[] TYPE_IDS = {TYPE_INT, TYPE_INT, TYPE_INT,
+                TYPE_FLOATING_POINT, TYPE_FLOATING_POINT, TYPE_DECIMAL, TYPE_DATE,
+                TYPE_TIMESTAMP};
+
+        private final int kind;
+        private final int width;
+        private final ByteBuffer values;
+        private int precision;
+        private int scale;
+
+        FixedWidthColumn(String name, int kind, int batchSize) {
+            super(name, TYPE_IDS[kind], batchSize);
+            this.kind = kind;
+            this.width = WIDTHS[kind];
+            this.values = allocate(batchSize * width);
+        }
+
+        FixedWidthColumn setDecimal(int precision, int scale) {
+            this.precision = precision;
+            this.scale = scale;
+            return this;
+        }
+
+        @Override
+        FlatBuilder.Table getType() {
+            switch (kind) {
+                case INT16:
+                case INT32:
+                case INT64:
+                    return new FlatBuilder.Table().addInt(0, width * 8).addBool(1, true);
+                case FLOAT32:
+                    return new FlatBuilder.Table().addShort(0, (short) 1);
+                case FLOAT64:
+                    return new FlatBuilder.Table().addShort(0, (short) 2);
+                case DECIMAL128:
+                    return new FlatBuilder.Table().addInt(0, precision).addInt(1, scale)
+                            .addInt(2, 128);
+                case DATE_DAY:
+                    return new FlatBuilder.Table().addShort(0, (short) 0);
+                default:
+                    return new FlatBuilder.Table().addShort(0, (short) 2);
+            }
+        }
+
+        private void putDecimal(int index, BigDecimal value) {
+            BigInteger unscaled = value.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+            if (unscaled.bitLength() > 127) {
+                throw new ArithmeticException(
+                        "The value " + value + " exceeds the 128 bits of an Arrow decimal.");
+            } else if (unscaled.bitLength() < 64) {
+                long v = unscaled.longValue();
+                values.putLong(index, v).putLong(index + 8, v < 0 ? -1L : 0L);
+            } else {
+                // big endian two's complement into little endian 16 bytes
+                byte[] bytes = unscaled.toByteArray();
+                for (int i = 0; i < 16; i++) {
+                    int j = bytes.length - 1 - i;
+                    byte b = j >= 0 ? bytes[j] : (byte) (unscaled.signum() < 0 ? -1 : 0);
+                    values.put(index + i, b);
+                }
+            }
+        }
+
+        private static long getMicros(LocalDateTime dateTime) {
+            return dateTime.toEpochSecond(ZoneOffset.UTC) * 1000000L
+                    + dateTime.getNano() / 1000;
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            int index = row * width;
+            switch (kind) {
+                case INT16:
+                    values.putShort(index, rs.getShort(column));
+                    break;
+                case INT32:
+                    values.putInt(index, rs.getInt(column));
+                    break;
+                case INT64:
+                    values.putLong(index, rs.getLong(column));
+                    break;
+                case FLOAT32:
+                    values.putFloat(index, rs.getFloat(column));
+                    break;
+                case FLOAT64:
+                    values.putDouble(index, rs.getDouble(column));
+                    break;
+                case DECIMAL128:
+                    BigDecimal decimal = rs.getBigDecimal(column);
+                    if (decimal != null) {
+                        putDecimal(index, decimal);
+                    }
+                    setValid(row, decimal != null);
+                    return;
+                case DATE_DAY:
+                    java.sql.Date date = rs.getDate(column);
+                    values.putInt(index, date != null ? (int) date.toLocalDate().toEpochDay() : 0);
+                    setValid(row, date != null);
+                    return;
+                default:
+                    Timestamp timestamp = rs.getTimestamp(column);
+                    values.putLong(index,
+                            timestamp != null ? getMicros(timestamp.toLocalDateTime()) : 0L);
+                    setValid(row, timestamp != null);
+                    return;
+            }
+            setValid(row, !rs.wasNull());
+        }
+
+        @Override
+        void append(Object value, int row) {
+            int index = row * width;
+            if (value == null) {
+                for (int i = 0; i < width; i++) {
+                    values.put(index + i, (byte) 0);
+                }
+            } else if (kind == INT64) {
+                values.putLong(index, ((Number) value).longValue());
+            } else if (kind == FLOAT64) {
+                values.putDouble(index, ((Number) value).doubleValue());
+            } else if (kind == DECIMAL128) {
+                putDecimal(index, (BigDecimal) value);
+            } else {
+                throw new UnsupportedOperationException("Can't append to " + kind);
+            }
+            setValid(row, value != null);
+        }
+
+        @Override
+        ByteBuffer[] getBuffers(int rowCount) {
+            ByteBuffer buffer = values.duplicate();
+            buffer.position(0).limit(rowCount * width);
+            return new ByteBuffer[] {getValidity(rowCount), buffer};
+        }
+    }
+
+    private static final class BoolColumn extends Column {
+        private final ByteBuffer values;
+
+        BoolColumn(String name, int batchSize) {
+            super(name, TYPE_BOOL, batchSize);
+            values = allocate((batchSize + 7) / 8);
+            clear(values);
+        }
+
+        @Override
+        FlatBuilder.Table getType() {
+            return new FlatBuilder.Table();
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            if (rs.getBoolean(column)) {
+                setBit(values, row);
+            }
+            setValid(row, !rs.wasNull());
+        }
+
+        @Override
+        void append(Object value, int row) {
+            if (Boolean.TRUE.equals(value)) {
+                setBit(values, row);
+            }
+            setValid(row, value != null);
+        }
+
+        @Override
+        ByteBuffer[] getBuffers(int rowCount) {
+            ByteBuffer buffer = values.duplicate();
+            buffer.position(0).limit((rowCount + 7) / 8);
+            return new ByteBuffer[] {getValidity(rowCount), buffer};
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            clear(values);
+        }
+    }
+
+    private static final class VariableWidthColumn extends Column {
+        private final ByteBuffer offsets;
+        private ByteBuffer data;
+        // whether to read the text of a DECIMAL column, which doesn't fit into a Decimal128
+        private boolean decimal = false;
+
+        VariableWidthColumn(String name, byte typeId, int batchSize) {
+            super(name, typeId, batchSize);
+            offsets = allocate((batchSize + 1) * 4);
+            data = allocate(Math.max(1024, batchSize * 16));
+        }
+
+        VariableWidthColumn setDecimal(boolean decimal) {
+            this.decimal = decimal;
+            return this;
+        }
+
+        @Override
+        FlatBuilder.Table getType() {
+            return new FlatBuilder.Table();
+        }
+
+        private void put(byte[] bytes, int row) {
+            if (bytes != null) {
+                if (data.remaining() < bytes.length) {
+                    ByteBuffer newData =
+                            allocate(Math.max(data.capacity() * 2, data.position() + bytes.length));
+                    data.flip();
+                    newData.put(data);
+                    data = newData;
+                }
+                data.put(bytes);
+            }
+            offsets.putInt((row + 1) * 4, data.position());
+            setValid(row, bytes != null);
+        }
+
+        @Override
+        void read(ResultSet rs, int column, int row) throws SQLException {
+            if (typeId == TYPE_BINARY) {
+                put(rs.getBytes(column), row);
+            } else if (decimal) {
+                BigDecimal value = rs.getBigDecimal(column);
+                put(value != null ? value.toPlainString().getBytes(StandardCharsets.UTF_8) : null,
+                        row);
+            } else {
+                // getString() reads the content of LOBs instead of the driver's description
+                String value = rs.getString(column);
+                put(value != null ? value.getBytes(StandardCharsets.UTF_8) : null, row);
+            }
+        }
+
+        private static String toString(Object value) {
+            return value instanceof BigDecimal
+                    ? ((BigDecimal) value).toPlainString()
+                    : value.toString();
+        }
+
+        @Override
+        void append(Object value, int row) {
+            put(value != null ? toString(value).getBytes(StandardCharsets.UTF_8) : null, row);
+        }
+
+        @Override
+        ByteBuffer[] getBuffers(int rowCount) {
+            ByteBuffer offsetBuffer = offsets.duplicate();
+            offsetBuffer.position(0).limit((rowCount + 1) * 4);
+            ByteBuffer dataBuffer = data.duplicate();
+            dataBuffer.flip();
+            return new ByteBuffer[] {getValidity(rowCount), offsetBuffer, dataBuffer};
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            data.clear();
+        }
+    }
+
+    /**
+     * A minimal FlatBuffers encoder for the Arrow metadata. Unlike the FlatBuffers library it
+     * writes front to back: each table is preceded by its vtable and followed by the objects it
+     * references, so all offsets point forward.
+     */
+    static final class FlatBuilder {
+        private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+        private void ensureCapacity(int size) {
+            if (buffer.remaining() < size) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + size);
+                ByteBuffer newBuffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                newBuffer.put(buffer);
+                buffer = newBuffer;
+            }
+        }
+
+        private void pad(int alignment, int offset) {
+            while ((buffer.position() + offset) % alignment != 0) {
+                ensureCapacity(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        private int reserve(int size) {
+            ensureCapacity(size);
+            int position = buffer.position();
+            buffer.put(new byte[size]);
+            return position;
+        }
+
+        private void patchOffset(int position, int target) {
+            buffer.putInt(position, target - position);
+        }
+
+        /**
+         * @return the metadata buffer, padded to a multiple of 8 bytes
+         */
+        ByteBuffer finish(Table root) {
+            int rootOffset = reserve(4);
+            patchOffset(rootOffset, root.write(this));
+            pad(8, 0);
+            buffer.flip();
+            return buffer;
+        }
+
+        abstract static class Node {
+            /**
+             * @return the position referenced by offsets to this object
+             */
+            abstract int write(FlatBuilder builder);
+        }
+
+        static final class StringNode extends Node {
+            private final byte[] bytes;
+
+            StringNode(String s) {
+                bytes = s.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            int write(FlatBuilder builder) {
+                builder.pad(4, 0);
+                int position = builder.reserve(4 + bytes.length + 1);
+                builder.buffer.putInt(position, bytes.length);
+                for (int i = 0; i < bytes.length; i++) {
+                    builder.buffer.put(position + 4 + i, bytes[i]);
+                }
+                return position;
+            }
+        }
+
+        static final class StructVector extends Node {
+            private final int structSize;
+            private final byte[] bytes;
+
+            StructVector(int structSize, byte[] bytes) {
+                this.structSize = structSize;
+                this.bytes = bytes;
+            }
+
+            @Override
+            int write(FlatBuilder builder) {
+                // the structs hold longs, so align the elements after the length to 8
+                builder.pad(8, 4);
+                int position = builder.reserve(4);
+                builder.buffer.putInt(position, bytes.length / structSize);
+                builder.ensureCapacity(bytes.length);
+                builder.buffer.put(bytes);
+                return position;
+            }
+        }
+
+        static final class TableVector extends Node {
+            private final Table[] tables;
+
+            TableVector(Table[] tables) {
+                this.tables = tables;
+            }
+
+            @Override
+            int write(FlatBuilder builder) {
+                builder.pad(4, 0);
+                int position = builder.reserve(4 + 4 * tables.length);
+                builder.buffer.putInt(position, tables.length);
+                for (int i = 0; i < tables.length; i++) {
+                    builder.patchOffset(position + 4 + 4 * i, tables[i].write(builder));
+                }
+                return position;
+            }
+        }
+
+        static final class Table extends Node {
+            private static final int OFFSET = -1;
+
+            // the size of each field's value by slot, 0 when absent
+            private int[] sizes = new int[0];
+            private long[] values = new long[0];
+            private Node[] children = new Node[0];
+
+            private Table add(int slot, int size, long value, Node child) {
+                if (slot >= sizes.length) {
+                    sizes = Arrays.copyOf(sizes, slot + 1);
+                    values = Arrays.copyOf(values, slot + 1);
+                    children = Arrays.copyOf(children, slot + 1);
+                }
+                sizes[slot] = size;
+                values[slot] = value;
+                children[slot] = child;
+                return this;
+            }
+
+            Table addBool(int slot, boolean value) {
+                return add(slot, 1, value ? 1 : 0, null);
+            }
+
+            Table addByte(int slot, byte value) {
+                return add(slot, 1, value, null);
+            }
+
+            Table addShort(int slot, short value) {
+                return add(slot, 2, value, null);
+            }
+
+            Table addInt(int slot, int value) {
+                return add(slot, 4, value, null);
+            }
+
+            Table addLong(int slot, long value) {
+                return add(slot, 8, value, null);
+            }
+
+            Table addOffset(int slot, Node child) {
+                return add(slot, OFFSET, 0, child);
+            }
+
+            @Override
+            int write(FlatBuilder builder) {
+                // lay out the fields after the vtable offset, the largest first
+                int[] fieldOffsets = new int[sizes.length];
+                int inlineSize = 4;
+                int alignment = 4;
+                for (int size : new int[] {8, 4, 2, 1}) {
+                    for (int slot = 0; slot < sizes.length; slot++) {
+                        int fieldSize = sizes[slot] == OFFSET ? 4 : sizes[slot];
+                        if (fieldSize == size) {
+                            inlineSize = (inlineSize + size - 1) / size * size;
+                            fieldOffsets[slot] = inlineSize;
+                            inlineSize += size;
+                            alignment = Math.max(alignment, size);
+                        }
+                    }
+                }
+
+                builder.pad(2, 0);
+                int vtable = builder.reserve(4 + 2 * sizes.length);
+                builder.buffer.putShort(vtable, (short) (4 + 2 * sizes.length));
+                builder.buffer.putShort(vtable + 2, (short) inlineSize);
+                for (int slot = 0; slot < sizes.length; slot++) {
+                    builder.buffer.putShort(vtable + 4 + 2 * slot, (short) fieldOffsets[slot]);
+                }
+
+                builder.pad(alignment, 0);
+                int table = builder.reserve(inlineSize);
+                builder.buffer.putInt(table, table - vtable);
+                for (int slot = 0; slot < sizes.length; slot++) {
+                    int position = table + fieldOffsets[slot];
+                    switch (sizes[slot]) {
+                        case 1:
+                            builder.buffer.put(position, (byte) values[slot]);
+                            break;
+                        case 2:
+                            builder.buffer.putShort(position, (short) values[slot]);
+                            break;
+                        case 4:
+                            builder.buffer.putInt(position, (int) values[slot]);
+                            break;
+                        case 8:
+                            builder.buffer.putLong(position, values[slot]);
+                            break;
+                        default:
+                    }
+                }
+
+                for (int slot = 0; slot < sizes.length; slot++) {
+                    if (sizes[slot] == OFFSET) {
+                        builder.patchOffset(table + fieldOffsets[slot],
+                                children[slot].write(builder));
+                    }
+                }
+                return table;
+            }
+        }
+    }
+}
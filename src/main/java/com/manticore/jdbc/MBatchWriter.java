@@ -0,0 +1,359 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes records in batches through a {@link MPreparedStatement}. A batch is flushed when it
+ * reaches a number of rows, an estimated size in bytes or a maximum latency since its first row,
+ * and finally on {@link #close()}.
+ * <p>
+ * In asynchronous mode the batches are executed by a background thread, so producers do not block
+ * on {@code executeBatch}, unless the configured number of pending batches is reached
+ * (back-pressure). The maximum latency is then enforced by the background thread too, while in
+ * synchronous mode it is checked whenever a record is added. Any failure of a background batch is
+ * rethrown by the next call of {@link #add}, {@link #flush()} or {@link #close()}.
+ */
+public final class MBatchWriter implements AutoCloseable {
+    public static final int DEFAULT_MAX_ROWS = 1000;
+    public static final int DEFAULT_MAX_PENDING_BATCHES = 2;
+
+    private final MPreparedStatement statement;
+    private final boolean ownsStatement;
+
+    private int maxRows = DEFAULT_MAX_ROWS;
+    private long maxBytes = 0;
+    private long maxLatencyNanos = 0;
+    private int maxPendingBatches = DEFAULT_MAX_PENDING_BATCHES;
+    private boolean async = false;
+
+    private ArrayList<Object[]> rows = new ArrayList<>();
+    private long bufferedBytes = 0;
+    private long firstRowNanos = 0;
+    private boolean closed = false;
+
+    private ScheduledExecutorService executor = null;
+    private Semaphore pendingBatches = null;
+    private int pendingPermits = 0;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * Creates a writer for an existing statement, which will not be closed by the writer. The
+     * statement must not be used by anyone else while the writer is open.
+     *
+     * @param statement the statement to execute for each record
+     */
+    public MBatchWriter(MPreparedStatement statement) {
+        this.statement = statement;
+        this.ownsStatement = false;
+    }
+
+    /**
+     * Creates a writer for a DML statement with Named Parameters, closing the statement on
+     * {@link #close()}.
+     *
+     * @param conn the connection
+     * @param sqlStr the DML statement with Named Parameters
+     * @throws SQLException when the statement can't be prepared
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public MBatchWriter(Connection conn, String sqlStr) throws SQLException, JSQLParserException {
+        this.statement = new MPreparedStatement(conn, sqlStr);
+        this.ownsStatement = true;
+    }
+
+    public MBatchWriter setMaxRows(int maxRows) {
+        this.maxRows = Math.max(1, maxRows);
+        return this;
+    }
+
+    /**
+     * @param maxBytes the estimated size of the buffered records after which a batch is flushed,
+     *        0 for no limit
+     * @return this writer
+     */
+    public MBatchWriter setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * @param maxLatency the longest time a record may wait in the buffer, 0 for no limit
+     * @param unit the time unit of the latency
+     * @return this writer
+     */
+    public MBatchWriter setMaxLatency(long maxLatency, TimeUnit unit) {
+        this.maxLatencyNanos = unit.toNanos(maxLatency);
+        return this;
+    }
+
+    /**
+     * @param async whether to execute the batches on a background thread
+     * @return this writer
+     */
+    public MBatchWriter setAsync(boolean async) {
+        this.async = async;
+        return this;
+    }
+
+    /**
+     * @param maxPendingBatches the number of batches queued or executing in the background, after
+     *        which producers will block
+     * @return this writer
+     */
+    public MBatchWriter setMaxPendingBatches(int maxPendingBatches) {
+        this.maxPendingBatches = Math.max(1, maxPendingBatches);
+        return this;
+    }
+
+    public void add(Map<String, Object> parameterValues) throws SQLException {
+        addRow(statement.getParameterArray(parameterValues));
+    }
+
+    public void add(Object... parameterValues) throws SQLException {
+        addRow(parameterValues.clone());
+    }
+
+    private void addRow(Object[] values) throws SQLException {
+        List<Object[]> batch;
+        synchronized (this) {
+            rethrowFailure();
+            if (closed) {
+                throw new SQLException("The batch writer has been closed already.");
+            }
+
+            if (rows.isEmpty()) {
+                firstRowNanos = System.nanoTime();
+                startExecutor();
+            }
+            rows.add(values);
+            if (maxBytes > 0) {
+                for (Object o : values) {
+                    bufferedBytes += estimateSize(o);
+                }
+            }
+
+            if (rows.size() < maxRows
+                    && (maxBytes <= 0 || bufferedBytes < maxBytes)
+                    && (maxLatencyNanos <= 0
+                            || System.nanoTime() - firstRowNanos < maxLatencyNanos)) {
+                return;
+            } else if (!async) {
+                execute(takeRows());
+                return;
+            }
+            batch = takeRows();
+        }
+        submit(batch);
+    }
+
+    /**
+     * Flushes the buffered records and waits until all pending batches have been executed.
+     *
+     * @throws SQLException when any batch failed
+     */
+    public void flush() throws SQLException {
+        List<Object[]> batch = null;
+        synchronized (this) {
+            if (rows.isEmpty()) {
+                // nothing to submit
+            } else if (!async) {
+                execute(takeRows());
+            } else {
+                batch = takeRows();
+            }
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+        if (pendingBatches != null) {
+            pendingBatches.acquireUninterruptibly(pendingPermits);
+            pendingBatches.release(pendingPermits);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Flushes any outstanding records and stops the background thread.
+     *
+     * @throws SQLException when any batch failed
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+                if (executor != null) {
+                    executor.shutdown();
+                }
+            }
+            if (ownsStatement) {
+                statement.close();
+            }
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return the sum of all update counts reported by the driver, ignoring
+     *         {@link java.sql.Statement#SUCCESS_NO_INFO}
+     */
+    public long getUpdateCount() {
+        return updateCount.get();
+    }
+
+    private void startExecutor() {
+        if (async && executor == null) {
+            pendingPermits = maxPendingBatches;
+            pendingBatches = new Semaphore(pendingPermits);
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "MBatchWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (maxLatencyNanos > 0) {
+                long period = Math.max(1, maxLatencyNanos / 4);
+                executor.scheduleWithFixedDelay(this::flushExpired, period, period,
+                        TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private synchronized void flushExpired() {
+        // never block the background thread, which would execute the pending batches
+        if (!rows.isEmpty() && System.nanoTime() - firstRowNanos >= maxLatencyNanos
+                && pendingBatches.tryAcquire()) {
+            dispatch(takeRows());
+        }
+    }
+
+    /**
+     * @return the buffered records, which are replaced by an empty buffer
+     */
+    private List<Object[]> takeRows() {
+        final List<Object[]> batch = rows;
+        rows = new ArrayList<>(batch.size());
+        bufferedBytes = 0;
+        return batch;
+    }
+
+    /**
+     * Waits for a permit and hands the batch to the background thread. Must not be called while
+     * holding the monitor, which the background thread needs for flushing expired records.
+     */
+    private void submit(List<Object[]> batch) {
+        pendingBatches.acquireUninterruptibly();
+        dispatch(batch);
+    }
+
+    private void dispatch(List<Object[]> batch) {
+        executor.execute(() -> {
+            try {
+                if (failure.get() == null) {
+                    execute(batch);
+                }
+            } catch (Exception ex) {
+                failure.compareAndSet(null, ex);
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private void execute(List<Object[]> batch) throws SQLException {
+        for (Object[] values : batch) {
+            statement.addBatch(values);
+        }
+        for (int count : statement.executeBatch()) {
+            if (count > 0) {
+                updateCount.addAndGet(count);
+            }
+        }
+        rowCount.addAndGet(batch.size());
+        batchCount.incrementAndGet();
+    }
+
+    private void rethrowFailure() throws SQLException {
+        Exception ex = failure.get();
+        if (ex instanceof SQLException) {
+            throw (SQLException) ex;
+        } else if (ex != null) {
+            throw new SQLException("Failed to execute the batch.", ex);
+        }
+    }
+
+    /**
+     * Estimates the size of a parameter value in bytes, as it will be sent to the database.
+     *
+     * @param o the parameter value
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(Object o) {
+        if (o == null) {
+            return 1;
+        } else if (o instanceof CharSequence) {
+            return 2L * ((CharSequence) o).length();
+        } else if (o instanceof byte[]) {
+            return ((byte[]) o).length;
+        } else if (o instanceof BigDecimal) {
+            return 4 + ((BigDecimal) o).unscaledValue().bitLength() / 8;
+        } else if (o instanceof Number || o instanceof Boolean) {
+            return 8;
+        } else if (o instanceof ByteBuffer) {
+            return ((ByteBuffer) o).remaining();
+        } else if (o instanceof InputStream || o instanceof Reader || o instanceof Path
+                || o instanceof ReadableByteChannel) {
+            return 8192;
+        } else {
+            return 16;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.JdbcNamedParameter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.insert.Insert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads rows into a table by the bulk API of the database instead of an INSERT per row. The
+ * loader is selected by the driver name of the connection: PostgreSQL streams the rows through
+ * {@code COPY ... FROM STDIN}, embedded H2 reads them with {@code CSVREAD}. Further loaders can be
+ * registered by {@link #register(String, MBulkLoader)}.
+ * <p>
+ * The rows are rendered as CSV text in the order of the columns. Binary values are written in the
+ * hexadecimal notation of the database. Rows holding files, buffers or channels are inserted by
+ * statement, which binds them according to the column type.
+ *
+ * @see MPreparedStatement#enableBulkLoad()
+ */
+public abstract class MBulkLoader {
+    private static final Map<String, MBulkLoader> LOADERS = new ConcurrentHashMap<>();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        register("postgresql", new CopyLoader());
+        register("h2", new CsvReadLoader());
+    }
+
+    /**
+     * Registers a loader for all connections whose driver name contains the given text, ignoring
+     * the case.
+     *
+     * @param driverName the text to find in {@link java.sql.DatabaseMetaData#getDriverName()}
+     * @param loader the loader, NULL to remove the registration
+     */
+    public static void register(String driverName, MBulkLoader loader) {
+        String key = driverName.toLowerCase(Locale.ROOT);
+        if (loader != null) {
+            LOADERS.put(key, loader);
+        } else {
+            LOADERS.remove(key);
+        }
+    }
+
+    /**
+     * @return the loader for the connection, or NULL when there is none
+     */
+    public static MBulkLoader forConnection(Connection conn) throws SQLException {
+        String driverName = conn.getMetaData().getDriverName().toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, MBulkLoader> e : LOADERS.entrySet()) {
+            if (driverName.contains(e.getKey()) && e.getValue().supports(conn)) {
+                return e.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the loader can load into the connection, e.g. depending on its URL
+     */
+    protected boolean supports(Connection conn) throws SQLException {
+        return true;
+    }
+
+    /**
+     * Loads the rows into the table.
+     *
+     * @param conn the connection
+     * @param tableName the table name, quoted as needed
+     * @param columnNames the column names, quoted as needed
+     * @param rows the values of each row in the order of the columns
+     * @return the number of rows loaded
+     * @throws SQLException when the rows can't be loaded
+     */
+    public abstract long load(Connection conn, String tableName, List<String> columnNames,
+            List<Object[]> rows) throws SQLException;
+
+    /**
+     * @return whether any row holds a {@link Path}, {@link ByteBuffer} or
+     *         {@link ReadableByteChannel}, which can't be rendered as CSV without the column type
+     */
+    static boolean holdsFiles(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            for (Object o : row) {
+                if (o instanceof Path || o instanceof ByteBuffer
+                        || o instanceof ReadableByteChannel) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserts the rows by a batched INSERT statement, for loaders which can't handle some values.
+     * The values are bound according to the types of the parameters, the same as by
+     * {@link MPreparedStatement}.
+     */
+    protected static long insert(Connection conn, String tableName, List<String> columnNames,
+            List<Object[]> rows) throws SQLException {
+        StringBuilder sqlStr = new StringBuilder("INSERT INTO ").append(tableName).append(" (")
+                .append(String.join(", ", columnNames)).append(") VALUES (");
+        for (int i = 0; i < columnNames.size(); i++) {
+            sqlStr.append(i > 0 ? ", ?" : "?");
+        }
+        sqlStr.append(')');
+
+        try (PreparedStatement st = conn.prepareStatement(sqlStr.toString())) {
+            MParameterBinder[] binders = new MParameterBinder[columnNames.size()];
+            try {
+                ParameterMetaData metaData = st.getParameterMetaData();
+                for (int i = 0; i < binders.length; i++) {
+                    binders[i] = MParameterBinder.forType(metaData.getParameterType(i + 1));
+                }
+            } catch (SQLException ex) {
+                Arrays.fill(binders, MParameterBinder.OBJECT);
+            }
+
+            try {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        if (row[i] == null) {
+                            st.setObject(i + 1, null);
+                        } else {
+                            binders[i].bind(st, i + 1, row[i]);
+                        }
+                    }
+                    st.addBatch();
+                }
+                long count = 0;
+                for (int updateCount : st.executeBatch()) {
+                    count += Math.max(0, updateCount);
+                }
+                return count;
+            } finally {
+                MParameterStreams.close(st);
+            }
+        }
+    }
+
+    /**
+     * Appends a value as CSV field: NULL as empty field and any text quoted, so an empty string
+     * can be told apart from NULL.
+     *
+     * @param binaryPrefix the prefix of the hexadecimal notation of binary values
+     */
+    static void appendValue(StringBuilder builder, Object o, String binaryPrefix)
+            throws IOException {
+        if (o == null) {
+            return;
+        } else if (o instanceof Number || o instanceof Boolean) {
+            builder.append(o instanceof BigDecimal ? ((BigDecimal) o).toPlainString() : o);
+        } else if (o instanceof byte[]) {
+            appendHex(builder.append(binaryPrefix), (byte[]) o, ((byte[]) o).length);
+        } else if (o instanceof InputStream) {
+            builder.append(binaryPrefix);
+            byte[] buffer = new byte[8192];
+            for (int n; (n = ((InputStream) o).read(buffer)) > 0;) {
+                appendHex(builder, buffer, n);
+            }
+        } else {
+            CharSequence s;
+            if (o instanceof Reader) {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[8192];
+                for (int n; (n = ((Reader) o).read(buffer)) > 0;) {
+                    text.append(buffer, 0, n);
+                }
+                s = text;
+            } else if (o instanceof java.util.Date && !(o instanceof java.sql.Date
+                    || o instanceof java.sql.Time || o instanceof Timestamp)) {
+                s = new Timestamp(((java.util.Date) o).getTime()).toString();
+            } else {
+                s = o.toString();
+            }
+
+            builder.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    builder.append('"');
+                }
+                builder.append(c);
+            }
+            builder.append('"');
+        }
+    }
+
+    private static void appendHex(StringBuilder builder, byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            builder.append(HEX[bytes[i] >> 4 & 0xF]).append(HEX[bytes[i] & 0xF]);
+        }
+    }
+
+    static void appendRow(StringBuilder builder, Object[] row, String binaryPrefix)
+            throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendValue(builder, row[i], binaryPrefix);
+        }
+        builder.append('\n');
+    }
+
+    /**
+     * The target of a single row `INSERT INTO table (columns) VALUES (:a, :b, ...)` statement,
+     * which holds exactly one parameter per column.
+     */
+    static final class Target {
+        final String tableName;
+        final List<String> columnNames;
+
+        Target(String tableName, List<String> columnNames) {
+            this.tableName = tableName;
+            this.columnNames = Collections.unmodifiableList(columnNames);
+        }
+
+        /**
+         * @return the target, or NULL when the statement does not qualify
+         */
+        static Target parse(String sqlStr) throws JSQLParserException {
+            net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
+            if (!(statement instanceof Insert)) {
+                return null;
+            }
+            Insert insert = (Insert) statement;
+            if (insert.getValues() == null || insert.getColumns() == null) {
+                return null;
+            }
+
+            ExpressionList<?> row = insert.getValues().getExpressions();
+            if (!(row instanceof ParenthesedExpressionList)
+                    || row.size() != insert.getColumns().size()) {
+                return null;
+            }
+            for (Object expression : row) {
+                if (!(expression instanceof JdbcNamedParameter
+                        || expression instanceof JdbcParameter)) {
+                    return null;
+                }
+            }
+
+            ArrayList<String> columnNames = new ArrayList<>();
+            for (Column column : insert.getColumns()) {
+                columnNames.add(column.getColumnName());
+            }
+            return new Target(insert.getTable().getFullyQualifiedName(), columnNames);
+        }
+    }
+
+    /**
+     * Streams the rows through the CopyManager of the PostgreSQL driver, which is looked up by
+     * reflection so the driver is not needed at compile time.
+     */
+    static final class CopyLoader extends MBulkLoader {
+        @Override
+        public long load(Connection conn, String tableName, List<String> columnNames,
+                List<Object[]> rows) throws SQLException {
+            if (holdsFiles(rows)) {
+                return insert(conn, tableName, columnNames, rows);
+            }
+
+            String sqlStr = "COPY " + tableName + " (" + String.join(", ", columnNames)
+                    + ") FROM STDIN WITH (FORMAT csv)";
+            try {
+                Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection", true,
+                        conn.getClass().getClassLoader());
+                Object copyManager = pgConnectionClass.getMethod("getCopyAPI")
+                        .invoke(conn.unwrap(pgConnectionClass));
+                Method copyIn =
+                        copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+                return (Long) copyIn.invoke(copyManager, sqlStr, new RowReader(rows, "\\x"));
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+                throw cause instanceof SQLException
+                        ? (SQLException) cause
+                        : new SQLException("Failed to copy into " + tableName + ".", cause);
+            } catch (ReflectiveOperationException ex) {
+                throw new SQLException("The PostgreSQL CopyManager is not available.", ex);
+            }
+        }
+    }
+
+    /**
+     * Writes the rows into a temporary CSV file, which an embedded H2 database inserts by
+     * {@code CSVREAD}. H2 can't decode binary values from text, so rows holding such (or files,
+     * buffers and channels) are inserted by statement instead.
+     */
+    static final class CsvReadLoader extends MBulkLoader {
+        @Override
+        protected boolean supports(Connection conn) throws SQLException {
+            // the file must be readable by the database, so it can't be a remote server
+            String url = conn.getMetaData().getURL();
+            return url != null && !url.startsWith("jdbc:h2:tcp:")
+                    && !url.startsWith("jdbc:h2:ssl:");
+        }
+
+        @Override
+        public long load(Connection conn, String tableName, List<String> columnNames,
+                List<Object[]> rows) throws SQLException {
+            if (holdsFiles(rows)) {
+                return insert(conn, tableName, columnNames, rows);
+            }
+            for (Object[] row : rows) {
+                for (Object o : row) {
+                    if (o instanceof byte[] || o instanceof InputStream) {
+                        return insert(conn, tableName, columnNames, rows);
+                    }
+                }
+            }
+
+            Path path = null;
+            try {
+                path = Files.createTempFile("mjdbc-bulk-", ".csv");
+                try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    StringBuilder builder = new StringBuilder();
+                    for (Object[] row : rows) {
+                        builder.setLength(0);
+                        appendRow(builder, row, "");
+                        writer.append(builder);
+                    }
+                }
+
+                StringBuilder csvColumns = new StringBuilder();
+                for (int i = 1; i <= columnNames.size(); i++) {
+                    csvColumns.append(i > 1 ? ",C" : "C").append(i);
+                }
+                String sqlStr = "INSERT INTO " + tableName + " ("
+                        + String.join(", ", columnNames) + ") SELECT * FROM CSVREAD('"
+                        + path.toString().replace("'", "''") + "', '" + csvColumns
+                        + "', 'charset=UTF-8')";
+                try (Statement st = conn.createStatement()) {
+                    return st.executeUpdate(sqlStr);
+                }
+            } catch (IOException ex) {
+                throw new SQLException("Failed to write the rows for " + tableName + ".", ex);
+            } finally {
+                if (path != null) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException ignore) {
+                        // nothing we can do here
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders the rows as CSV while they are read, one row at a time.
+     */
+    static final class RowReader extends Reader {
+        private final List<Object[]> rows;
+        private final String binaryPrefix;
+        private final StringBuilder builder = new StringBuilder();
+        private int row = 0;
+        private int position = 0;
+
+        RowReader(List<Object[]> rows, String binaryPrefix) {
+            this.rows = rows;
+            this.binaryPrefix = binaryPrefix;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (position == builder.length()) {
+                if (row == rows.size()) {
+                    return -1;
+                }
+                builder.setLength(0);
+                position = 0;
+                appendRow(builder, rows.get(row++), binaryPrefix);
+            }
+            int n = Math.min(length, builder.length() - position);
+            builder.getChars(position, position + n, buffer, offset);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            row = rows.size();
+            position = builder.length();
+        }
+    }
+}
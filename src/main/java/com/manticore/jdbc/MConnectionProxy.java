@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps a JDBC Connection, so its `prepareStatement()` methods accept SQL statements with Named
+ * Parameters (e.g. `:Customer_Id`) and return a {@link MNamedPreparedStatement}. This brings Named
+ * Parameters to existing code, frameworks and connection pools without changing any call site.
+ * <p>
+ * SQL statements without Named Parameters, detected by {@link MSqlScanner#hasNamedParameters}, are
+ * passed through as they are and return the driver's own PreparedStatement, wrapped only so that
+ * its `getConnection()` returns the wrapped connection, the same as for `createStatement()` and
+ * `prepareCall()`. Others are rewritten
+ * into Positional Parameters by the parse cached in {@link MStatementCache}, the same as used by
+ * {@link MPreparedStatement}, so repeated statements are parsed only once.
+ */
+public final class MConnectionProxy implements InvocationHandler {
+    private static final ConcurrentHashMap<Method, Method> TARGETS = new ConcurrentHashMap<>();
+
+    private final Connection connection;
+    private final MRewriteMode mode;
+    private Connection proxy;
+
+    private MConnectionProxy(Connection connection, MRewriteMode mode) {
+        this.connection = connection;
+        this.mode = mode;
+    }
+
+    /**
+     * Wraps the connection, rewriting the Named Parameters lexically with the parser as fallback.
+     *
+     * @param connection the connection of the driver
+     * @return the wrapped connection
+     */
+    public static Connection wrap(Connection connection) {
+        return wrap(connection, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK);
+    }
+
+    /**
+     * Wraps the connection.
+     *
+     * @param connection the connection of the driver
+     * @param mode how to rewrite the Named Parameters
+     * @return the wrapped connection
+     */
+    public static Connection wrap(Connection connection, MRewriteMode mode) {
+        MConnectionProxy handler = new MConnectionProxy(connection, mode);
+        handler.proxy = (Connection) Proxy.newProxyInstance(
+                MConnectionProxy.class.getClassLoader(), new Class<?>[] {Connection.class},
+                handler);
+        return handler.proxy;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("prepareStatement") && args[0] instanceof String
+                && MSqlScanner.hasNamedParameters((String) args[0])) {
+            MParsedStatement parsed;
+            try {
+                parsed = MStatementCache.get((String) args[0], mode);
+            } catch (JSQLParserException ex) {
+                throw new SQLException("Failed to rewrite the Named Parameters.", ex);
+            }
+            Object[] rewrittenArgs = args.clone();
+            rewrittenArgs[0] = parsed.getSqlStr();
+            PreparedStatement statement =
+                    (PreparedStatement) invokeTarget(connection, method, rewrittenArgs);
+            return StatementHandler.wrap(statement, parsed, this.proxy);
+        } else if (name.equals("equals") && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode") && args == null) {
+            return System.identityHashCode(proxy);
+        } else if (name.equals("toString") && args == null) {
+            return "MConnectionProxy[" + connection + "]";
+        }
+
+        Object result = invokeTarget(connection, method, args);
+        if (result instanceof Statement && method.getReturnType().isInterface()) {
+            // createStatement(), prepareCall() and prepareStatement() without Named Parameters
+            return Proxy.newProxyInstance(MConnectionProxy.class.getClassLoader(),
+                    new Class<?>[] {method.getReturnType()},
+                    new StatementHandler((Statement) result, null, this.proxy));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the wrapped connection from `getConnection()` and maps the Named Parameters of a
+     * {@link MNamedPreparedStatement}, while anything else is passed to the driver's statement.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        // NULL for statements without Named Parameters
+        private final MParsedStatement parsed;
+        private final Connection connection;
+
+        private StatementHandler(Statement statement, MParsedStatement parsed,
+                Connection connection) {
+            this.statement = statement;
+            this.parsed = parsed;
+            this.connection = connection;
+        }
+
+        private static MNamedPreparedStatement wrap(PreparedStatement statement,
+                MParsedStatement parsed, Connection connection) {
+            return (MNamedPreparedStatement) Proxy.newProxyInstance(
+                    MConnectionProxy.class.getClassLoader(),
+                    new Class<?>[] {MNamedPreparedStatement.class},
+                    new StatementHandler(statement, parsed, connection));
+        }
+
+        /**
+         * @return the `setXxx(int parameterIndex, ...)` method of the PreparedStatement for the
+         *         `setXxx(String name, ...)` method
+         */
+        private static Method getTarget(Method method) {
+            return TARGETS.computeIfAbsent(method, m -> {
+                Class<?>[] types = m.getParameterTypes().clone();
+                types[0] = int.class;
+                try {
+                    return PreparedStatement.class.getMethod(m.getName(), types);
+                } catch (NoSuchMethodException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == MNamedPreparedStatement.class) {
+                if (name.equals("getParsedStatement")) {
+                    return parsed;
+                }
+
+                int[] positions = parsed.getPositions((String) args[0]);
+                if (positions.length == 0) {
+                    throw new SQLException("Unknown Named Parameter " + args[0]
+                            + ", expected one of " + parsed.getParameterNames() + ".");
+                }
+                Method target = getTarget(method);
+                Object[] targetArgs = Arrays.copyOf(args, args.length);
+                for (int position : positions) {
+                    targetArgs[0] = position;
+                    invokeTarget(statement, target, targetArgs);
+                }
+                return null;
+            } else if (name.equals("getConnection") && args == null) {
+                return connection;
+            } else if (name.equals("isWrapperFor")
+                    && ((Class<?>) args[0]).isInstance(proxy)) {
+                return true;
+            } else if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            } else if (name.equals("equals") && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode") && args == null) {
+                return System.identityHashCode(proxy);
+            } else if (name.equals("toString") && args == null) {
+                return parsed != null
+                        ? "MNamedPreparedStatement[" + statement + "]"
+                        : "MStatementProxy[" + statement + "]";
+            }
+            return invokeTarget(statement, method, args);
+        }
+    }
+}
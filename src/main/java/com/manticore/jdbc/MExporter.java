@@ -0,0 +1,372 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Exports query results and pivot tables to CSV or to the Apache Arrow IPC streaming format.
+ * <p>
+ * The values are read with the typed getters of the ResultSet and written into reusable direct
+ * buffers, which are flushed to the channel chunk by chunk. No row objects are built, so the
+ * memory needed does not grow with the size of the result.
+ */
+public final class MExporter {
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    public enum Format {
+        CSV, ARROW
+    }
+
+    private final Format format;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private char delimiter = ',';
+    private boolean header = true;
+
+    public MExporter(Format format) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of rows of each Arrow record batch.
+     */
+    public MExporter setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Sets the size of the CSV output buffer, which is flushed to the channel whenever full.
+     */
+    public MExporter setBufferSize(int bufferSize) {
+        if (bufferSize < 32) {
+            throw new IllegalArgumentException("Buffer size too small: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public MExporter setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * Whether the CSV starts with a line of the column labels.
+     */
+    public MExporter setHeader(boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public long export(ResultSet rs, Path path) throws SQLException, IOException {
+        try (FileChannel channel = open(path)) {
+            return export(rs, channel);
+        }
+    }
+
+    /**
+     * Exports all remaining rows of the ResultSet. Neither the ResultSet nor the channel is
+     * closed.
+     *
+     * @return the number of rows exported
+     */
+    public long export(ResultSet rs, WritableByteChannel channel)
+            throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        long rowCount = 0;
+
+        if (format == Format.ARROW) {
+            MArrowWriter writer = MArrowWriter.create(channel, metaData, batchSize);
+            writer.writeSchema();
+            while (rs.next()) {
+                writer.read(rs);
+                rowCount++;
+            }
+            writer.finish();
+            return rowCount;
+        }
+
+        int columnCount = metaData.getColumnCount();
+        int[] columnTypes = new int[columnCount];
+        String[] columnNames = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = metaData.getColumnType(i + 1);
+            columnNames[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        CsvWriter writer = new CsvWriter(channel, bufferSize, delimiter);
+        if (header) {
+            writer.writeRow(columnNames);
+        }
+        while (rs.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                int column = i + 1;
+                if (i > 0) {
+                    writer.put(delimiter);
+                }
+                switch (columnTypes[i]) {
+                    case Types.BIGINT:
+                    case Types.INTEGER:
+                    case Types.SMALLINT:
+                    case Types.TINYINT:
+                        long l = rs.getLong(column);
+                        if (!rs.wasNull()) {
+                            writer.putLong(l);
+                        }
+                        break;
+                    case Types.DECIMAL:
+                    case Types.NUMERIC:
+                        BigDecimal decimal = rs.getBigDecimal(column);
+                        if (decimal != null) {
+                            writer.putAscii(decimal.toPlainString());
+                        }
+                        break;
+                    default:
+                        String s = rs.getString(column);
+                        if (s != null) {
+                            writer.putField(s);
+                        }
+                }
+            }
+            writer.put('\n');
+            rowCount++;
+        }
+        writer.flush();
+        return rowCount;
+    }
+
+    public long exportPivot(Object[][] pivot, Path path) throws IOException {
+        try (FileChannel channel = open(path)) {
+            return exportPivot(pivot, channel);
+        }
+    }
+
+    /**
+     * Exports a pivot table as returned by
+     * {@link MJdbcTools#getPivotFromQuery(ResultSet, MJdbcTools.AggregateFunction, String,
+     * String, java.text.Format, boolean, boolean)}, the column names followed by the rows.
+     *
+     * @return the number of rows exported
+     */
+    public long exportPivot(Object[][] pivot, WritableByteChannel channel) throws IOException {
+        Object[] header = pivot[0];
+        Object[][] data = (Object[][]) pivot[1];
+        String[] columnNames = new String[header.length];
+        for (int i = 0; i < header.length; i++) {
+            columnNames[i] = String.valueOf(header[i]);
+        }
+
+        if (format == Format.ARROW) {
+            MArrowWriter writer = MArrowWriter.create(channel, columnNames, data, batchSize);
+            writer.writeSchema();
+            for (Object[] rowData : data) {
+                writer.append(rowData);
+            }
+            writer.finish();
+            return data.length;
+        }
+
+        CsvWriter writer = new CsvWriter(channel, bufferSize, delimiter);
+        if (this.header) {
+            writer.writeRow(columnNames);
+        }
+        for (Object[] rowData : data) {
+            String[] values = new String[rowData.length];
+            for (int i = 0; i < rowData.length; i++) {
+                Object value = rowData[i];
+                if (value instanceof BigDecimal) {
+                    values[i] = ((BigDecimal) value).toPlainString();
+                } else if (value != null) {
+                    values[i] = value.toString();
+                }
+            }
+            writer.writeRow(values);
+        }
+        writer.flush();
+        return data.length;
+    }
+
+    /**
+     * Encodes CSV fields as UTF-8 into a direct buffer, quoting them as per RFC 4180.
+     */
+    private static final class CsvWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final char delimiter;
+
+        CsvWriter(WritableByteChannel channel, int bufferSize, char delimiter) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            this.delimiter = delimiter;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+        }
+
+        void put(char c) throws IOException {
+            if (c < 0x80) {
+                ensureRemaining(1);
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                ensureRemaining(2);
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else {
+                ensureRemaining(3);
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F))
+                        .put((byte) (0x80 | c & 0x3F));
+            }
+        }
+
+        private void putCodePoint(int codePoint) throws IOException {
+            ensureRemaining(4);
+            buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                    .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                    .put((byte) (0x80 | codePoint & 0x3F));
+        }
+
+        void putAscii(String s) throws IOException {
+            int length = s.length();
+            if (length > buffer.capacity()) {
+                for (int i = 0; i < length; i++) {
+                    put(s.charAt(i));
+                }
+                return;
+            }
+            ensureRemaining(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) s.charAt(i));
+            }
+        }
+
+        void putLong(long l) throws IOException {
+            if (l == Long.MIN_VALUE) {
+                putAscii(Long.toString(l));
+                return;
+            }
+            ensureRemaining(20);
+            if (l < 0) {
+                buffer.put((byte) '-');
+                l = -l;
+            }
+            int start = buffer.position();
+            do {
+                buffer.put((byte) ('0' + l % 10));
+                l /= 10;
+            } while (l > 0);
+            // the digits were written in reverse
+            for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+                byte b = buffer.get(i);
+                buffer.put(i, buffer.get(j));
+                buffer.put(j, b);
+            }
+        }
+
+        void putField(String s) throws IOException {
+            boolean quote = false;
+            int length = s.length();
+            for (int i = 0; i < length && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == delimiter || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (quote) {
+                put('"');
+            }
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    put('"');
+                    put('"');
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    putCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+                } else {
+                    put(c);
+                }
+            }
+            if (quote) {
+                put('"');
+            }
+        }
+
+        void writeRow(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    put(delimiter);
+                }
+                if (values[i] != null) {
+                    putField(values[i]);
+                }
+            }
+            put('\n');
+        }
+    }
+}
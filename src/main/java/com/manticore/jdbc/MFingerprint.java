@@ -0,0 +1,473 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The fingerprint of a SQL statement's shape: the statement is normalized lexically, replacing any
+ * literal and parameter with `?`, and hashed by the 128 bit MurmurHash3. Statements which differ
+ * only in their literal values, parameter names, comments, white space or keyword case share the
+ * same fingerprint.
+ * <p>
+ * Fingerprints are immutable, compare by their hash and are cheap map keys. Use
+ * {@link MStatementCache#getFingerprint(String)} to fingerprint each SQL text only once.
+ */
+public final class MFingerprint {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform must support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    });
+
+    private final String normalizedSqlStr;
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private volatile String sha256;
+
+    private MFingerprint(String normalizedSqlStr, long mostSignificantBits,
+            long leastSignificantBits) {
+        this.normalizedSqlStr = normalizedSqlStr;
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * Computes the fingerprint of the SQL statement without caching it.
+     *
+     * @param sqlStr the SQL statement
+     * @return the fingerprint
+     */
+    public static MFingerprint compute(String sqlStr) {
+        String normalizedSqlStr = normalize(sqlStr);
+        long[] hash = murmur3(normalizedSqlStr);
+        return new MFingerprint(normalizedSqlStr, hash[0], hash[1]);
+    }
+
+    /**
+     * Normalizes the SQL statement lexically into its shape: literals, Named and Positional
+     * Parameters become `?`, comments are dropped, white space is only kept between words and
+     * unquoted text is upper cased. Lists of parameters like `IN (?, ?, ?)` and the rows of
+     * `VALUES (?, ?), (?, ?)` collapse into a single one, so their length does not matter.
+     * Malformed statements are normalized as far as they can be scanned.
+     *
+     * @param sqlStr the SQL statement
+     * @return the normalized SQL statement
+     */
+    public static String normalize(String sqlStr) {
+        final int length = sqlStr.length();
+        StringBuilder builder = new StringBuilder(length);
+        boolean space = false;
+        int i = 0;
+        while (i < length) {
+            char c = sqlStr.charAt(i);
+            int end;
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            } else if (c == '-' && i + 1 < length && sqlStr.charAt(i + 1) == '-') {
+                end = sqlStr.indexOf('\n', i + 2);
+                i = end < 0 ? length : end + 1;
+                space = true;
+                continue;
+            } else if (c == '/' && i + 1 < length && sqlStr.charAt(i + 1) == '*') {
+                end = sqlStr.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                space = true;
+                continue;
+            }
+
+            if (space) {
+                appendSpace(builder, isWord(c) || isNumberStart(sqlStr, i)
+                        || isNamedParameter(sqlStr, i), isPunctuation(c));
+                space = false;
+            }
+            switch (c) {
+                case '\'':
+                    if (MSqlScanner.isEscapeString(sqlStr, i) || isNationalString(sqlStr, i)) {
+                        // the prefix has been appended already
+                        builder.setLength(builder.length() - 1);
+                    }
+                    i = skip(sqlStr, i, c, MSqlScanner.isEscapeString(sqlStr, i));
+                    builder.append('?');
+                    break;
+                case '"':
+                case '`':
+                    end = skip(sqlStr, i, c, false);
+                    builder.append(sqlStr, i, end);
+                    i = end;
+                    break;
+                case '$':
+                    if (isNumberStart(sqlStr, i + 1) && !isWordBefore(sqlStr, i)) {
+                        // a PostgreSQL Positional Parameter `$1`
+                        i = skipNumber(sqlStr, i + 1);
+                        builder.append('?');
+                        break;
+                    }
+                    end = skipDollarQuoted(sqlStr, i);
+                    if (end > i + 1) {
+                        builder.append('?');
+                    } else {
+                        builder.append(c);
+                    }
+                    i = end;
+                    break;
+                case ':':
+                    if (isNamedParameter(sqlStr, i)) {
+                        i += 2;
+                        while (i < length && MSqlScanner.isIdentifierPart(sqlStr.charAt(i))) {
+                            i++;
+                        }
+                        builder.append('?');
+                    } else {
+                        builder.append(c);
+                        i++;
+                    }
+                    break;
+                case '?':
+                    // a Positional Parameter `?` or `?1`
+                    i = skipNumber(sqlStr, i + 1);
+                    builder.append('?');
+                    break;
+                case ')':
+                    builder.append(c);
+                    i++;
+                    collapseLists(builder);
+                    break;
+                default:
+                    if (isNumberStart(sqlStr, i) && !isWordBefore(sqlStr, i)) {
+                        dropUnaryMinus(builder);
+                        i = skipNumber(sqlStr, i);
+                        builder.append('?');
+                    } else {
+                        builder.append(Character.toUpperCase(c));
+                        i++;
+                    }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isWord(char c) {
+        return MSqlScanner.isIdentifierPart(c) || c == '?' || c == '$' || c == '"' || c == '`'
+                || c == '\'';
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == '(' || c == ')' || c == ',' || c == ';' || c == '.';
+    }
+
+    private static void appendSpace(StringBuilder builder, boolean nextWord,
+            boolean nextPunctuation) {
+        // keep a space only where dropping it would join two words or two operators
+        if (builder.length() > 0) {
+            char previous = builder.charAt(builder.length() - 1);
+            if (isWord(previous) && nextWord || !isWord(previous) && !isPunctuation(previous)
+                    && !nextWord && !nextPunctuation) {
+                builder.append(' ');
+            }
+        }
+    }
+
+    private static boolean isNamedParameter(String sqlStr, int i) {
+        return sqlStr.charAt(i) == ':' && i + 1 < sqlStr.length()
+                && MSqlScanner.isIdentifierStart(sqlStr.charAt(i + 1))
+                && (i == 0 || sqlStr.charAt(i - 1) != ':');
+    }
+
+    private static void collapseLists(StringBuilder builder) {
+        // collapse a list `(?,?,?)` into `(?)`
+        int n = builder.length();
+        int i = n - 2;
+        while (i >= 2 && builder.charAt(i) == '?' && builder.charAt(i - 1) == ',') {
+            i -= 2;
+        }
+        if (i < n - 2 && i >= 1 && builder.charAt(i) == '?' && builder.charAt(i - 1) == '(') {
+            builder.setLength(i + 1);
+            builder.append(')');
+            n = i + 2;
+        }
+
+        // collapse the rows `(?),(?)` into `(?)`
+        if (endsWith(builder, "(?),(?)")) {
+            builder.setLength(n - 4);
+        }
+    }
+
+    private static boolean endsWith(StringBuilder builder, String suffix) {
+        int offset = builder.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (builder.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void dropUnaryMinus(StringBuilder builder) {
+        int n = builder.length();
+        // a minus after an operator or at the start is the sign of a number
+        if (n >= 1 && builder.charAt(n - 1) == '-' && (n == 1 || !isWord(builder.charAt(n - 2)))) {
+            builder.setLength(n - 1);
+        }
+    }
+
+    private static boolean isWordBefore(String sqlStr, int i) {
+        return i > 0 && (MSqlScanner.isIdentifierPart(sqlStr.charAt(i - 1))
+                || sqlStr.charAt(i - 1) == '$');
+    }
+
+    private static boolean isNumberStart(String sqlStr, int i) {
+        if (i >= sqlStr.length()) {
+            return false;
+        }
+        char c = sqlStr.charAt(i);
+        return c >= '0' && c <= '9' || c == '.' && i + 1 < sqlStr.length()
+                && sqlStr.charAt(i + 1) >= '0' && sqlStr.charAt(i + 1) <= '9';
+    }
+
+    private static int skipNumber(String sqlStr, int i) {
+        final int length = sqlStr.length();
+        while (i < length) {
+            char c = sqlStr.charAt(i);
+            if (MSqlScanner.isIdentifierPart(c) || c == '.') {
+                i++;
+            } else if ((c == '+' || c == '-') && (sqlStr.charAt(i - 1) == 'e'
+                    || sqlStr.charAt(i - 1) == 'E')) {
+                // the sign of an exponent
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isNationalString(String sqlStr, int quoteIndex) {
+        if (quoteIndex == 0) {
+            return false;
+        }
+        char prefix = sqlStr.charAt(quoteIndex - 1);
+        return (prefix == 'N' || prefix == 'n') && (quoteIndex == 1
+                || !MSqlScanner.isIdentifierPart(sqlStr.charAt(quoteIndex - 2)));
+    }
+
+    private static int skip(String sqlStr, int start, char quote, boolean backslashEscapes) {
+        try {
+            return MSqlScanner.skipQuoted(sqlStr, start, quote, backslashEscapes);
+        } catch (JSQLParserException ex) {
+            return sqlStr.length();
+        }
+    }
+
+    private static int skipDollarQuoted(String sqlStr, int start) {
+        try {
+            return MSqlScanner.skipDollarQuoted(sqlStr, start);
+        } catch (JSQLParserException ex) {
+            return sqlStr.length();
+        }
+    }
+
+    /**
+     * Hashes the UTF-16LE code units of the text by the 128 bit MurmurHash3 (x64 variant, seed 0)
+     * without encoding the text first.
+     *
+     * @param s the text
+     * @return the two halves of the hash
+     */
+    static long[] murmur3(CharSequence s) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        final int length = s.length();
+        long h1 = 0;
+        long h2 = 0;
+
+        // blocks of 16 bytes or 8 chars
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long k1 = getLong(s, i, 4);
+            long k2 = getLong(s, i + 4, 4);
+
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = length - i;
+        if (tail > 4) {
+            long k2 = getLong(s, i + 4, tail - 4);
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+        }
+        if (tail > 0) {
+            long k1 = getLong(s, i, Math.min(tail, 4));
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+        }
+
+        long byteLength = 2L * length;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] {h1, h2};
+    }
+
+    private static long getLong(CharSequence s, int index, int chars) {
+        long k = 0;
+        for (int j = 0; j < chars; j++) {
+            k |= (long) s.charAt(index + j) << (16 * j);
+        }
+        return k;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 digest of the UTF-8 encoded text, using a per-thread digest
+     */
+    static String sha256Hex(String s) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] bytes = digest.digest(s.getBytes(StandardCharsets.UTF_8));
+
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static void appendHex(StringBuilder builder, long l) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            builder.append(HEX_DIGITS[(int) (l >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * @return the normalized SQL statement, which has been hashed
+     */
+    public String getNormalizedSqlStr() {
+        return normalizedSqlStr;
+    }
+
+    /**
+     * @return the first 64 bits of the hash, a compact ID of the statement's shape
+     */
+    public long getId() {
+        return mostSignificantBits;
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * @return the 128 bit hash as 32 hex digits
+     */
+    public String toHex() {
+        StringBuilder builder = new StringBuilder(32);
+        appendHex(builder, mostSignificantBits);
+        appendHex(builder, leastSignificantBits);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the SHA-256 digest of the normalized statement as 64 hex digits, for when
+     * fingerprints are shared beyond this process and must not collide. It is computed once on
+     * demand.
+     *
+     * @return the hex encoded SHA-256 digest
+     */
+    public String getSha256() {
+        String s = sha256;
+        if (s == null) {
+            s = sha256Hex(normalizedSqlStr);
+            sha256 = s;
+        }
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MFingerprint that = (MFingerprint) o;
+        return mostSignificantBits == that.mostSignificantBits
+                && leastSignificantBits == that.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (mostSignificantBits ^ mostSignificantBits >>> 32);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
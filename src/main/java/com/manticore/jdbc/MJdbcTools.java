@@ -19,20 +19,11 @@
 package com.manticore.jdbc;
 
 import net.sf.jsqlparser.JSQLParserException;
-import net.sf.jsqlparser.expression.JdbcNamedParameter;
-import net.sf.jsqlparser.expression.JdbcParameter;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
-import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
-import net.sf.jsqlparser.util.deparser.SelectDeParser;
-import net.sf.jsqlparser.util.deparser.StatementDeParser;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.nio.charset.Charset;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.text.Format;
 import java.time.Instant;
@@ -41,13 +32,10 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 public class MJdbcTools {
     public static final DateTimeFormatter SQL_DATE_FORMAT =
@@ -101,197 +89,66 @@ public class MJdbcTools {
         return getSQLDateTimeStr(c.getTime());
     }
 
+    /**
+     * Returns the SHA-256 digest of the parsed and deparsed SQL statement, which ignores its
+     * formatting but not its literal values. See {@link MFingerprint} for a cheaper fingerprint of
+     * the statement's shape.
+     *
+     * @param sqlStr the SQL statement
+     * @return the hex encoded SHA-256 digest of the UTF-8 encoded statement
+     * @throws JSQLParserException when the statement can't be parsed
+     * @throws NoSuchAlgorithmException never, as every Java platform supports SHA-256
+     */
     public static String getSQLHash(String sqlStr)
             throws JSQLParserException, NoSuchAlgorithmException {
-        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-
         net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
-
-        messageDigest.update(statement.toString().getBytes(Charset.defaultCharset()));
-        String hashStr = new String(messageDigest.digest(), Charset.defaultCharset());
-
-        return hashStr;
-    }
-
-    private static String getParameterStr(Object o) {
-        if (o == null) {
-            return "NULL";
-        } else if (o instanceof java.sql.Date) {
-            return "{d '" + o + "'}";
-        } else if (o instanceof Date) {
-            Calendar cal = GregorianCalendar.getInstance();
-            cal.setTime((Date) o);
-
-            if (cal.get(Calendar.MILLISECOND) == 0
-                    && cal.get(Calendar.SECOND) == 0
-                    && cal.get(Calendar.MINUTE) == 0
-                    && cal.get(Calendar.HOUR_OF_DAY) == 0) {
-                LocalDate localDate = Instant
-                        .ofEpochMilli(((Date) o).getTime())
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDate();
-
-                return "{d '" + SQL_DATE_FORMAT.format(localDate) + "'}";
-            } else {
-                LocalDateTime localDateTime = ((Date) o).toInstant()
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDateTime();
-                return "{ts '" + SQL_TIMESTAMP_FORMAT.format(localDateTime) + "'}";
-            }
-        } else if (o instanceof Calendar) {
-            Calendar cal = (Calendar) o;
-            if (cal.get(Calendar.MILLISECOND) == 0
-                    && cal.get(Calendar.SECOND) == 0
-                    && cal.get(Calendar.MINUTE) == 0
-                    && cal.get(Calendar.HOUR_OF_DAY) == 0) {
-                LocalDate localDate = Instant
-                        .ofEpochMilli(cal.getTimeInMillis())
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDate();
-
-                return "{d '" + SQL_DATE_FORMAT.format(localDate) + "'}";
-            } else {
-                LocalDateTime localDateTime = cal.toInstant()
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDateTime();
-                return "{ts '" + SQL_TIMESTAMP_FORMAT.format(localDateTime) + "'}";
-            }
-        } else if (o instanceof Long) {
-            return ((Long) o).toString();
-        } else if (o instanceof Integer) {
-            return ((Integer) o).toString();
-        } else if (o instanceof Short) {
-            return ((Short) o).toString();
-        } else if (o instanceof Byte) {
-            return ((Byte) o).toString();
-        } else if (o instanceof Double) {
-            return o.toString();
-        } else if (o instanceof Float) {
-            return o.toString();
-        } else if (o instanceof BigInteger) {
-            return o.toString();
-        } else if (o instanceof BigDecimal) {
-            return ((BigDecimal) o).toPlainString();
-        } else if (o instanceof Boolean) {
-            return (Boolean) o ? "TRUE" : "FALSE";
-        } else if (o instanceof String) {
-            String s = (String) o;
-            s = s.replace("'", "''");
-            s = s.replace("&", "' || chr(38) || '");
-            return "'" + s + "'";
-        } else {
-            return "'" + o + "'";
-        }
+        return MFingerprint.sha256Hex(statement.toString());
     }
 
     public static String rewriteStatementWithNamedParameters(String sqlStr,
             Map<String, Object> parameters) throws Exception {
-        net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
-        StringBuilder builder = new StringBuilder();
-        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
-            @Override
-            public <S> StringBuilder visit(JdbcNamedParameter parameter, S context) {
-                builder.append(getParameterStr(parameters.get(parameter.getName())));
-                return builder;
-            }
-        };
-
-        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, builder);
-        expressionDeParser.setSelectVisitor(selectDeParser);
-        expressionDeParser.setBuilder(builder);
-
-        StatementDeParser statementDeParser =
-                new StatementDeParser(expressionDeParser, selectDeParser, builder);
-        statement.accept(statementDeParser);
-
-        return builder.toString();
+        return MStatementCache.getTemplate(sqlStr, MRewriteMode.PARSER).render(parameters);
     }
 
     public static String rewriteStatementWithNamedParameters(String sqlStr, Object... parameters)
             throws Exception {
-        net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
-        StringBuilder builder = new StringBuilder();
-        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
-            int i = 0;
-
-            @Override
-            public <S> StringBuilder visit(JdbcParameter parameter, S context) {
-                builder.append(getParameterStr(parameters[i]));
-                i++;
-                return builder;
-            }
-
-            @Override
-            public <S> StringBuilder visit(JdbcNamedParameter parameter, S context) {
-                builder.append(getParameterStr(parameters[i]));
-                i++;
-                return builder;
-            }
-        };
-
-        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, builder);
-        expressionDeParser.setSelectVisitor(selectDeParser);
-        expressionDeParser.setBuilder(builder);
-
-        StatementDeParser statementDeParser =
-                new StatementDeParser(expressionDeParser, selectDeParser, builder);
-        statement.accept(statementDeParser);
-
-        return builder.toString();
+        return MStatementCache.getTemplate(sqlStr, MRewriteMode.PARSER).render(parameters);
     }
 
-    public enum AggregateFunction {
-        SUM, COUNT
+    /**
+     * Rewrites the SQL statement by replacing any Named Parameter with the SQL literal of its
+     * value, using the given rewrite mode. The statement is compiled into a {@link
+     * MLiteralTemplate} once and cached by {@link MStatementCache}.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param mode whether to use JSQLParser or the lexical scanner
+     * @param parameters the parameter values by name
+     * @return the SQL statement with the literal values
+     * @throws Exception when the statement can't be parsed or scanned
+     */
+    public static String rewriteStatementWithNamedParameters(String sqlStr, MRewriteMode mode,
+            Map<String, Object> parameters) throws Exception {
+        return MStatementCache.getTemplate(sqlStr, mode).render(parameters);
     }
 
-    private static TreeMap<Object, Object> emptyMapFromKeys(TreeSet<Object> keys) {
-        TreeMap<Object, Object> map = new TreeMap<>();
-        for (Object k : keys) {
-            map.put(k, null);
-        }
-        return map;
+    /**
+     * Rewrites the SQL statement by replacing any Named or Positional Parameter with the SQL
+     * literal of the value at its position, using the given rewrite mode. The statement is
+     * compiled into a {@link MLiteralTemplate} once and cached by {@link MStatementCache}.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param mode whether to use JSQLParser or the lexical scanner
+     * @param parameters the parameter values in order of appearance
+     * @return the SQL statement with the literal values
+     * @throws Exception when the statement can't be parsed or scanned
+     */
+    public static String rewriteStatementWithNamedParameters(String sqlStr, MRewriteMode mode,
+            Object... parameters) throws Exception {
+        return MStatementCache.getTemplate(sqlStr, mode).render(parameters);
     }
 
-    private static class ObjectArrayKey implements Comparable<ObjectArrayKey> {
-        private final Comparable[] keys;
-
-        public ObjectArrayKey(Object[] keys) {
-            this.keys = new Comparable[keys.length];
-            for (int i = 0; i < keys.length; i++) {
-                this.keys[i] = (Comparable<?>) keys[i];
-            }
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            } else if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-            ObjectArrayKey that = (ObjectArrayKey) o;
-
-            return Arrays.deepEquals(keys, that.keys);
-        }
-
-        @Override
-        public int hashCode() {
-            return Arrays.hashCode(keys);
-        }
-
-        @Override
-        public int compareTo(ObjectArrayKey other) {
-            // Assuming both arrays have the same length
-            for (int i = 0; i < keys.length; i++) {
-                int elementComparison = keys[i].compareTo(other.keys[i]);
-                if (elementComparison != 0) {
-                    return elementComparison;
-                }
-            }
-
-            // If all elements are equal, the arrays are considered equal
-            return 0;
-        }
+    public enum AggregateFunction {
+        SUM, COUNT, MIN, MAX, AVG, COUNT_DISTINCT
     }
 
     /**
@@ -309,174 +166,135 @@ public class MJdbcTools {
      * @param repeatHeader If to insert the header repeatedly before each category
      * @return A 2-dimensional array holding the transformed Column Names and the Data
      */
-    @SuppressWarnings({"PMD.ExcessiveMethodLength"})
     public static Object[][] getPivotFromQuery(ResultSet rs, AggregateFunction function,
             String aggregateColumnName, String categoryColumnName, Format categoryFormat,
             boolean buildTotals, boolean repeatHeader) throws SQLException {
-        ArrayList<String> columnNames = new ArrayList<>();
-        int categoryColumnIndex = -1;
-        Class<?> categoryClass = null;
-        int aggregateColumnIndex = -1;
-        Class<?> aggregateClass = null;
+        MPivotTable pivotTable = new MPivotTable(rs.getMetaData(), function, aggregateColumnName,
+                categoryColumnName);
+        pivotTable.read(rs);
+        return pivotTable.getPivot(categoryFormat, buildTotals);
+    }
 
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnName(i);
-            if (columnName.equalsIgnoreCase(categoryColumnName)) {
-                try {
-                    categoryColumnIndex = i;
-                    categoryClass = Class.forName(metaData.getColumnClassName(i));
-                } catch (ClassNotFoundException ignore) {
-                    // do nothing
-                }
-            } else if (columnName.equalsIgnoreCase(aggregateColumnName)) {
-                try {
-                    aggregateColumnIndex = i;
-                    aggregateClass = Class.forName(metaData.getColumnClassName(i));
-                } catch (ClassNotFoundException ignore) {
-                    // do nothing
-                }
-            } else {
-                columnNames.add(columnName);
-            }
+    /**
+     * Builds the same pivot table as {@link #getPivotFromQuery(ResultSet, AggregateFunction,
+     * String, String, Format, boolean, boolean)} from several ResultSets of the same query, e.g.
+     * split by a range of one column. The ResultSets are aggregated in parallel on the common
+     * {@link java.util.concurrent.ForkJoinPool} and the partial pivot tables are merged.
+     *
+     * @param resultSets The ResultSets holding the partitions of the source data, which are read
+     *        concurrently but not closed. Each ResultSet must come from its own connection, since
+     *        connections must not be used by several threads at a time
+     * @param function Determine what type of aggregate function to use (SUM, COUNT, ...)
+     * @param aggregateColumnName Specify the column name of the aggregate value
+     * @param categoryColumnName Identify the column that will be transformed into separate Value
+     *        Columns
+     * @param categoryFormat Format the key values into column labels
+     * @param buildTotals If to insert Total rows below and column on the right side
+     * @param repeatHeader If to insert the header repeatedly before each category
+     * @return A 2-dimensional array holding the transformed Column Names and the Data
+     */
+    public static Object[][] getPivotFromQueries(List<ResultSet> resultSets,
+            AggregateFunction function, String aggregateColumnName, String categoryColumnName,
+            Format categoryFormat, boolean buildTotals, boolean repeatHeader) throws SQLException {
+        ArrayList<MPivotTable.Source> sources = new ArrayList<>();
+        for (ResultSet rs : resultSets) {
+            sources.add(() -> {
+                MPivotTable pivotTable = new MPivotTable(rs.getMetaData(), function,
+                        aggregateColumnName, categoryColumnName);
+                pivotTable.read(rs);
+                return pivotTable;
+            });
         }
+        return MPivotTable.read(sources).getPivot(categoryFormat, buildTotals);
+    }
 
-        if (categoryClass == null || aggregateClass == null) {
-            throw new RuntimeException("Unable to determine the Aggregate or Category Classes.");
+    /**
+     * Builds the same pivot table as {@link #getPivotFromQuery(ResultSet, AggregateFunction,
+     * String, String, Format, boolean, boolean)} from a query template, which is executed once per
+     * partition with the partition's Named Parameters (e.g. the bounds of a range). A connection
+     * must not be used by several threads at a time, so the partitions are executed one after the
+     * other; see {@link #getPivotFromQuery(MParallelExecutor.ConnectionSupplier, String, List,
+     * AggregateFunction, String, String, Format, boolean, boolean)} for executing them in parallel.
+     *
+     * @param conn The connection executing the partitions
+     * @param sqlStr The query with Named Parameters for the partition bounds
+     * @param partitions The values of the Named Parameters, one map per partition
+     * @param function Determine what type of aggregate function to use (SUM, COUNT, ...)
+     * @param aggregateColumnName Specify the column name of the aggregate value
+     * @param categoryColumnName Identify the column that will be transformed into separate Value
+     *        Columns
+     * @param categoryFormat Format the key values into column labels
+     * @param buildTotals If to insert Total rows below and column on the right side
+     * @param repeatHeader If to insert the header repeatedly before each category
+     * @return A 2-dimensional array holding the transformed Column Names and the Data
+     */
+    public static Object[][] getPivotFromQuery(Connection conn, String sqlStr,
+            List<Map<String, Object>> partitions, AggregateFunction function,
+            String aggregateColumnName, String categoryColumnName, Format categoryFormat,
+            boolean buildTotals, boolean repeatHeader) throws SQLException, JSQLParserException {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required.");
         }
 
-
-        TreeSet<Object> keys = new TreeSet<>();
-        TreeMap<ObjectArrayKey, TreeMap<Object, Object>> data = new TreeMap<>();
-        ArrayList<Object> columnValues = new ArrayList<>();
-        Object keyValue;
-        Object aggregateValue;
-        while (rs.next()) {
-            columnValues.clear();
-            keyValue = null;
-            aggregateValue = null;
-
-            for (int i = 1; i <= columnCount; i++) {
-                Object value = rs.getObject(i);
-
-                if (i == categoryColumnIndex) {
-                    keyValue = value;
-                    // if we meet the key first time, we need to register it and extend the
-                    // aggregated data maps
-                    if (!keys.contains(keyValue)) {
-                        keys.add(keyValue);
-                        for (TreeMap<Object, Object> aggregatedData : data.values()) {
-                            aggregatedData.put(keyValue, null);
-                        }
+        MPivotTable pivotTable = null;
+        try (MPreparedStatement st = new MPreparedStatement(conn, sqlStr)) {
+            for (Map<String, Object> parameters : partitions) {
+                try (ResultSet rs = st.executeQuery(parameters)) {
+                    if (pivotTable == null) {
+                        pivotTable = new MPivotTable(rs.getMetaData(), function,
+                                aggregateColumnName, categoryColumnName);
                     }
-                } else if (i == aggregateColumnIndex) {
-                    aggregateValue = value;
-                } else {
-                    columnValues.add(rs.getObject(i));
+                    pivotTable.read(rs);
                 }
             }
-
-            ObjectArrayKey objectKey = new ObjectArrayKey(columnValues.toArray());
-
-            final TreeMap<Object, Object> rowData =
-                    data.getOrDefault(objectKey, emptyMapFromKeys(keys));
-            if (aggregateClass.equals(BigDecimal.class)) {
-                BigDecimal a = (BigDecimal) rowData.get(keyValue);
-                BigDecimal b = (BigDecimal) aggregateValue;
-
-                if (function == AggregateFunction.SUM) {
-                    if (a == null) {
-                        rowData.put(keyValue, b);
-                    } else if (b != null) {
-                        rowData.put(keyValue, a.add(b));
-                    }
-                } else {
-                    throw new UnsupportedOperationException(
-                            "Only SUM is supported right now, sorry!");
-                }
-            } else {
-                throw new UnsupportedOperationException(
-                        "Only BigDecimals are supported right now, sorry!");
-            }
-
-            data.put(objectKey, rowData);
         }
+        return pivotTable.getPivot(categoryFormat, buildTotals);
+    }
 
-        // build the final data cube
-        for (Object k : keys) {
-            columnNames.add(categoryFormat != null ? categoryFormat.format(k) : k.toString());
-        }
-        if (buildTotals) {
-            columnNames.add("Total");
+    /**
+     * Builds the same pivot table as {@link #getPivotFromQuery(ResultSet, AggregateFunction,
+     * String, String, Format, boolean, boolean)} from a query template, which is executed once per
+     * partition with the partition's Named Parameters (e.g. the bounds of a range). The partitions
+     * are executed and aggregated in parallel by a {@link MParallelExecutor}, each worker on its
+     * own connection, and the partial pivot tables are merged.
+     *
+     * @param connectionSupplier Provides the connections of the workers, e.g. {@code
+     *        dataSource::getConnection}, which are closed afterwards
+     * @param sqlStr The query with Named Parameters for the partition bounds
+     * @param partitions The values of the Named Parameters, one map per partition
+     * @param function Determine what type of aggregate function to use (SUM, COUNT, ...)
+     * @param aggregateColumnName Specify the column name of the aggregate value
+     * @param categoryColumnName Identify the column that will be transformed into separate Value
+     *        Columns
+     * @param categoryFormat Format the key values into column labels
+     * @param buildTotals If to insert Total rows below and column on the right side
+     * @param repeatHeader If to insert the header repeatedly before each category
+     * @return A 2-dimensional array holding the transformed Column Names and the Data
+     */
+    public static Object[][] getPivotFromQuery(
+            MParallelExecutor.ConnectionSupplier connectionSupplier, String sqlStr,
+            List<Map<String, Object>> partitions, AggregateFunction function,
+            String aggregateColumnName, String categoryColumnName, Format categoryFormat,
+            boolean buildTotals, boolean repeatHeader) throws SQLException, JSQLParserException {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required.");
         }
 
-        ArrayList<Object[]> resultData = new ArrayList<>();
-        BigDecimal[] subTotals = new BigDecimal[keys.size() + 1];
-        Arrays.fill(subTotals, BigDecimal.ZERO);
-
-        int r = 0;
-        Object mainCategory = null;
-        for (Map.Entry<ObjectArrayKey, TreeMap<Object, Object>> e : data.entrySet()) {
-            Object[] rowData = new Object[columnNames.size()];
-
-            int c = 0;
-            for (Object k : e.getKey().keys) {
-                rowData[c] = k;
-                c++;
-            }
-
-            if (buildTotals && !rowData[0].equals(mainCategory)) {
-                if (mainCategory != null) {
-                    Object[] totalRowData = new Object[columnNames.size()];
-                    totalRowData[0] = mainCategory;
-                    totalRowData[e.getKey().keys.length - 2] = "Total";
-
-                    System.arraycopy(subTotals, 0, totalRowData, e.getKey().keys.length,
-                            keys.size() + 1);
-                    resultData.add(totalRowData);
-                    resultData.add(new Object[columnNames.size()]);
-                }
-
-                mainCategory = rowData[0];
-                Arrays.fill(subTotals, BigDecimal.ZERO);
-            }
-
-            BigDecimal rowTotal = BigDecimal.ZERO;
-            int c1 = 0;
-            for (Object k : keys) {
-                rowData[c] = e.getValue().get(k);
-
-                if (buildTotals && rowData[c] != null) {
-                    rowTotal = rowTotal.add((BigDecimal) rowData[c]);
-                    subTotals[c1] = subTotals[c1].add((BigDecimal) rowData[c]);
-                }
-                c++;
-                c1++;
-            }
-            if (buildTotals) {
-                rowData[c] = rowTotal;
-                subTotals[c1] = subTotals[c1].add(rowTotal);
-            }
-
-            resultData.add(rowData);
-            r++;
-
-            // totals after the last row
-            if (buildTotals && r == data.size()) {
-                Object[] totalRowData = new Object[columnNames.size()];
-                totalRowData[0] = mainCategory;
-                totalRowData[e.getKey().keys.length - 2] = "Total";
-                System.arraycopy(subTotals, 0, totalRowData, e.getKey().keys.length,
-                        keys.size() + 1);
-                resultData.add(totalRowData);
-            }
+        MParallelExecutor executor = new MParallelExecutor(connectionSupplier, sqlStr)
+                .setConcurrency(
+                        Math.min(partitions.size(), Runtime.getRuntime().availableProcessors()));
+        List<MPivotTable> pivotTables = executor.executeQuery(partitions, rs -> {
+            MPivotTable pivotTable = new MPivotTable(rs.getMetaData(), function,
+                    aggregateColumnName, categoryColumnName);
+            pivotTable.read(rs);
+            return pivotTable;
+        });
+
+        MPivotTable pivotTable = pivotTables.get(0);
+        for (int i = 1; i < pivotTables.size(); i++) {
+            pivotTable.merge(pivotTables.get(i));
         }
-
-        return new Object[][] {
-                columnNames.toArray(new String[columnNames.size()]),
-                resultData.toArray(new Object[resultData.size()][])
-        };
+        return pivotTable.getPivot(categoryFormat, buildTotals);
     }
 
 }
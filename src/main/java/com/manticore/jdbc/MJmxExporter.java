@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exports the {@link MStatementMetrics} of each statement shape as MXBean
+ * `com.manticore.jdbc:type=StatementMetrics,name=&lt;fingerprint&gt;`, with the latencies per
+ * {@link MStatementMetrics.Phase} in nanoseconds.
+ */
+public final class MJmxExporter implements MStatementMetrics.Exporter {
+    public static final String DOMAIN = "com.manticore.jdbc";
+
+    /**
+     * The attributes of the MXBean, the maps are keyed by the name of the phase.
+     */
+    public interface StatementMetricsMXBean {
+        String getSqlStr();
+
+        String getFingerprint();
+
+        Map<String, Long> getCount();
+
+        Map<String, Long> getMeanNanos();
+
+        Map<String, Long> getP50Nanos();
+
+        Map<String, Long> getP99Nanos();
+
+        Map<String, Long> getMaxNanos();
+
+        long getBatchCount();
+
+        long getMeanRowsPerBatch();
+
+        long getBindFallbackCount();
+
+        void reset();
+    }
+
+    private static final class StatementMetricsView implements StatementMetricsMXBean {
+        private final MStatementMetrics metrics;
+
+        private StatementMetricsView(MStatementMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        private Map<String, Long> byPhase(ToLongFunction<MHistogram> f) {
+            LinkedHashMap<String, Long> values = new LinkedHashMap<>();
+            for (MStatementMetrics.Phase phase : MStatementMetrics.Phase.values()) {
+                values.put(phase.name(), f.applyAsLong(metrics.getHistogram(phase)));
+            }
+            return values;
+        }
+
+        @Override
+        public String getSqlStr() {
+            return metrics.getSqlStr();
+        }
+
+        @Override
+        public String getFingerprint() {
+            return metrics.getFingerprint().toHex();
+        }
+
+        @Override
+        public Map<String, Long> getCount() {
+            return byPhase(MHistogram::getCount);
+        }
+
+        @Override
+        public Map<String, Long> getMeanNanos() {
+            return byPhase(h -> Math.round(h.getMean()));
+        }
+
+        @Override
+        public Map<String, Long> getP50Nanos() {
+            return byPhase(h -> h.getValueAtPercentile(50));
+        }
+
+        @Override
+        public Map<String, Long> getP99Nanos() {
+            return byPhase(h -> h.getValueAtPercentile(99));
+        }
+
+        @Override
+        public Map<String, Long> getMaxNanos() {
+            return byPhase(MHistogram::getMax);
+        }
+
+        @Override
+        public long getBatchCount() {
+            return metrics.getRowsPerBatch().getCount();
+        }
+
+        @Override
+        public long getMeanRowsPerBatch() {
+            return Math.round(metrics.getRowsPerBatch().getMean());
+        }
+
+        @Override
+        public long getBindFallbackCount() {
+            return metrics.getBindFallbackCount();
+        }
+
+        @Override
+        public void reset() {
+            metrics.reset();
+        }
+    }
+
+    private final MBeanServer server;
+
+    public MJmxExporter() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public MJmxExporter(MBeanServer server) {
+        this.server = server;
+    }
+
+    public static ObjectName getObjectName(MStatementMetrics metrics) throws JMException {
+        return new ObjectName(
+                DOMAIN + ":type=StatementMetrics,name=" + metrics.getFingerprint().toHex());
+    }
+
+    @Override
+    public void export(MStatementMetrics metrics) {
+        try {
+            ObjectName name = getObjectName(metrics);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StatementMetricsView(metrics), name);
+            }
+        } catch (JMException ignore) {
+            // the metrics are still recorded, only not visible via JMX
+        }
+    }
+
+    @Override
+    public void remove(MStatementMetrics metrics) {
+        try {
+            ObjectName name = getObjectName(metrics);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException ignore) {
+            // nothing we can do here
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.UUID;
+
+/**
+ * Renders parameter values as SQL literals straight into a {@link StringBuilder}. The renderer is
+ * looked up once per value class, strings are escaped in a single pass and dates are formatted
+ * from their epoch milliseconds with the zone offsets cached between transitions, so rendering
+ * common values allocates nothing but the builder's growth.
+ * <p>
+ * Dates without time render as JDBC escape {@code {d 'yyyy-MM-dd'}}, else as
+ * {@code {ts 'yyyy-MM-dd HH:mm:ss.SSS'}} in the default time zone. Strings render quoted, with
+ * {@code &} rendered as {@code chr(38)} so that SQL*Plus won't read it as substitution variable.
+ * <p>
+ * {@link LocalDate}, {@link LocalDateTime} and {@link LocalTime} render as {@code {d ...}},
+ * {@code {ts ...}} and {@code {t ...}}, with as many fractional digits as needed for their
+ * nanoseconds. {@link Instant}, {@link OffsetDateTime} and {@link ZonedDateTime} render as
+ * {@code {ts ...}} of their instant in the default time zone, like {@link Date}.
+ */
+public final class MLiteralRenderer {
+    // 1900-01-01, before which TimeZone and ZoneRules disagree about local mean time, and
+    // 10000-01-01, from which the years have more than 4 digits
+    private static final long MIN_MILLIS = -2208988800000L;
+    private static final long MAX_MILLIS = 253402300800000L;
+    private static final String AMPERSAND = "' || chr(38) || '";
+    private static final int[] POWERS_OF_TEN =
+            {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+    private static final ThreadLocal<StringBuilder> BUILDER =
+            ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    private static volatile ZoneWindow zoneWindow = null;
+
+    interface Appender {
+        void append(StringBuilder builder, Object o);
+    }
+
+    private static final ClassValue<Appender> APPENDERS = new ClassValue<Appender>() {
+        @Override
+        protected Appender computeValue(Class<?> type) {
+            // the order of the checks matters for the subclasses of Date
+            if (java.sql.Date.class.isAssignableFrom(type)) {
+                return MLiteralRenderer::appendSqlDate;
+            } else if (Date.class.isAssignableFrom(type)) {
+                return (builder, o) -> appendDate(builder, (Date) o);
+            } else if (Calendar.class.isAssignableFrom(type)) {
+                return (builder, o) -> appendCalendar(builder, (Calendar) o);
+            } else if (type == Long.class || type == Integer.class || type == Short.class
+                    || type == Byte.class) {
+                return (builder, o) -> builder.append(((Number) o).longValue());
+            } else if (type == Double.class) {
+                return (builder, o) -> builder.append(((Double) o).doubleValue());
+            } else if (type == Float.class) {
+                return (builder, o) -> builder.append(((Float) o).floatValue());
+            } else if (BigInteger.class.isAssignableFrom(type)) {
+                return (builder, o) -> builder.append(o);
+            } else if (BigDecimal.class.isAssignableFrom(type)) {
+                return (builder, o) -> builder.append(((BigDecimal) o).toPlainString());
+            } else if (type == Boolean.class) {
+                return (builder, o) -> builder.append((Boolean) o ? "TRUE" : "FALSE");
+            } else if (type == String.class) {
+                return (builder, o) -> appendString(builder, (String) o);
+            } else if (type == LocalDate.class) {
+                return (builder, o) -> appendLocalDate(builder, (LocalDate) o);
+            } else if (type == LocalDateTime.class) {
+                return (builder, o) -> appendLocalDateTime(builder, (LocalDateTime) o);
+            } else if (type == LocalTime.class) {
+                return (builder, o) -> appendTime(builder.append("{t '"), (LocalTime) o, 0)
+                        .append("'}");
+            } else if (type == Instant.class) {
+                return (builder, o) -> appendInstant(builder, ((Instant) o).getEpochSecond(),
+                        ((Instant) o).getNano());
+            } else if (type == OffsetDateTime.class) {
+                return (builder, o) -> appendInstant(builder,
+                        ((OffsetDateTime) o).toEpochSecond(), ((OffsetDateTime) o).getNano());
+            } else if (type == ZonedDateTime.class) {
+                return (builder, o) -> appendInstant(builder,
+                        ((ZonedDateTime) o).toEpochSecond(), ((ZonedDateTime) o).getNano());
+            } else if (type == UUID.class) {
+                // needs no escaping
+                return (builder, o) -> builder.append('\'').append(o).append('\'');
+            } else {
+                return (builder, o) -> builder.append('\'').append(o).append('\'');
+            }
+        }
+    };
+
+    private MLiteralRenderer() {
+        // static utility
+    }
+
+    /**
+     * Appends the SQL literal of the value, NULL for null.
+     */
+    public static StringBuilder append(StringBuilder builder, Object o) {
+        if (o == null) {
+            return builder.append("NULL");
+        }
+        APPENDERS.get(o.getClass()).append(builder, o);
+        return builder;
+    }
+
+    /**
+     * Appends the SQL literal of the value, rendered through a reused per-thread buffer unless the
+     * target is a StringBuilder already.
+     */
+    public static <A extends Appendable> A append(A appendable, Object o) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            append((StringBuilder) appendable, o);
+        } else {
+            StringBuilder builder = BUILDER.get();
+            builder.setLength(0);
+            appendable.append(append(builder, o));
+        }
+        return appendable;
+    }
+
+    /**
+     * @return the SQL literal of the value
+     */
+    public static String render(Object o) {
+        return append(new StringBuilder(16), o).toString();
+    }
+
+    static void appendString(StringBuilder builder, String s) {
+        builder.append('\'');
+        int start = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '&') {
+                builder.append(s, start, i).append(c == '\'' ? "''" : AMPERSAND);
+                start = i + 1;
+            }
+        }
+        builder.append(s, start, length).append('\'');
+    }
+
+    private static void appendSqlDate(StringBuilder builder, Object o) {
+        long millis = ((Date) o).getTime();
+        if (!appendDateTime(builder, millis, true)) {
+            builder.append("{d '").append(o).append("'}");
+        }
+    }
+
+    private static boolean isMidnight(Calendar cal) {
+        return cal.get(Calendar.MILLISECOND) == 0
+                && cal.get(Calendar.SECOND) == 0
+                && cal.get(Calendar.MINUTE) == 0
+                && cal.get(Calendar.HOUR_OF_DAY) == 0;
+    }
+
+    private static void appendDate(StringBuilder builder, Date d) {
+        long millis = d.getTime();
+        if (!appendDateTime(builder, millis, false)) {
+            Calendar cal = GregorianCalendar.getInstance();
+            cal.setTime(d);
+            appendFormatted(builder, millis, isMidnight(cal));
+        }
+    }
+
+    private static void appendCalendar(StringBuilder builder, Calendar cal) {
+        // the time of day is read in the calendar's zone, but formatted in the default zone
+        long millis = cal.getTimeInMillis();
+        boolean midnight = isMidnight(cal);
+        if (!appendDateTime(builder, millis, getOffsetSeconds(millis), midnight)) {
+            appendFormatted(builder, millis, midnight);
+        }
+    }
+
+    private static void appendFormatted(StringBuilder builder, long millis, boolean dateOnly) {
+        LocalDateTime localDateTime =
+                Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDateTime();
+        if (dateOnly) {
+            builder.append("{d '").append(MJdbcTools.SQL_DATE_FORMAT.format(localDateTime))
+                    .append("'}");
+        } else {
+            builder.append("{ts '").append(MJdbcTools.SQL_TIMESTAMP_FORMAT.format(localDateTime))
+                    .append("'}");
+        }
+    }
+
+    /**
+     * Appends the date, and the time unless it is midnight or {@code dateOnly}.
+     *
+     * @return FALSE if the date is before 1900 or its year can't be rendered with 4 digits, and
+     *         nothing has been appended
+     */
+    private static boolean appendDateTime(StringBuilder builder, long millis, boolean dateOnly) {
+        int offset = getOffsetSeconds(millis);
+        long localMillis = millis + offset * 1000L;
+        boolean midnight = dateOnly || Math.floorMod(localMillis, 86400000L) == 0;
+        return appendDateTime(builder, millis, offset, midnight);
+    }
+
+    private static boolean appendDateTime(StringBuilder builder, long millis, int offset,
+            boolean dateOnly) {
+        // a day of margin for the offset
+        if (millis < MIN_MILLIS + 86400000L || millis > MAX_MILLIS - 86400000L) {
+            return false;
+        }
+        long localMillis = millis + offset * 1000L;
+        int millisOfDay = (int) Math.floorMod(localMillis, 86400000L);
+
+        builder.append(dateOnly ? "{d '" : "{ts '");
+        appendEpochDay(builder, Math.floorDiv(localMillis, 86400000L));
+        if (!dateOnly) {
+            appendTime(builder.append(' '), millisOfDay / 3600000, millisOfDay / 60000 % 60,
+                    millisOfDay / 1000 % 60, millisOfDay % 1000 * 1000000, 3);
+        }
+        builder.append("'}");
+        return true;
+    }
+
+    private static void appendInstant(StringBuilder builder, long epochSecond, int nano) {
+        if (epochSecond < MIN_MILLIS / 1000 + 86400L || epochSecond > MAX_MILLIS / 1000 - 86400L) {
+            appendLocalDateTime(builder, LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(epochSecond, nano), ZoneId.systemDefault()));
+            return;
+        }
+        long localSecond = epochSecond + getOffsetSeconds(epochSecond * 1000);
+        int secondOfDay = (int) Math.floorMod(localSecond, 86400L);
+
+        appendEpochDay(builder.append("{ts '"), Math.floorDiv(localSecond, 86400L));
+        appendTime(builder.append(' '), secondOfDay / 3600, secondOfDay / 60 % 60,
+                secondOfDay % 60, nano, 3);
+        builder.append("'}");
+    }
+
+    private static void appendLocalDate(StringBuilder builder, LocalDate date) {
+        if (date.getYear() < 1 || date.getYear() > 9999) {
+            builder.append("{d '").append(MJdbcTools.SQL_DATE_FORMAT.format(date)).append("'}");
+        } else {
+            appendDate(builder.append("{d '"), date.getYear(), date.getMonthValue(),
+                    date.getDayOfMonth());
+            builder.append("'}");
+        }
+    }
+
+    private static void appendLocalDateTime(StringBuilder builder, LocalDateTime dateTime) {
+        if (dateTime.getYear() < 1 || dateTime.getYear() > 9999) {
+            builder.append("{ts '").append(MJdbcTools.SQL_TIMESTAMP_FORMAT.format(dateTime))
+                    .append("'}");
+        } else {
+            appendDate(builder.append("{ts '"), dateTime.getYear(), dateTime.getMonthValue(),
+                    dateTime.getDayOfMonth());
+            appendTime(builder.append(' '), dateTime.toLocalTime(), 3).append("'}");
+        }
+    }
+
+    private static void appendEpochDay(StringBuilder builder, long epochDay) {
+        // civil date from the epoch day, see http://howardhinnant.github.io/date_algorithms.html
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        appendDate(builder, (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0)), month, day);
+    }
+
+    private static void appendDate(StringBuilder builder, int year, int month, int day) {
+        appendDigits(builder, year, 4);
+        appendDigits(builder.append('-'), month, 2);
+        appendDigits(builder.append('-'), day, 2);
+    }
+
+    private static StringBuilder appendTime(StringBuilder builder, LocalTime time,
+            int fractionDigits) {
+        return appendTime(builder, time.getHour(), time.getMinute(), time.getSecond(),
+                time.getNano(), fractionDigits);
+    }
+
+    /**
+     * Appends the time with at least the given number of fractional digits, or 6 or 9 when the
+     * nanoseconds need them.
+     */
+    private static StringBuilder appendTime(StringBuilder builder, int hour, int minute,
+            int second, int nano, int fractionDigits) {
+        appendDigits(builder, hour, 2);
+        appendDigits(builder.append(':'), minute, 2);
+        appendDigits(builder.append(':'), second, 2);
+        if (nano % 1000 != 0) {
+            fractionDigits = 9;
+        } else if (nano % 1000000 != 0) {
+            fractionDigits = Math.max(fractionDigits, 6);
+        } else if (nano != 0) {
+            fractionDigits = Math.max(fractionDigits, 3);
+        }
+        if (fractionDigits > 0) {
+            appendDigits(builder.append('.'), nano / POWERS_OF_TEN[9 - fractionDigits],
+                    fractionDigits);
+        }
+        return builder;
+    }
+
+    private static void appendDigits(StringBuilder builder, int value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            builder.append((char) ('0' + value / POWERS_OF_TEN[i] % 10));
+        }
+    }
+
+    /**
+     * @return the offset of the default time zone at the instant in seconds
+     */
+    static int getOffsetSeconds(long millis) {
+        ZoneId zone = ZoneId.systemDefault();
+        ZoneWindow window = zoneWindow;
+        // Java 11 returns a new ZoneId per call, so zones must be compared by equals
+        boolean sameZone = window != null && zone.equals(window.zone);
+        if (!sameZone || millis < window.fromMillis || millis >= window.untilMillis) {
+            window = new ZoneWindow(zone, sameZone ? window.rules : zone.getRules(), millis);
+            zoneWindow = window;
+        }
+        return window.offsetSeconds;
+    }
+
+    /**
+     * The offset of a zone during the time between two of its transitions.
+     */
+    private static final class ZoneWindow {
+        final ZoneId zone;
+        final ZoneRules rules;
+        final long fromMillis;
+        final long untilMillis;
+        final int offsetSeconds;
+
+        ZoneWindow(ZoneId zone, ZoneRules rules, long millis) {
+            this.zone = zone;
+            this.rules = rules;
+
+            Instant instant = Instant.ofEpochMilli(millis);
+            offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+            if (rules.isFixedOffset()) {
+                fromMillis = Long.MIN_VALUE;
+                untilMillis = Long.MAX_VALUE;
+            } else {
+                // transitions happen at whole seconds, so this finds one at the instant as well
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                fromMillis = previous != null ? previous.toEpochSecond() * 1000 : Long.MIN_VALUE;
+                untilMillis = next != null ? next.toEpochSecond() * 1000 : Long.MAX_VALUE;
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.JdbcNamedParameter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
+import net.sf.jsqlparser.util.deparser.SelectDeParser;
+import net.sf.jsqlparser.util.deparser.StatementDeParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A SQL statement compiled once into its constant text fragments and the slots of its Named and
+ * Positional Parameters, which renders the statement with the SQL literals of any parameter
+ * values by concatenation only. The rendering is the same as by
+ * {@link MJdbcTools#rewriteStatementWithNamedParameters(String, MRewriteMode, Map)}.
+ * <p>
+ * Templates are immutable and thread-safe. Use {@link MStatementCache#getTemplate(String,
+ * MRewriteMode)} to share them process-wide.
+ */
+public final class MLiteralTemplate {
+    // the fragments before each slot and after the last one
+    private final String[] fragments;
+    // the name of each slot, NULL for a Positional Parameter
+    private final String[] names;
+    // the text of the Positional Parameters, kept when rendering from a Map
+    private final String[] positionalTexts;
+    private final int length;
+
+    private MLiteralTemplate(List<String> fragments, List<String> names,
+            List<String> positionalTexts) {
+        this.fragments = fragments.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.positionalTexts = positionalTexts.toArray(new String[0]);
+
+        int length = 0;
+        for (String fragment : this.fragments) {
+            length += fragment.length();
+        }
+        this.length = length;
+    }
+
+    /**
+     * Compiles the SQL statement by JSQLParser.
+     *
+     * @param sqlStr the SQL statement with Named or Positional Parameters
+     * @return the template
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public static MLiteralTemplate compile(String sqlStr) throws JSQLParserException {
+        return compile(sqlStr, MRewriteMode.PARSER);
+    }
+
+    /**
+     * Compiles the SQL statement in the given mode. The lexical modes keep the SQL text as
+     * written, while JSQLParser normalizes its formatting.
+     *
+     * @param sqlStr the SQL statement with Named or Positional Parameters
+     * @param mode whether to use JSQLParser or the lexical scanner
+     * @return the template
+     * @throws JSQLParserException when the statement can't be parsed or scanned
+     */
+    public static MLiteralTemplate compile(String sqlStr, MRewriteMode mode)
+            throws JSQLParserException {
+        if (mode == MRewriteMode.PARSER) {
+            return compileWithParser(sqlStr);
+        }
+
+        StringBuilder builder = new StringBuilder(sqlStr.length());
+        ArrayList<String> fragments = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        boolean[] ambiguous = {false};
+        try {
+            MSqlScanner.scan(sqlStr, new MSqlScanner.Visitor() {
+                @Override
+                public void text(String s, int start, int end) {
+                    builder.append(s, start, end);
+                }
+
+                @Override
+                public void parameter(String name) {
+                    fragments.add(builder.toString());
+                    builder.setLength(0);
+                    names.add(name);
+                }
+
+                @Override
+                public void ambiguous(int index) {
+                    ambiguous[0] = true;
+                }
+            });
+        } catch (JSQLParserException ex) {
+            if (mode == MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK) {
+                return compileWithParser(sqlStr);
+            }
+            throw ex;
+        }
+        fragments.add(builder.toString());
+        MLiteralTemplate template =
+                new MLiteralTemplate(fragments, names, Collections.nCopies(names.size(), "?"));
+
+        if (ambiguous[0] && mode == MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK) {
+            try {
+                return compileWithParser(sqlStr);
+            } catch (JSQLParserException ex) {
+                // vendor syntax unknown to the parser, the scanner's guess is the best we have
+                return template;
+            }
+        }
+        return template;
+    }
+
+    private static MLiteralTemplate compileWithParser(String sqlStr) throws JSQLParserException {
+        net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
+        StringBuilder builder = new StringBuilder();
+        ArrayList<String> fragments = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> positionalTexts = new ArrayList<>();
+
+        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
+            private void add(String name, String text) {
+                fragments.add(builder.toString());
+                builder.setLength(0);
+                names.add(name);
+                positionalTexts.add(text);
+            }
+
+            @Override
+            public <S> StringBuilder visit(JdbcParameter parameter, S context) {
+                add(null, parameter.toString());
+                return builder;
+            }
+
+            @Override
+            public <S> StringBuilder visit(JdbcNamedParameter parameter, S context) {
+                add(parameter.getName(), null);
+                return builder;
+            }
+        };
+
+        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, builder);
+        expressionDeParser.setSelectVisitor(selectDeParser);
+        expressionDeParser.setBuilder(builder);
+
+        StatementDeParser statementDeParser =
+                new StatementDeParser(expressionDeParser, selectDeParser, builder);
+        statement.accept(statementDeParser);
+
+        fragments.add(builder.toString());
+        return new MLiteralTemplate(fragments, names, positionalTexts);
+    }
+
+    /**
+     * @return the number of parameter slots
+     */
+    public int getParameterCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the names of the parameter slots in order of appearance, NULL for Positional
+     *         Parameters
+     */
+    public List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Renders the statement with the literals of the Named Parameters looked up in the map.
+     * Positional Parameters are kept.
+     */
+    public String render(Map<String, ?> parameters) {
+        return appendTo(new StringBuilder(length + 16 * names.length), parameters).toString();
+    }
+
+    /**
+     * Renders the statement with the literals of the values for the Named and Positional
+     * Parameters in order of appearance.
+     */
+    public String render(Object... parameters) {
+        return appendTo(new StringBuilder(length + 16 * names.length), parameters).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder, Map<String, ?> parameters) {
+        try {
+            appendTo((Appendable) builder, parameters);
+            return builder;
+        } catch (IOException ex) {
+            // a StringBuilder does not throw
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public StringBuilder appendTo(StringBuilder builder, Object... parameters) {
+        try {
+            appendTo((Appendable) builder, parameters);
+            return builder;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Renders the statement into any {@link Appendable}, e.g. a {@link java.io.Writer} of a
+     * script file, without building the statement as String first.
+     */
+    public <A extends Appendable> A appendTo(A appendable, Map<String, ?> parameters)
+            throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            appendable.append(fragments[i]);
+            if (names[i] != null) {
+                MLiteralRenderer.append(appendable, parameters.get(names[i]));
+            } else {
+                appendable.append(positionalTexts[i]);
+            }
+        }
+        appendable.append(fragments[names.length]);
+        return appendable;
+    }
+
+    public <A extends Appendable> A appendTo(A appendable, Object... parameters)
+            throws IOException {
+        if (parameters.length < names.length) {
+            throw new IllegalArgumentException("Expected " + names.length
+                    + " parameter values, but got " + parameters.length + ".");
+        }
+        for (int i = 0; i < names.length; i++) {
+            appendable.append(fragments[i]);
+            MLiteralRenderer.append(appendable, parameters[i]);
+        }
+        appendable.append(fragments[names.length]);
+        return appendable;
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small, thread-safe Least Recently Used cache with a bounded number of entries. Hits, misses and
+ * evictions are counted, so the efficiency of the cache can be monitored.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class MLruCache<K, V> {
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final LinkedHashMap<K, V> map;
+    private volatile int maximumSize;
+
+    /**
+     * Computes the value for a key, which has not been found in the cache.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the computed values
+     * @param <E> the type of the Exception thrown by the computation
+     */
+    @FunctionalInterface
+    public interface Loader<K, V, E extends Exception> {
+        V load(K key) throws E;
+    }
+
+    public MLruCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > MLruCache.this.maximumSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value of the key or computes and caches it, when not found. The loader is
+     * called outside the lock, so concurrent misses of the same key may compute the value twice.
+     *
+     * @param key the key to look up
+     * @param loader the computation of the value on a cache miss
+     * @return the cached or the computed value
+     * @throws E when the computation failed, in which case nothing is cached
+     */
+    public <E extends Exception> V get(K key, Loader<? super K, ? extends V, E> loader)
+            throws E {
+        V value;
+        synchronized (map) {
+            value = map.get(key);
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+
+        missCount.incrementAndGet();
+        value = loader.load(key);
+        if (value != null && maximumSize > 0) {
+            synchronized (map) {
+                map.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        V value;
+        synchronized (map) {
+            value = map.get(key);
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (maximumSize > 0) {
+            synchronized (map) {
+                map.put(key, value);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of cached entries and evicts the least recently used entries
+     * exceeding it. A size of 0 disables the caching.
+     *
+     * @param maximumSize the maximum number of entries
+     * @return this cache
+     */
+    public MLruCache<K, V> setMaximumSize(int maximumSize) {
+        this.maximumSize = Math.max(0, maximumSize);
+        synchronized (map) {
+            Iterator<K> iterator = map.keySet().iterator();
+            while (map.size() > this.maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        return this;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public void resetCounters() {
+        hitCount.set(0);
+        missCount.set(0);
+        evictionCount.set(0);
+    }
+}
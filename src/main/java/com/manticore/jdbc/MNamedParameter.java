@@ -101,6 +101,10 @@ public class MNamedParameter implements Comparable<MNamedParameter> {
         this.nullable = nullable;
     }
 
+    public void setType(int type) {
+        this.type = type;
+    }
+
     public Integer getScale() {
         return scale;
     }
@@ -131,6 +135,13 @@ public class MNamedParameter implements Comparable<MNamedParameter> {
         return new TreeSet<>(positions);
     }
 
+    /**
+     * @return the first position of the parameter, without copying the positions
+     */
+    public int getFirstPosition() {
+        return positions.first();
+    }
+
     public Integer getType() {
         return type;
     }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * A {@link PreparedStatement} of a statement with Named Parameters, which sets the value of a
+ * Named Parameter at all its positions. Returned by the connections of {@link MConnectionProxy},
+ * {@link MNamedParameterDriver} and {@link MNamedParameterDataSource}.
+ * <p>
+ * The names are case-insensitive and given without the colon. Setting a name the statement does
+ * not hold throws an SQLException.
+ */
+public interface MNamedPreparedStatement extends PreparedStatement {
+
+    /**
+     * @return the parsed statement with the positions of the Named Parameters
+     */
+    MParsedStatement getParsedStatement();
+
+    void setNull(String name, int sqlType) throws SQLException;
+
+    void setBoolean(String name, boolean x) throws SQLException;
+
+    void setInt(String name, int x) throws SQLException;
+
+    void setLong(String name, long x) throws SQLException;
+
+    void setDouble(String name, double x) throws SQLException;
+
+    void setBigDecimal(String name, BigDecimal x) throws SQLException;
+
+    void setString(String name, String x) throws SQLException;
+
+    void setBytes(String name, byte[] x) throws SQLException;
+
+    void setDate(String name, Date x) throws SQLException;
+
+    void setTime(String name, Time x) throws SQLException;
+
+    void setTimestamp(String name, Timestamp x) throws SQLException;
+
+    void setObject(String name, Object x) throws SQLException;
+
+    void setObject(String name, Object x, int targetSqlType) throws SQLException;
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Executes one statement with Named Parameters for many sets of parameter values in parallel,
+ * e.g. a lookup per account. Each worker takes its own connection from the supplier, prepares the
+ * statement once as a {@link MPreparedStatement} and executes it for the parameter values it pulls
+ * from the shared iterator. The workers run on virtual threads when available (Java 21+) or on
+ * daemon platform threads otherwise.
+ * <p>
+ * The results are either returned in the order of the parameter values or handed to a
+ * {@link CompletionHandler} on the calling thread as soon as they complete. A {@link
+ * java.util.stream.Stream} of parameter values can be passed as {@code stream::iterator}.
+ */
+public final class MParallelExecutor {
+    /**
+     * Provides the connections of the workers, which are closed after use (e.g. returned to a
+     * connection pool).
+     */
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        Connection getConnection() throws SQLException;
+    }
+
+    /**
+     * Maps the ResultSet of one execution to a result, the ResultSet is closed afterwards.
+     */
+    @FunctionalInterface
+    public interface ResultHandler<T> {
+        T handle(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Receives the results as they complete.
+     */
+    @FunctionalInterface
+    public interface CompletionHandler<T> {
+        /**
+         * @param index the position of the parameter values, starting with 0
+         * @param result the result of the execution
+         */
+        void completed(int index, T result) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Operation<T> {
+        T execute(MPreparedStatement st, Map<String, Object> parameterValues) throws SQLException;
+    }
+
+    // marks a worker being finished in the queue of completed results
+    private static final Object[] FINISHED = new Object[0];
+
+    private final ConnectionSupplier connectionSupplier;
+    private final String sqlStr;
+    private final MRewriteMode mode;
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private Map<String, Integer> parameterTypes = null;
+
+    public MParallelExecutor(ConnectionSupplier connectionSupplier, String sqlStr)
+            throws JSQLParserException {
+        this(connectionSupplier, sqlStr, MRewriteMode.PARSER);
+    }
+
+    public MParallelExecutor(ConnectionSupplier connectionSupplier, String sqlStr,
+            MRewriteMode mode) throws JSQLParserException {
+        this.connectionSupplier = connectionSupplier;
+        this.sqlStr = sqlStr;
+        this.mode = mode;
+
+        // parse once and fail early, the workers will hit the cache
+        MStatementCache.get(sqlStr, mode);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency the maximum number of workers and so of connections used at a time
+     * @return this executor
+     */
+    public MParallelExecutor setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency must be positive.");
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * @param parameterTypes the {@link java.sql.Types} of the Named Parameters, which saves the
+     *        lookup of the parameter metadata for each worker, see
+     *        {@link MPreparedStatement#MPreparedStatement(Connection, String, int, MRewriteMode,
+     *        Map)}
+     * @return this executor
+     */
+    public MParallelExecutor setParameterTypes(Map<String, Integer> parameterTypes) {
+        this.parameterTypes = parameterTypes;
+        return this;
+    }
+
+    /**
+     * Executes the query for all parameter values.
+     *
+     * @param parameterValues the values of the Named Parameters, one map per execution
+     * @param handler maps each ResultSet to a result
+     * @return the results in the order of the parameter values
+     * @throws SQLException the first exception thrown by any execution
+     */
+    public <T> List<T> executeQuery(Iterable<? extends Map<String, Object>> parameterValues,
+            ResultHandler<T> handler) throws SQLException {
+        ArrayList<T> results = new ArrayList<>();
+        executeQuery(parameterValues, handler, (index, result) -> {
+            while (results.size() <= index) {
+                results.add(null);
+            }
+            results.set(index, result);
+        });
+        return results;
+    }
+
+    /**
+     * Executes the query for all parameter values and hands the results to the completion handler
+     * on the calling thread in the order they complete.
+     *
+     * @param parameterValues the values of the Named Parameters, one map per execution
+     * @param handler maps each ResultSet to a result
+     * @param completionHandler receives the results
+     * @throws SQLException the first exception thrown by any execution or the completion handler
+     */
+    public <T> void executeQuery(Iterable<? extends Map<String, Object>> parameterValues,
+            ResultHandler<T> handler, CompletionHandler<? super T> completionHandler)
+            throws SQLException {
+        execute(parameterValues, (st, values) -> {
+            try (ResultSet rs = st.executeQuery(values)) {
+                return handler.handle(rs);
+            }
+        }, completionHandler);
+    }
+
+    /**
+     * Executes the update for all parameter values.
+     *
+     * @param parameterValues the values of the Named Parameters, one map per execution
+     * @return the update counts in the order of the parameter values
+     * @throws SQLException the first exception thrown by any execution
+     */
+    public int[] executeUpdate(Iterable<? extends Map<String, Object>> parameterValues)
+            throws SQLException {
+        ArrayList<Integer> results = new ArrayList<>();
+        execute(parameterValues, MPreparedStatement::executeUpdate, (index, result) -> {
+            while (results.size() <= index) {
+                results.add(null);
+            }
+            results.set(index, result);
+        });
+
+        int[] updateCounts = new int[results.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            updateCounts[i] = results.get(i);
+        }
+        return updateCounts;
+    }
+
+    private static ExecutorService newExecutor(int concurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // before Java 21
+            return Executors.newFixedThreadPool(concurrency, r -> {
+                Thread thread = new Thread(r, "MParallelExecutor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private <T> void execute(Iterable<? extends Map<String, Object>> parameterValues,
+            Operation<T> operation, CompletionHandler<? super T> completionHandler)
+            throws SQLException {
+        final Iterator<? extends Map<String, Object>> iterator = parameterValues.iterator();
+        final int[] nextIndex = {0};
+        final LinkedBlockingQueue<Object[]> completed = new LinkedBlockingQueue<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // don't open more connections than there are executions
+        final int workers = parameterValues instanceof Collection
+                ? Math.min(concurrency, ((Collection<?>) parameterValues).size())
+                : concurrency;
+
+        ExecutorService executor = newExecutor(Math.max(1, workers));
+        try {
+            for (int w = 0; w < workers; w++) {
+                executor.execute(() -> {
+                    try (Connection conn = connectionSupplier.getConnection();
+                            MPreparedStatement st = new MPreparedStatement(conn, sqlStr,
+                                    MPreparedStatement.DEFAULT_BATCH_SIZE, mode,
+                                    parameterTypes)) {
+                        while (failure.get() == null) {
+                            int index;
+                            Map<String, Object> values;
+                            synchronized (iterator) {
+                                if (!iterator.hasNext()) {
+                                    break;
+                                }
+                                values = iterator.next();
+                                index = nextIndex[0]++;
+                            }
+                            completed.add(new Object[] {index, operation.execute(st, values)});
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        completed.add(FINISHED);
+                    }
+                });
+            }
+
+            int running = workers;
+            while (running > 0) {
+                Object[] entry = completed.take();
+                if (entry == FINISHED) {
+                    running--;
+                } else if (failure.get() == null) {
+                    try {
+                        @SuppressWarnings("unchecked")
+                        T result = (T) entry[1];
+                        completionHandler.completed((Integer) entry[0], result);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        } finally {
+            executor.shutdown();
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof SQLException) {
+            throw (SQLException) t;
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new SQLException("Parallel execution failed.", t);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.UUID;
+
+/**
+ * Binds a parameter value to a {@link PreparedStatement}, specialised for the SQL type of the
+ * parameter. Binders are stateless and are selected once per parameter. Streams, files and
+ * buffers are bound as streams by any binder except for dates, see {@link MParameterStreams}.
+ * <p>
+ * The {@code java.time} types are bound with their JDBC 4.2 {@link JDBCType}, converted to the
+ * type of the parameter where needed, so the driver does not cast the column instead.
+ * {@link Instant} is bound as {@link Timestamp} and instants are converted to dates in the
+ * default time zone.
+ */
+@FunctionalInterface
+interface MParameterBinder {
+    MParameterBinder OBJECT = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof LocalDate) {
+                setObject(statement, parameterIndex, o, JDBCType.DATE);
+            } else if (o instanceof LocalDateTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIMESTAMP);
+            } else if (o instanceof LocalTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIME);
+            } else if (o instanceof OffsetDateTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else if (o instanceof ZonedDateTime) {
+                setObject(statement, parameterIndex, ((ZonedDateTime) o).toOffsetDateTime(),
+                        JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else if (o instanceof Instant) {
+                statement.setTimestamp(parameterIndex, Timestamp.from((Instant) o));
+            } else if (!MParameterStreams.bind(statement, parameterIndex, o)) {
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder STRING = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof String || o instanceof UUID) {
+                statement.setString(parameterIndex, o.toString());
+            } else {
+                OBJECT.bind(statement, parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder TIMESTAMP = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof java.util.Date) {
+                java.util.Date date = (java.util.Date) o;
+                statement.setTimestamp(parameterIndex, MJdbcTools.getSQLTimestamp(date));
+            } else if (o instanceof Calendar) {
+                Calendar calendar = (Calendar) o;
+                statement.setTimestamp(parameterIndex, MJdbcTools.getSQLTimestamp(calendar));
+            } else if (o instanceof LocalDateTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIMESTAMP);
+            } else if (o instanceof LocalDate) {
+                setObject(statement, parameterIndex, ((LocalDate) o).atStartOfDay(),
+                        JDBCType.TIMESTAMP);
+            } else if (o instanceof Instant) {
+                statement.setTimestamp(parameterIndex, Timestamp.from((Instant) o));
+            } else if (o instanceof OffsetDateTime) {
+                statement.setTimestamp(parameterIndex,
+                        Timestamp.from(((OffsetDateTime) o).toInstant()));
+            } else if (o instanceof ZonedDateTime) {
+                statement.setTimestamp(parameterIndex,
+                        Timestamp.from(((ZonedDateTime) o).toInstant()));
+            } else {
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder DATE = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof java.util.Date) {
+                java.util.Date date = (java.util.Date) o;
+                statement.setDate(parameterIndex, MJdbcTools.getSQLDate(date));
+            } else if (o instanceof Calendar) {
+                Calendar calendar = (Calendar) o;
+                statement.setDate(parameterIndex, MJdbcTools.getSQLDate(calendar));
+            } else if (o instanceof LocalDate) {
+                setObject(statement, parameterIndex, o, JDBCType.DATE);
+            } else if (o instanceof LocalDateTime) {
+                setObject(statement, parameterIndex, ((LocalDateTime) o).toLocalDate(),
+                        JDBCType.DATE);
+            } else if (o instanceof Instant) {
+                Instant instant = (Instant) o;
+                setObject(statement, parameterIndex,
+                        getLocalDate(instant.getEpochSecond(), instant.toEpochMilli()),
+                        JDBCType.DATE);
+            } else if (o instanceof OffsetDateTime || o instanceof ZonedDateTime) {
+                long epochSecond = o instanceof OffsetDateTime
+                        ? ((OffsetDateTime) o).toEpochSecond()
+                        : ((ZonedDateTime) o).toEpochSecond();
+                setObject(statement, parameterIndex, getLocalDate(epochSecond, epochSecond * 1000),
+                        JDBCType.DATE);
+            } else {
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder TIME = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof LocalTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIME);
+            } else if (o instanceof LocalDateTime) {
+                setObject(statement, parameterIndex, ((LocalDateTime) o).toLocalTime(),
+                        JDBCType.TIME);
+            } else {
+                OBJECT.bind(statement, parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder TIMESTAMP_WITH_TIMEZONE = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof OffsetDateTime) {
+                setObject(statement, parameterIndex, o, JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else if (o instanceof ZonedDateTime) {
+                setObject(statement, parameterIndex, ((ZonedDateTime) o).toOffsetDateTime(),
+                        JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else if (o instanceof Instant) {
+                setObject(statement, parameterIndex, ((Instant) o).atOffset(ZoneOffset.UTC),
+                        JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else if (o instanceof java.util.Date && !(o instanceof java.sql.Date
+                    || o instanceof java.sql.Time)) {
+                setObject(statement, parameterIndex,
+                        ((java.util.Date) o).toInstant().atOffset(ZoneOffset.UTC),
+                        JDBCType.TIMESTAMP_WITH_TIMEZONE);
+            } else {
+                OBJECT.bind(statement, parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder BINARY = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof byte[]) {
+                byte[] bytes = (byte[]) o;
+                statement.setBinaryStream(parameterIndex, new ByteArrayInputStream(bytes),
+                        bytes.length);
+            } else if (!MParameterStreams.bind(statement, parameterIndex, o)) {
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    };
+
+    MParameterBinder CHARACTER = new MParameterBinder() {
+        @Override
+        public void bind(PreparedStatement statement, int parameterIndex, Object o)
+                throws SQLException {
+            if (o instanceof String) {
+                String s = (String) o;
+                statement.setCharacterStream(parameterIndex, new StringReader(s), s.length());
+            } else if (!MParameterStreams.bind(statement, parameterIndex, o, true)) {
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    };
+
+    void bind(PreparedStatement statement, int parameterIndex, Object o) throws SQLException;
+
+    /**
+     * Binds the value with its {@link JDBCType}, or with the {@link Types} code for drivers not
+     * implementing JDBC 4.2.
+     */
+    static void setObject(PreparedStatement statement, int parameterIndex, Object o,
+            JDBCType type) throws SQLException {
+        try {
+            statement.setObject(parameterIndex, o, type);
+        } catch (SQLFeatureNotSupportedException | AbstractMethodError ex) {
+            statement.setObject(parameterIndex, o, type.getVendorTypeNumber());
+        }
+    }
+
+    /**
+     * @return the date of the instant in the default time zone, using the cached zone offsets
+     */
+    static LocalDate getLocalDate(long epochSecond, long epochMilli) {
+        long offset = MLiteralRenderer.getOffsetSeconds(epochMilli);
+        return LocalDate.ofEpochDay(Math.floorDiv(epochSecond + offset, 86400L));
+    }
+
+    /**
+     * @param sqlType the {@link Types} of the parameter
+     * @return the binder for the SQL type
+     */
+    static MParameterBinder forType(int sqlType) {
+        switch (sqlType) {
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            case Types.DATE:
+                return DATE;
+            case Types.TIME:
+                return TIME;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return TIMESTAMP_WITH_TIMEZONE;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                return STRING;
+            case Types.BINARY:
+            case Types.BLOB:
+            case Types.LONGVARBINARY:
+                return BINARY;
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return CHARACTER;
+
+            // @todo: add more SQLType Mappings
+            default:
+                return OBJECT;
+        }
+    }
+}
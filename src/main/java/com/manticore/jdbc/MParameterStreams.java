@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds large parameter values as streams, which the driver reads when the statement is executed,
+ * so the payload doesn't need to be copied onto the heap first. The length is passed to the
+ * driver whenever it is known.
+ * <p>
+ * The streams opened for {@link Path} values are tracked per statement and must be closed by
+ * {@link #close(PreparedStatement)} after the statement or batch has been executed, since drivers
+ * given the length don't read to the end of the stream and never close it.
+ */
+final class MParameterStreams {
+    // the streams opened for the parameters of a statement until it has been executed
+    private static final IdentityHashMap<PreparedStatement, List<Closeable>> OPENED =
+            new IdentityHashMap<>();
+    private static final AtomicInteger OPENED_STATEMENTS = new AtomicInteger();
+
+    private MParameterStreams() {
+    }
+
+    /**
+     * @return TRUE if the value is an {@link InputStream}, {@link Reader}, {@link Path},
+     *         {@link ByteBuffer} or {@link ReadableByteChannel} and has been bound as stream
+     */
+    static boolean bind(PreparedStatement statement, int parameterIndex, Object o)
+            throws SQLException {
+        return bind(statement, parameterIndex, o, false);
+    }
+
+    /**
+     * @param text whether to bind a {@link Path} as UTF-8 encoded text instead of bytes
+     * @return TRUE if the value is an {@link InputStream}, {@link Reader}, {@link Path},
+     *         {@link ByteBuffer} or {@link ReadableByteChannel} and has been bound as stream
+     */
+    static boolean bind(PreparedStatement statement, int parameterIndex, Object o, boolean text)
+            throws SQLException {
+        if (o instanceof InputStream) {
+            statement.setBinaryStream(parameterIndex, (InputStream) o);
+        } else if (o instanceof Reader) {
+            statement.setCharacterStream(parameterIndex, (Reader) o);
+        } else if (o instanceof Path) {
+            Path path = (Path) o;
+            try {
+                if (text) {
+                    statement.setCharacterStream(parameterIndex, register(statement,
+                            Files.newBufferedReader(path, StandardCharsets.UTF_8)));
+                } else {
+                    statement.setBinaryStream(parameterIndex,
+                            register(statement, new ClosingInputStream(path)), Files.size(path));
+                }
+            } catch (IOException ex) {
+                throw new SQLException("Failed to open " + path + ".", ex);
+            }
+        } else if (o instanceof ByteBuffer) {
+            ByteBuffer buffer = (ByteBuffer) o;
+            statement.setBinaryStream(parameterIndex, getInputStream(buffer), buffer.remaining());
+        } else if (o instanceof ReadableByteChannel) {
+            ReadableByteChannel channel = (ReadableByteChannel) o;
+            InputStream in = Channels.newInputStream(channel);
+            if (channel instanceof SeekableByteChannel) {
+                try {
+                    SeekableByteChannel seekable = (SeekableByteChannel) channel;
+                    statement.setBinaryStream(parameterIndex, in,
+                            seekable.size() - seekable.position());
+                } catch (IOException ex) {
+                    throw new SQLException("Failed to determine the size of the channel.", ex);
+                }
+            } else {
+                statement.setBinaryStream(parameterIndex, in);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static <T extends Closeable> T register(PreparedStatement statement, T closeable) {
+        synchronized (OPENED) {
+            List<Closeable> opened = OPENED.get(statement);
+            if (opened == null) {
+                opened = new ArrayList<>();
+                OPENED.put(statement, opened);
+                OPENED_STATEMENTS.incrementAndGet();
+            }
+            opened.add(closeable);
+        }
+        return closeable;
+    }
+
+    /**
+     * Closes the streams opened for the parameters of the statement, which has been executed.
+     * Costs a single volatile read when no streams are open at all.
+     *
+     * @param statement the executed statement
+     */
+    static void close(PreparedStatement statement) {
+        if (OPENED_STATEMENTS.get() == 0) {
+            return;
+        }
+        List<Closeable> opened;
+        synchronized (OPENED) {
+            opened = OPENED.remove(statement);
+            if (opened != null) {
+                OPENED_STATEMENTS.decrementAndGet();
+            }
+        }
+        if (opened != null) {
+            for (Closeable closeable : opened) {
+                try {
+                    closeable.close();
+                } catch (IOException ignore) {
+                    // nothing we can do here
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of statements with open parameter streams
+     */
+    static int getOpenedStatementCount() {
+        return OPENED_STATEMENTS.get();
+    }
+
+    /**
+     * @return a stream reading the remaining bytes of the buffer without moving its position
+     */
+    static InputStream getInputStream(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ByteArrayInputStream(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     * Reads a direct or memory mapped buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Reads a file and closes it at its end, since the driver does not close the streams of the
+     * parameters.
+     */
+    private static final class ClosingInputStream extends FilterInputStream {
+        ClosingInputStream(Path path) throws IOException {
+            super(Files.newInputStream(path));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                close();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                close();
+            }
+            return n;
+        }
+    }
+}
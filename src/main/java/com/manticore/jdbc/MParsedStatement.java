@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcNamedParameter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Values;
+import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
+import net.sf.jsqlparser.util.deparser.SelectDeParser;
+import net.sf.jsqlparser.util.deparser.StatementDeParser;
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The immutable result of rewriting a SQL statement with Named Parameters into a statement with
+ * Positional Parameters `?`: the rewritten SQL and the positions of each Named Parameter.
+ * Instances are shared between all statements built from the same SQL text.
+ */
+public final class MParsedStatement {
+    private final String originalSqlStr;
+    private final String sqlStr;
+    private final String[] names;
+    private final int[][] positions;
+    private final int parameterCount;
+    private final Map<String, Integer> slots = new CaseInsensitiveMap<>();
+
+    /**
+     * @param params the positions of the Named Parameters by their upper case ID, ordered by
+     *        appearance
+     */
+    MParsedStatement(String originalSqlStr, String sqlStr, Map<String, TreeSet<Integer>> params) {
+        this.originalSqlStr = originalSqlStr;
+        this.sqlStr = sqlStr;
+        this.names = new String[params.size()];
+        this.positions = new int[params.size()][];
+
+        int count = 0;
+        int slot = 0;
+        for (Map.Entry<String, TreeSet<Integer>> e : params.entrySet()) {
+            names[slot] = e.getKey();
+            positions[slot] = new int[e.getValue().size()];
+            int i = 0;
+            for (Integer position : e.getValue()) {
+                positions[slot][i++] = position;
+            }
+            count += i;
+            slots.put(names[slot], slot);
+            slot++;
+        }
+        this.parameterCount = count;
+    }
+
+    /**
+     * Parses the SQL statement with JSQLParser and rewrites any Named Parameter into a Positional
+     * Parameter `?`.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @return the parsed statement
+     * @throws JSQLParserException when the SQL statement can't be parsed
+     */
+    public static MParsedStatement parse(String sqlStr) throws JSQLParserException {
+        return deparse(sqlStr, CCJSqlParserUtil.parse(sqlStr));
+    }
+
+    /**
+     * Rewrites a single row `INSERT ... VALUES (...)` statement into a statement inserting the
+     * given number of rows `VALUES (...), (...), ...`, repeating the Named Parameters for each row.
+     * The parameters of row {@code r} (0-based) are found at the positions of the single row
+     * statement plus {@code r} times its parameter count.
+     *
+     * @param sqlStr the single row INSERT statement with Named Parameters
+     * @param rows the number of rows to insert per statement
+     * @return the rewritten multi row statement, or NULL when the statement is no single row
+     *         INSERT or holds Named Parameters outside of its VALUES
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public static MParsedStatement parseMultiRowInsert(String sqlStr, int rows)
+            throws JSQLParserException {
+        net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
+        if (!(statement instanceof Insert) || ((Insert) statement).getValues() == null) {
+            return null;
+        }
+
+        Values values = ((Insert) statement).getValues();
+        ExpressionList<?> row = values.getExpressions();
+        if (!(row instanceof ParenthesedExpressionList)) {
+            return null;
+        }
+        for (Object expression : row) {
+            if (expression instanceof ExpressionList) {
+                // this is a multi row insert already
+                return null;
+            }
+        }
+
+        int rowParameterCount = deparse(sqlStr, statement).getParameterCount();
+        ExpressionList<Expression> rowList = new ExpressionList<>();
+        for (int i = 0; i < rows; i++) {
+            rowList.add(row);
+        }
+        values.setExpressions(rowList);
+
+        MParsedStatement parsed = deparse(sqlStr, statement);
+        return parsed.getParameterCount() == rows * rowParameterCount ? parsed : null;
+    }
+
+    private static MParsedStatement deparse(String sqlStr,
+            net.sf.jsqlparser.statement.Statement statement) {
+        StringBuilder builder = new StringBuilder();
+        Map<String, TreeSet<Integer>> params = new LinkedHashMap<>();
+
+        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
+            int i = 1;
+
+            private void add(String id) {
+                params.computeIfAbsent(id.toUpperCase(), k -> new TreeSet<>()).add(i);
+
+                builder.append("?");
+                i++;
+            }
+
+            @Override
+            public <S> StringBuilder visit(JdbcParameter parameter, S context) {
+                add(":" + (i + 1));
+                return builder;
+            }
+
+            @Override
+            public <S> StringBuilder visit(JdbcNamedParameter parameter, S context) {
+                add(parameter.getName());
+                return builder;
+            }
+        };
+
+        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, builder);
+        expressionDeParser.setSelectVisitor(selectDeParser);
+        expressionDeParser.setBuilder(builder);
+
+        StatementDeParser statementDeParser =
+                new StatementDeParser(expressionDeParser, selectDeParser, builder);
+        statement.accept(statementDeParser);
+
+        return new MParsedStatement(sqlStr, builder.toString(), params);
+    }
+
+    public String getOriginalSqlStr() {
+        return originalSqlStr;
+    }
+
+    /**
+     * @return the rewritten SQL statement with Positional Parameters `?`
+     */
+    public String getSqlStr() {
+        return sqlStr;
+    }
+
+    /**
+     * @return the total number of Positional Parameters `?` in the rewritten statement
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @return the upper case IDs of the Named Parameters, ordered by their first appearance
+     */
+    public List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @param name the ID of the Named Parameter, case-insensitive
+     * @return the ascending 1-based positions of the Named Parameter, or an empty array when the
+     *         statement has no such parameter
+     */
+    public int[] getPositions(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? positions[slot].clone() : new int[0];
+    }
+
+    int getSlotCount() {
+        return names.length;
+    }
+
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    int[] getSlotPositions(int slot) {
+        return positions[slot];
+    }
+}
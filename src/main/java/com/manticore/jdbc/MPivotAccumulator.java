@@ -0,0 +1,582 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+
+/**
+ * One Value Column of a pivot table, aggregating the values of each row into a dense slot
+ * addressed by the row's ordinal. The implementations are specialised for the aggregate function
+ * and the class of the Aggregate Column, so that adding a value usually neither allocates nor
+ * boxes.
+ * <p>
+ * An empty slot returns NULL, while {@link #getTotal(int)} returns zero for SUM and COUNT, in the
+ * same way the Total rows and columns of a pivot are built.
+ */
+abstract class MPivotAccumulator {
+    private static final int INITIAL_CAPACITY = 16;
+
+    static MPivotAccumulator create(MJdbcTools.AggregateFunction function,
+            ResultSetMetaData metaData, int column) throws SQLException {
+        Class<?> valueClass;
+        try {
+            valueClass = Class.forName(metaData.getColumnClassName(column));
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException("Unable to determine the Aggregate or Category Classes.",
+                    ex);
+        }
+        return create(function, valueClass, metaData.getScale(column));
+    }
+
+    static MPivotAccumulator create(MJdbcTools.AggregateFunction function, Class<?> valueClass,
+            int scale) {
+        switch (function) {
+            case COUNT:
+                return new CountAccumulator();
+            case COUNT_DISTINCT:
+                return new DistinctAccumulator();
+            default:
+        }
+
+        boolean extremum = function == MJdbcTools.AggregateFunction.MIN
+                || function == MJdbcTools.AggregateFunction.MAX;
+        if (valueClass == Long.class || valueClass == Integer.class || valueClass == Short.class
+                || valueClass == Byte.class) {
+            return new LongAccumulator(function);
+        } else if (valueClass == Double.class || valueClass == Float.class) {
+            return new DoubleAccumulator(function);
+        } else if (valueClass == BigDecimal.class && !extremum) {
+            return new DecimalAccumulator(function, scale);
+        } else if (extremum && Comparable.class.isAssignableFrom(valueClass)) {
+            return new ComparableAccumulator(function);
+        }
+        throw new UnsupportedOperationException(
+                function + " is not supported for " + valueClass.getName() + ", sorry!");
+    }
+
+    private static int grow(int length, int row) {
+        return Math.max(row + 1, Math.max(INITIAL_CAPACITY, length * 2));
+    }
+
+    /**
+     * @return a new empty column of the same kind
+     */
+    abstract MPivotAccumulator newInstance();
+
+    abstract void add(int row, Object value);
+
+    abstract Object get(int row);
+
+    /**
+     * Adds the slot of another column of the same kind to the slot of this column.
+     */
+    abstract void merge(int row, MPivotAccumulator other, int otherRow);
+
+    abstract void clear(int row);
+
+    Object getTotal(int row) {
+        return get(row);
+    }
+
+    private static final class CountAccumulator extends MPivotAccumulator {
+        private final BitSet touched = new BitSet();
+        private long[] counts = new long[INITIAL_CAPACITY];
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new CountAccumulator();
+        }
+
+        private void add(int row, long count) {
+            if (row >= counts.length) {
+                counts = Arrays.copyOf(counts, grow(counts.length, row));
+            }
+            touched.set(row);
+            counts[row] += count;
+        }
+
+        @Override
+        void add(int row, Object value) {
+            add(row, value != null ? 1 : 0);
+        }
+
+        @Override
+        Object get(int row) {
+            return touched.get(row) ? counts[row] : null;
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            CountAccumulator that = (CountAccumulator) other;
+            if (that.touched.get(otherRow)) {
+                add(row, that.counts[otherRow]);
+            }
+        }
+
+        @Override
+        void clear(int row) {
+            if (touched.get(row)) {
+                touched.clear(row);
+                counts[row] = 0;
+            }
+        }
+
+        @Override
+        Object getTotal(int row) {
+            return touched.get(row) ? counts[row] : 0L;
+        }
+    }
+
+    private static final class DistinctAccumulator extends MPivotAccumulator {
+        private final ArrayList<HashSet<Object>> values = new ArrayList<>();
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new DistinctAccumulator();
+        }
+
+        private HashSet<Object> getValues(int row) {
+            while (values.size() <= row) {
+                values.add(null);
+            }
+            HashSet<Object> set = values.get(row);
+            if (set == null) {
+                set = new HashSet<>();
+                values.set(row, set);
+            }
+            return set;
+        }
+
+        @Override
+        void add(int row, Object value) {
+            HashSet<Object> set = getValues(row);
+            if (value instanceof BigDecimal) {
+                // 1.0 and 1.00 are the same value to the database
+                set.add(((BigDecimal) value).stripTrailingZeros());
+            } else if (value != null) {
+                set.add(value);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            HashSet<Object> set = row < values.size() ? values.get(row) : null;
+            return set != null ? (long) set.size() : null;
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            DistinctAccumulator that = (DistinctAccumulator) other;
+            HashSet<Object> set = otherRow < that.values.size() ? that.values.get(otherRow) : null;
+            if (set != null) {
+                getValues(row).addAll(set);
+            }
+        }
+
+        @Override
+        void clear(int row) {
+            if (row < values.size()) {
+                values.set(row, null);
+            }
+        }
+
+        @Override
+        Object getTotal(int row) {
+            Object value = get(row);
+            return value != null ? value : 0L;
+        }
+    }
+
+    /**
+     * MIN, MAX, SUM and AVG of integers. Sums are added up as longs, a row whose sum overflows
+     * falls back to BigDecimal arithmetic.
+     */
+    private static final class LongAccumulator extends MPivotAccumulator {
+        private final MJdbcTools.AggregateFunction function;
+        private long[] values = new long[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+        // NULL until the sum of any row overflows
+        private BigDecimal[] overflowValues = null;
+
+        LongAccumulator(MJdbcTools.AggregateFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new LongAccumulator(function);
+        }
+
+        private void ensureCapacity(int row) {
+            if (row >= counts.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+                counts = Arrays.copyOf(counts, values.length);
+                if (overflowValues != null) {
+                    overflowValues = Arrays.copyOf(overflowValues, values.length);
+                }
+            }
+        }
+
+        private BigDecimal getOverflow(int row) {
+            return overflowValues != null && row < overflowValues.length ? overflowValues[row]
+                    : null;
+        }
+
+        private void add(int row, long value, long count) {
+            ensureCapacity(row);
+            if (counts[row] == 0) {
+                values[row] = value;
+            } else if (function == MJdbcTools.AggregateFunction.MIN) {
+                values[row] = Math.min(values[row], value);
+            } else if (function == MJdbcTools.AggregateFunction.MAX) {
+                values[row] = Math.max(values[row], value);
+            } else if (getOverflow(row) != null) {
+                overflowValues[row] = overflowValues[row].add(BigDecimal.valueOf(value));
+            } else {
+                try {
+                    values[row] = Math.addExact(values[row], value);
+                } catch (ArithmeticException ex) {
+                    if (overflowValues == null) {
+                        overflowValues = new BigDecimal[values.length];
+                    }
+                    overflowValues[row] =
+                            BigDecimal.valueOf(values[row]).add(BigDecimal.valueOf(value));
+                }
+            }
+            counts[row] += count;
+        }
+
+        private void add(int row, BigDecimal value, long count) {
+            ensureCapacity(row);
+            if (overflowValues == null) {
+                overflowValues = new BigDecimal[values.length];
+            }
+            BigDecimal sum = getOverflow(row);
+            if (sum == null) {
+                sum = counts[row] > 0 ? BigDecimal.valueOf(values[row]) : BigDecimal.ZERO;
+            }
+            overflowValues[row] = sum.add(value);
+            counts[row] += count;
+        }
+
+        @Override
+        void add(int row, Object value) {
+            if (value != null) {
+                add(row, ((Number) value).longValue(), 1);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (row >= counts.length || counts[row] == 0) {
+                return null;
+            }
+            BigDecimal overflow = getOverflow(row);
+            if (function == MJdbcTools.AggregateFunction.AVG) {
+                return overflow != null
+                        ? overflow.doubleValue() / counts[row]
+                        : (double) values[row] / counts[row];
+            }
+            return overflow != null ? overflow : (Object) values[row];
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            LongAccumulator that = (LongAccumulator) other;
+            if (otherRow < that.counts.length && that.counts[otherRow] > 0) {
+                BigDecimal overflow = that.getOverflow(otherRow);
+                if (overflow != null) {
+                    add(row, overflow, that.counts[otherRow]);
+                } else {
+                    add(row, that.values[otherRow], that.counts[otherRow]);
+                }
+            }
+        }
+
+        @Override
+        void clear(int row) {
+            if (row < counts.length) {
+                counts[row] = 0;
+                if (overflowValues != null) {
+                    overflowValues[row] = null;
+                }
+            }
+        }
+
+        @Override
+        Object getTotal(int row) {
+            Object value = get(row);
+            return value == null && function == MJdbcTools.AggregateFunction.SUM ? 0L : value;
+        }
+    }
+
+    private static final class DoubleAccumulator extends MPivotAccumulator {
+        private final MJdbcTools.AggregateFunction function;
+        private double[] values = new double[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+
+        DoubleAccumulator(MJdbcTools.AggregateFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new DoubleAccumulator(function);
+        }
+
+        private void add(int row, double value, long count) {
+            if (row >= counts.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+                counts = Arrays.copyOf(counts, values.length);
+            }
+            if (counts[row] == 0) {
+                values[row] = value;
+            } else if (function == MJdbcTools.AggregateFunction.MIN) {
+                values[row] = Math.min(values[row], value);
+            } else if (function == MJdbcTools.AggregateFunction.MAX) {
+                values[row] = Math.max(values[row], value);
+            } else {
+                values[row] += value;
+            }
+            counts[row] += count;
+        }
+
+        @Override
+        void add(int row, Object value) {
+            if (value != null) {
+                add(row, ((Number) value).doubleValue(), 1);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (row >= counts.length || counts[row] == 0) {
+                return null;
+            } else if (function == MJdbcTools.AggregateFunction.AVG) {
+                return values[row] / counts[row];
+            }
+            return values[row];
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            DoubleAccumulator that = (DoubleAccumulator) other;
+            if (otherRow < that.counts.length && that.counts[otherRow] > 0) {
+                add(row, that.values[otherRow], that.counts[otherRow]);
+            }
+        }
+
+        @Override
+        void clear(int row) {
+            if (row < counts.length) {
+                counts[row] = 0;
+            }
+        }
+
+        @Override
+        Object getTotal(int row) {
+            Object value = get(row);
+            return value == null && function == MJdbcTools.AggregateFunction.SUM ? 0.0d : value;
+        }
+    }
+
+    /**
+     * SUM and AVG of BigDecimals. Values with the scale of the column are summed up as unscaled
+     * longs, anything else (or an overflow) falls back to BigDecimal arithmetic. The result is the
+     * same value and scale as adding up the BigDecimals.
+     */
+    private static final class DecimalAccumulator extends MPivotAccumulator {
+        private final MJdbcTools.AggregateFunction function;
+        private final int scale;
+        private final BitSet scaled = new BitSet();
+        private long[] unscaledValues = new long[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+        private BigDecimal[] overflowValues = new BigDecimal[INITIAL_CAPACITY];
+
+        DecimalAccumulator(MJdbcTools.AggregateFunction function, int scale) {
+            this.function = function;
+            this.scale = scale;
+        }
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new DecimalAccumulator(function, scale);
+        }
+
+        private void ensureCapacity(int row) {
+            if (row >= counts.length) {
+                counts = Arrays.copyOf(counts, grow(counts.length, row));
+                unscaledValues = Arrays.copyOf(unscaledValues, counts.length);
+                overflowValues = Arrays.copyOf(overflowValues, counts.length);
+            }
+        }
+
+        private void addUnscaled(int row, long unscaledValue) {
+            if (!scaled.get(row)) {
+                unscaledValues[row] = unscaledValue;
+                scaled.set(row);
+            } else {
+                try {
+                    unscaledValues[row] = Math.addExact(unscaledValues[row], unscaledValue);
+                } catch (ArithmeticException ex) {
+                    scaled.clear(row);
+                    addOverflow(row, BigDecimal.valueOf(unscaledValues[row], scale)
+                            .add(BigDecimal.valueOf(unscaledValue, scale)));
+                }
+            }
+        }
+
+        private void addOverflow(int row, BigDecimal value) {
+            BigDecimal a = overflowValues[row];
+            overflowValues[row] = a == null ? value : a.add(value);
+        }
+
+        @Override
+        void add(int row, Object value) {
+            if (value != null) {
+                ensureCapacity(row);
+                BigDecimal d = (BigDecimal) value;
+                if (d.scale() == scale && d.precision() < 19) {
+                    addUnscaled(row, d.unscaledValue().longValue());
+                } else {
+                    addOverflow(row, d);
+                }
+                counts[row]++;
+            }
+        }
+
+        private BigDecimal getSum(int row) {
+            BigDecimal sum =
+                    scaled.get(row) ? BigDecimal.valueOf(unscaledValues[row], scale) : null;
+            BigDecimal overflow = overflowValues[row];
+            if (overflow != null) {
+                sum = sum == null ? overflow : sum.add(overflow);
+            }
+            return sum;
+        }
+
+        @Override
+        Object get(int row) {
+            if (row >= counts.length || counts[row] == 0) {
+                return null;
+            } else if (function == MJdbcTools.AggregateFunction.AVG) {
+                return getSum(row).divide(BigDecimal.valueOf(counts[row]),
+                        MathContext.DECIMAL128);
+            }
+            return getSum(row);
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            DecimalAccumulator that = (DecimalAccumulator) other;
+            if (otherRow < that.counts.length && that.counts[otherRow] > 0) {
+                ensureCapacity(row);
+                if (that.scaled.get(otherRow)) {
+                    if (that.scale == scale) {
+                        addUnscaled(row, that.unscaledValues[otherRow]);
+                    } else {
+                        addOverflow(row,
+                                BigDecimal.valueOf(that.unscaledValues[otherRow], that.scale));
+                    }
+                }
+                if (that.overflowValues[otherRow] != null) {
+                    addOverflow(row, that.overflowValues[otherRow]);
+                }
+                counts[row] += that.counts[otherRow];
+            }
+        }
+
+        @Override
+        void clear(int row) {
+            if (row < counts.length) {
+                counts[row] = 0;
+                scaled.clear(row);
+                overflowValues[row] = null;
+            }
+        }
+
+        @Override
+        Object getTotal(int row) {
+            Object value = get(row);
+            return value == null && function == MJdbcTools.AggregateFunction.SUM
+                    ? BigDecimal.ZERO
+                    : value;
+        }
+    }
+
+    /**
+     * MIN and MAX of any Comparable values, e.g. BigDecimals, Strings or Dates.
+     */
+    private static final class ComparableAccumulator extends MPivotAccumulator {
+        private final MJdbcTools.AggregateFunction function;
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        ComparableAccumulator(MJdbcTools.AggregateFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        MPivotAccumulator newInstance() {
+            return new ComparableAccumulator(function);
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void add(int row, Object value) {
+            if (value != null) {
+                if (row >= values.length) {
+                    values = Arrays.copyOf(values, grow(values.length, row));
+                }
+                Comparable a = (Comparable) values[row];
+                if (a == null) {
+                    values[row] = value;
+                } else {
+                    int c = a.compareTo(value);
+                    if (function == MJdbcTools.AggregateFunction.MIN ? c > 0 : c < 0) {
+                        values[row] = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return row < values.length ? values[row] : null;
+        }
+
+        @Override
+        void merge(int row, MPivotAccumulator other, int otherRow) {
+            add(row, ((ComparableAccumulator) other).get(otherRow));
+        }
+
+        @Override
+        void clear(int row) {
+            if (row < values.length) {
+                values[row] = null;
+            }
+        }
+    }
+}
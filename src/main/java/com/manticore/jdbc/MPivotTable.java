@@ -0,0 +1,401 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The columnar backend of {@link MJdbcTools#getPivotFromQuery(ResultSet,
+ * MJdbcTools.AggregateFunction, String, String, Format, boolean, boolean)}: each row key gets an
+ * ordinal and each category a {@link MPivotAccumulator} holding one dense slot per row, so
+ * neither new categories nor new rows need to touch the existing data.
+ * <p>
+ * Row keys and categories are looked up in hash dictionaries, which are sorted only once when the
+ * pivot is built. Values which are equal by {@code compareTo()}, e.g. BigDecimals of different
+ * scale, are grouped together like in a sorted map.
+ */
+final class MPivotTable {
+    private final String[] keyColumnNames;
+    private final int[] keyColumnIndexes;
+    private final int categoryColumnIndex;
+    private final int aggregateColumnIndex;
+    private final MPivotAccumulator prototype;
+
+    private final Dictionary categories = new Dictionary();
+    private final Object[] categoryKey = new Object[1];
+    private final ArrayList<MPivotAccumulator> columns = new ArrayList<>();
+
+    private final Dictionary rows = new Dictionary();
+
+    MPivotTable(ResultSetMetaData metaData, MJdbcTools.AggregateFunction function,
+            String aggregateColumnName, String categoryColumnName) throws SQLException {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Integer> indexes = new ArrayList<>();
+        int categoryColumn = -1;
+        int aggregateColumn = -1;
+
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String columnName = metaData.getColumnName(i);
+            if (columnName.equalsIgnoreCase(categoryColumnName)) {
+                categoryColumn = i;
+            } else if (columnName.equalsIgnoreCase(aggregateColumnName)) {
+                aggregateColumn = i;
+            } else {
+                names.add(columnName);
+                indexes.add(i);
+            }
+        }
+        if (categoryColumn < 0 || aggregateColumn < 0) {
+            throw new RuntimeException("Unable to determine the Aggregate or Category Classes.");
+        }
+
+        keyColumnNames = names.toArray(new String[0]);
+        keyColumnIndexes = new int[indexes.size()];
+        for (int i = 0; i < keyColumnIndexes.length; i++) {
+            keyColumnIndexes[i] = indexes.get(i);
+        }
+        categoryColumnIndex = categoryColumn;
+        aggregateColumnIndex = aggregateColumn;
+        prototype = MPivotAccumulator.create(function, metaData, aggregateColumn);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(Object value, Object otherValue) {
+        return ((Comparable) value).compareTo(otherValue);
+    }
+
+    static int compareKeys(Object[] keys, Object[] otherKeys) {
+        for (int i = 0; i < keys.length; i++) {
+            int elementComparison = compareValues(keys[i], otherKeys[i]);
+            if (elementComparison != 0) {
+                return elementComparison;
+            }
+        }
+        return 0;
+    }
+
+    void read(ResultSet rs) throws SQLException {
+        Object[] key = new Object[keyColumnIndexes.length];
+        while (rs.next()) {
+            for (int i = 0; i < keyColumnIndexes.length; i++) {
+                key[i] = rs.getObject(keyColumnIndexes[i]);
+            }
+            int row = rows.getOrdinal(key);
+            Object category = rs.getObject(categoryColumnIndex);
+            columns.get(getCategory(category)).add(row, rs.getObject(aggregateColumnIndex));
+        }
+    }
+
+    /**
+     * Adds the rows and categories of another table of the same query to this table.
+     */
+    void merge(MPivotTable other) {
+        int[] categoryMap = new int[other.columns.size()];
+        for (int c = 0; c < categoryMap.length; c++) {
+            categoryMap[c] = getCategory(other.categories.getKey(c)[0]);
+        }
+        int[] rowMap = new int[other.rows.size()];
+        for (int r = 0; r < rowMap.length; r++) {
+            rowMap[r] = rows.getOrdinal(other.rows.getKey(r));
+        }
+
+        for (int c = 0; c < categoryMap.length; c++) {
+            MPivotAccumulator column = columns.get(categoryMap[c]);
+            MPivotAccumulator otherColumn = other.columns.get(c);
+            for (int r = 0; r < rowMap.length; r++) {
+                column.merge(rowMap[r], otherColumn, r);
+            }
+        }
+    }
+
+    /**
+     * Reads the sources in parallel on the common {@link ForkJoinPool} and merges their tables.
+     *
+     * @param sources the partitions of the query, at least one
+     * @return the merged table
+     * @throws SQLException the first exception thrown by a source
+     */
+    static MPivotTable read(List<? extends Source> sources) throws SQLException {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one partition is required.");
+        }
+        try {
+            return ForkJoinPool.commonPool().invoke(new ReadTask(sources, 0, sources.size()));
+        } catch (RuntimeException ex) {
+            // the pool may wrap the exception once more when rethrowing it in this thread
+            for (Throwable t = ex; t != null; t = t.getCause()) {
+                if (t instanceof SQLException) {
+                    throw (SQLException) t;
+                }
+            }
+            throw ex;
+        }
+    }
+
+    private int getCategory(Object category) {
+        categoryKey[0] = category;
+        int c = categories.getOrdinal(categoryKey);
+        if (c == columns.size()) {
+            columns.add(prototype.newInstance());
+        }
+        return c;
+    }
+
+    /**
+     * @return A 2-dimensional array holding the transformed Column Names and the Data
+     */
+    Object[][] getPivot(Format categoryFormat, boolean buildTotals) {
+        int[] categoryOrder = categories.getSortedOrdinals();
+        int categoryCount = categoryOrder.length;
+        int keyLength = keyColumnNames.length;
+
+        ArrayList<String> columnNames = new ArrayList<>(Arrays.asList(keyColumnNames));
+        for (int c : categoryOrder) {
+            Object k = categories.getKey(c)[0];
+            columnNames.add(categoryFormat != null ? categoryFormat.format(k) : k.toString());
+        }
+        if (buildTotals) {
+            columnNames.add("Total");
+        }
+        int columnCount = columnNames.size();
+
+        MPivotAccumulator rowTotal = prototype.newInstance();
+        MPivotAccumulator[] subTotals = new MPivotAccumulator[categoryCount + 1];
+        for (int c = 0; c <= categoryCount; c++) {
+            subTotals[c] = prototype.newInstance();
+        }
+
+        ArrayList<Object[]> resultData = new ArrayList<>();
+        Object mainCategory = null;
+        for (int row : rows.getSortedOrdinals()) {
+            Object[] rowData = new Object[columnCount];
+            System.arraycopy(rows.getKey(row), 0, rowData, 0, keyLength);
+
+            if (buildTotals && !rowData[0].equals(mainCategory)) {
+                if (mainCategory != null) {
+                    resultData.add(getTotalRow(mainCategory, subTotals, columnCount));
+                    resultData.add(new Object[columnCount]);
+                }
+                mainCategory = rowData[0];
+                for (MPivotAccumulator subTotal : subTotals) {
+                    subTotal.clear(0);
+                }
+            }
+
+            for (int c = 0; c < categoryCount; c++) {
+                MPivotAccumulator column = columns.get(categoryOrder[c]);
+                rowData[keyLength + c] = column.get(row);
+                if (buildTotals) {
+                    rowTotal.merge(0, column, row);
+                    subTotals[c].merge(0, column, row);
+                }
+            }
+            if (buildTotals) {
+                rowData[keyLength + categoryCount] = rowTotal.getTotal(0);
+                subTotals[categoryCount].merge(0, rowTotal, 0);
+                rowTotal.clear(0);
+            }
+            resultData.add(rowData);
+        }
+
+        // totals after the last row
+        if (buildTotals && mainCategory != null) {
+            resultData.add(getTotalRow(mainCategory, subTotals, columnCount));
+        }
+
+        return new Object[][] {
+                columnNames.toArray(new String[columnCount]),
+                resultData.toArray(new Object[resultData.size()][])
+        };
+    }
+
+    private Object[] getTotalRow(Object mainCategory, MPivotAccumulator[] subTotals,
+            int columnCount) {
+        Object[] totalRowData = new Object[columnCount];
+        totalRowData[0] = mainCategory;
+        totalRowData[Math.max(0, keyColumnNames.length - 2)] = "Total";
+        for (int c = 0; c < subTotals.length; c++) {
+            totalRowData[keyColumnNames.length + c] = subTotals[c].getTotal(0);
+        }
+        return totalRowData;
+    }
+
+    /**
+     * An open addressing hash table assigning consecutive ordinals to the distinct keys it is
+     * asked for. Each key is copied and stored only once.
+     */
+    static final class Dictionary {
+        private final ArrayList<Object[]> keys = new ArrayList<>();
+        private int[] hashes = new int[16];
+        // the ordinals + 1 by slot, 0 marks an empty slot
+        private int[] table = new int[32];
+
+        private static int hash(Object[] key) {
+            int hash = 0;
+            for (Object value : key) {
+                int h;
+                if (value instanceof BigDecimal) {
+                    // equal by compareTo() regardless of the scale
+                    h = Double.hashCode(((BigDecimal) value).doubleValue());
+                } else {
+                    h = value != null ? value.hashCode() : 0;
+                }
+                // unlike 31 * hash + h, similar Strings in different columns don't cancel out
+                hash = (hash + h) * 0x9E3779B9;
+            }
+            // spread the bits, since the table size is a power of 2
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean equal(Object[] key, Object[] otherKey) {
+            for (int i = 0; i < key.length; i++) {
+                Object a = key[i];
+                Object b = otherKey[i];
+                if (a == b) {
+                    continue;
+                } else if (a == null || b == null) {
+                    return false;
+                } else if (a instanceof BigDecimal && b instanceof BigDecimal) {
+                    if (((BigDecimal) a).compareTo((BigDecimal) b) != 0) {
+                        return false;
+                    }
+                } else if (!a.equals(b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        Object[] getKey(int ordinal) {
+            return keys.get(ordinal);
+        }
+
+        /**
+         * @return the ordinal of the key, which is added when it was not known yet
+         */
+        int getOrdinal(Object[] key) {
+            int hash = hash(key);
+            int mask = table.length - 1;
+            int i = hash & mask;
+            for (int entry = table[i]; entry != 0; entry = table[i]) {
+                if (hashes[entry - 1] == hash && equal(keys.get(entry - 1), key)) {
+                    return entry - 1;
+                }
+                i = (i + 1) & mask;
+            }
+
+            int ordinal = keys.size();
+            keys.add(key.clone());
+            if (ordinal == hashes.length) {
+                hashes = Arrays.copyOf(hashes, ordinal * 2);
+            }
+            hashes[ordinal] = hash;
+            table[i] = ordinal + 1;
+
+            // keep the load factor below 0.5
+            if (2 * keys.size() > table.length) {
+                rehash();
+            }
+            return ordinal;
+        }
+
+        private void rehash() {
+            int[] newTable = new int[table.length * 2];
+            int mask = newTable.length - 1;
+            for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+                int i = hashes[ordinal] & mask;
+                while (newTable[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newTable[i] = ordinal + 1;
+            }
+            table = newTable;
+        }
+
+        /**
+         * @return the ordinals in the order of their keys
+         */
+        int[] getSortedOrdinals() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareKeys(keys.get(a), keys.get(b)));
+
+            int[] result = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                result[i] = order[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * One partition of a pivot query, e.g. a ResultSet of a range of the rows.
+     */
+    @FunctionalInterface
+    interface Source {
+        MPivotTable read() throws SQLException;
+    }
+
+    private static final class ReadTask extends RecursiveTask<MPivotTable> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<? extends Source> sources;
+        private final int from;
+        private final int to;
+
+        ReadTask(List<? extends Source> sources, int from, int to) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MPivotTable compute() {
+            if (to - from == 1) {
+                try {
+                    return sources.get(from).read();
+                } catch (SQLException ex) {
+                    throw new RuntimeException("Failed to read the partition " + from + ".", ex);
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            ReadTask right = new ReadTask(sources, middle, to);
+            right.fork();
+            MPivotTable table = new ReadTask(sources, from, middle).compute();
+            table.merge(right.join());
+            return table;
+        }
+    }
+}
@@ -18,33 +18,34 @@
  */
 package com.manticore.jdbc;
 
+import com.manticore.jdbc.MStatementMetrics.Phase;
 import net.sf.jsqlparser.JSQLParserException;
-import net.sf.jsqlparser.expression.JdbcNamedParameter;
-import net.sf.jsqlparser.expression.JdbcParameter;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
-import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
-import net.sf.jsqlparser.util.deparser.SelectDeParser;
-import net.sf.jsqlparser.util.deparser.StatementDeParser;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 
-import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.sql.Connection;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public final class MPreparedStatement implements Closeable {
-    private final static int DEFAULT_BATCH_SIZE = 24;
+    final static int DEFAULT_BATCH_SIZE = 24;
+    // fits the 2100 parameters of SQL Server
+    final static int BULK_LOAD_PARAMETER_LIMIT = 2000;
     private final PreparedStatement statement;
-    private final ParameterMetaData parameterMetaData;
+    private final MParsedStatement parsedStatement;
     private final String sqlStr;
     private final CaseInsensitiveMap<String, MNamedParameter> parameters =
             new CaseInsensitiveMap<>();
@@ -52,170 +53,434 @@ public final class MPreparedStatement implements Closeable {
     private long recordCount = 0;
     private final int batchSize;
 
-    private String rewriteSqlStr(String sqlStr) throws JSQLParserException {
-        net.sf.jsqlparser.statement.Statement statement = CCJSqlParserUtil.parse(sqlStr);
-        StringBuilder builder = new StringBuilder();
-        ExpressionDeParser expressionDeParser = new ExpressionDeParser() {
-            int i = 1;
+    // the binding plan, indexed by the slot of the Named Parameter or by the JDBC parameter index
+    private String[] slotNames;
+    private int[] indexToSlot;
+    private int[] parameterTypes;
+    private MParameterBinder[] binders;
+
+    // the multi row INSERT mode buffers the parameter values of each row until the batch executes
+    private int multiRowCount = 0;
+    private ArrayList<Object[]> multiRowBuffer = null;
+    private final HashMap<Integer, PreparedStatement> multiRowStatements = new HashMap<>();
+
+    // the bulk load mode buffers the rows the same way and hands them to the loader
+    private MBulkLoader bulkLoader = null;
+    private MBulkLoader.Target bulkTarget = null;
+
+    // NULL unless the metrics were enabled when the statement was created
+    private final MStatementMetrics metrics;
+    // NULL unless a slow query log was installed when the statement was created
+    private final MSlowQueryLog slowQueryLog;
+    private final boolean timed;
+    // the parameter values of the last batched record, captured only by slow batches
+    private Object lastBatchValues = null;
+    // the fetch size, row limit and query timeout as prepared, captured before the first change
+    private int[] defaults = null;
+
+    private void setParameterPositions() {
+        for (int slot = 0; slot < parsedStatement.getSlotCount(); slot++) {
+            String id = parsedStatement.getName(slot);
+            int[] positions = parsedStatement.getSlotPositions(slot);
+
+            MNamedParameter p = new MNamedParameter(id, positions[0]);
+            for (int i = 1; i < positions.length; i++) {
+                p.add(positions[i]);
+            }
+            parameters.put(id, p);
+        }
+    }
 
-            @Override
-            public <S> StringBuilder visit(JdbcParameter parameter, S context) {
-                String id = ":" + (i + 1);
-                if (!parameters.containsKey(id)) {
-                    parameters.put(id, new MNamedParameter(id, i));
-                } else {
-                    parameters.get(id).add(i);
-                }
+    public MPreparedStatement(Connection conn, String sqlStr, int batchSize)
+            throws SQLException, JSQLParserException {
+        this(conn, sqlStr, batchSize, MRewriteMode.PARSER);
+    }
 
-                builder.append("?");
-                i++;
-                return builder;
-            }
+    public MPreparedStatement(Connection conn, String sqlStr, int batchSize, MRewriteMode mode)
+            throws SQLException, JSQLParserException {
+        this(conn, sqlStr, batchSize, mode, null);
+    }
 
-            @Override
-            public <S> StringBuilder visit(JdbcNamedParameter parameter, S context) {
-                String id = parameter.getName();
-                if (!parameters.containsKey(id)) {
-                    parameters.put(id, new MNamedParameter(id, i));
-                } else {
-                    parameters.get(id).add(i);
-                }
+    /**
+     * Creates a statement with explicitly supplied parameter types, which will not look up the
+     * {@link ParameterMetaData} at all. This avoids server round trips for drivers with expensive
+     * metadata and binds parameters of unknown type via {@link PreparedStatement#setObject}.
+     *
+     * @param conn the connection
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param batchSize the number of records after which {@link #addAndExecuteBatch} executes
+     * @param mode how to rewrite the Named Parameters
+     * @param parameterTypes the {@link java.sql.Types} of the Named Parameters by their
+     *        case-insensitive ID, may be empty to skip the lookup; NULL reads the
+     *        {@link ParameterMetaData}
+     * @throws SQLException when the statement can't be prepared
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public MPreparedStatement(Connection conn, String sqlStr, int batchSize, MRewriteMode mode,
+            Map<String, Integer> parameterTypes) throws SQLException, JSQLParserException {
+        this(conn, sqlStr, batchSize, mode, parameterTypes, null);
+    }
 
-                builder.append("?");
-                i++;
+    /**
+     * Creates a statement for queries with the given cursor, fetch size, row limit and timeout.
+     *
+     * @param conn the connection
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param options the query options, e.g. for streaming huge results
+     * @throws SQLException when the statement can't be prepared
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public MPreparedStatement(Connection conn, String sqlStr, MQueryOptions options)
+            throws SQLException, JSQLParserException {
+        this(conn, sqlStr, DEFAULT_BATCH_SIZE, MRewriteMode.PARSER, null, options);
+    }
 
-                return builder;
-            }
-        };
+    public MPreparedStatement(Connection conn, String sqlStr, int batchSize, MRewriteMode mode,
+            Map<String, Integer> parameterTypes, MQueryOptions options)
+            throws SQLException, JSQLParserException {
+        this.metrics = MStatementMetrics.forStatement(sqlStr);
+        this.slowQueryLog = MSlowQueryLog.getInstalled();
+        this.timed = metrics != null || slowQueryLog != null;
+        long t = startTiming();
+        this.parsedStatement = MStatementCache.get(sqlStr, mode);
+        this.sqlStr = parsedStatement.getSqlStr();
+        this.batchSize = batchSize;
+        setParameterPositions();
+        t = recordTiming(Phase.PARSE, t);
+
+        statement = options != null
+                ? options.prepare(conn, this.sqlStr)
+                : conn.prepareStatement(this.sqlStr);
+        if (parameterTypes != null) {
+            setParameterTypes(parameterTypes);
+        } else {
+            setParameterTypes(statement.getParameterMetaData());
+        }
+        compileBindingPlan();
+        recordTiming(Phase.PREPARE, t);
+    }
 
-        SelectDeParser selectDeParser = new SelectDeParser(expressionDeParser, builder);
-        expressionDeParser.setSelectVisitor(selectDeParser);
-        expressionDeParser.setBuilder(builder);
+    public MPreparedStatement(Connection conn, String sqlStr)
+            throws SQLException, JSQLParserException {
+        this(conn, sqlStr, DEFAULT_BATCH_SIZE);
+    }
 
-        StatementDeParser statementDeParser =
-                new StatementDeParser(expressionDeParser, selectDeParser, builder);
-        statement.accept(statementDeParser);
+    public MPreparedStatement(Connection conn, String sqlStr, MRewriteMode mode)
+            throws SQLException, JSQLParserException {
+        this(conn, sqlStr, DEFAULT_BATCH_SIZE, mode);
+    }
 
-        return builder.toString();
+    private long startTiming() {
+        return timed ? System.nanoTime() : 0L;
     }
 
-    private LinkedList<Object> getParamArr(Map<String, Object> parameterValues) {
-        LinkedList<Object> objects = new LinkedList<>();
-        for (MNamedParameter p : parameters.values()) {
-            for (Integer position : p.getPositions()) {
-                while (objects.size() < position) {
-                    objects.add(null);
-                }
-                objects.set(position - 1, parameterValues.get(p.getId()));
-            }
+    /**
+     * Records the time since the start of the phase.
+     *
+     * @return the start of the next phase
+     */
+    private long recordTiming(Phase phase, long start) {
+        if (!timed) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        if (metrics != null) {
+            metrics.record(phase, now - start);
         }
-        return objects;
+        return now;
     }
 
-    public MPreparedStatement(Connection conn, String sqlStr, int batchSize)
-            throws SQLException, JSQLParserException {
-        this.sqlStr = rewriteSqlStr(sqlStr);
-        this.batchSize = batchSize;
-        statement = conn.prepareStatement(this.sqlStr);
-        parameterMetaData = statement.getParameterMetaData();
+    /**
+     * Records the execution and captures it into the slow query log, when it was slow.
+     *
+     * @param start the start of binding the parameters
+     * @param executeStart the start of the execution
+     */
+    private void recordExecution(long start, long executeStart, Object parameterValues,
+            int[] updateCounts) {
+        if (!timed) {
+            return;
+        }
+        long now = recordTiming(Phase.EXECUTE, executeStart);
+        if (slowQueryLog != null && slowQueryLog.isSlow(now - start)) {
+            slowQueryLog.record(parsedStatement.getOriginalSqlStr(), now - start,
+                    getParameterMap(parameterValues), updateCounts, 1);
+        }
+    }
 
-        setParameterTypes();
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getParameterMap(Object parameterValues) {
+        if (parameterValues == null || parameterValues instanceof Map) {
+            return (Map<String, Object>) parameterValues;
+        }
+        Object[] values = (Object[]) parameterValues;
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        for (int parameterIndex = 1; parameterIndex < indexToSlot.length
+                && parameterIndex <= values.length; parameterIndex++) {
+            map.putIfAbsent(slotNames[indexToSlot[parameterIndex]], values[parameterIndex - 1]);
+        }
+        return map;
     }
 
-    public MPreparedStatement(Connection conn, String sqlStr)
-            throws SQLException, JSQLParserException {
-        this(conn, sqlStr, DEFAULT_BATCH_SIZE);
+    private void recordBindFallback() {
+        if (metrics != null) {
+            metrics.recordBindFallback();
+        }
     }
 
-    private void setParameters(Map<String, Object> parameterValues) throws SQLException {
-        setParameters(getParamArr(parameterValues).toArray());
+    /**
+     * Compiles the binding plan: the slot of the Named Parameter for each JDBC parameter index and
+     * the binder specialised for the parameter's SQL type.
+     */
+    private void compileBindingPlan() {
+        int slotCount = parsedStatement.getSlotCount();
+
+        slotNames = new String[slotCount];
+        indexToSlot = new int[parsedStatement.getParameterCount() + 1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotNames[slot] = parsedStatement.getName(slot);
+            for (int position : parsedStatement.getSlotPositions(slot)) {
+                indexToSlot[position] = slot;
+            }
+        }
+
+        binders = new MParameterBinder[parameterTypes.length];
+        for (int parameterIndex = 1; parameterIndex < binders.length; parameterIndex++) {
+            binders[parameterIndex] = MParameterBinder.forType(parameterTypes[parameterIndex]);
+        }
     }
 
-    private void setParameters(Object... parameterValues) throws SQLException {
+    void setParameters(Map<String, Object> parameterValues) throws SQLException {
+        statement.clearParameters();
+        for (int parameterIndex = 1; parameterIndex < indexToSlot.length; parameterIndex++) {
+            int slot = indexToSlot[parameterIndex];
+            Object o = parameterValues.get(slotNames[slot]);
+            try {
+                binders[parameterIndex].bind(statement, parameterIndex, o);
+            } catch (Exception ignore) {
+                recordBindFallback();
+                statement.setObject(parameterIndex, o);
+            }
+        }
+    }
+
+    /**
+     * @param parameterValues the parameter values by name
+     * @return the parameter values ordered by their JDBC parameter index
+     */
+    Object[] getParameterArray(Map<String, Object> parameterValues) {
+        Object[] values = new Object[indexToSlot.length - 1];
+        for (int parameterIndex = 1; parameterIndex < indexToSlot.length; parameterIndex++) {
+            String name = slotNames[indexToSlot[parameterIndex]];
+            values[parameterIndex - 1] = parameterValues.get(name);
+        }
+        return values;
+    }
+
+    void setParameters(Object... parameterValues) throws SQLException {
         statement.clearParameters();
         int parameterIndex = 0;
         for (Object o : parameterValues) {
             parameterIndex++;
             try {
-                int parameterType = parameterMetaData.getParameterType(parameterIndex);
-                switch (parameterType) {
-                    case Types.TIMESTAMP:
-                        if (o instanceof java.util.Date) {
-                            java.util.Date date = (java.util.Date) o;
-                            statement.setTimestamp(parameterIndex,
-                                    MJdbcTools.getSQLTimestamp(date));
-                        } else if (o instanceof Calendar) {
-                            Calendar calendar = (Calendar) o;
-                            statement.setTimestamp(parameterIndex,
-                                    MJdbcTools.getSQLTimestamp(calendar));
-                        } else {
-                            statement.setObject(parameterIndex, o);
-                        }
-                        break;
-                    case Types.DATE:
-                        if (o instanceof java.util.Date) {
-                            java.util.Date date = (java.util.Date) o;
-                            statement.setDate(parameterIndex, MJdbcTools.getSQLDate(date));
-                        } else if (o instanceof Calendar) {
-                            Calendar calendar = (Calendar) o;
-                            statement.setDate(parameterIndex, MJdbcTools.getSQLDate(calendar));
-                        } else {
-                            statement.setObject(parameterIndex, o);
-                        }
-                        break;
-                    case Types.BINARY:
-                    case Types.BLOB:
-                    case Types.LONGVARBINARY:
-                        if (o instanceof byte[]) {
-                            byte[] bytes = (byte[]) o;
-                            statement.setBinaryStream(parameterIndex,
-                                    new ByteArrayInputStream(bytes), bytes.length);
-                        } else {
-                            statement.setObject(parameterIndex, o);
-                        }
-                        break;
-
-                    // @todo: add more SQLType Mappings
-                    default:
-                        statement.setObject(parameterIndex, o);
+                if (parameterIndex < binders.length) {
+                    binders[parameterIndex].bind(statement, parameterIndex, o);
+                } else {
+                    statement.setObject(parameterIndex, o);
                 }
             } catch (Exception ignore) {
+                recordBindFallback();
                 statement.setObject(parameterIndex, o);
             }
         }
     }
 
     public boolean execute(Map<String, Object> parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.execute();
+        long t1 = recordTiming(Phase.BIND, t);
+        boolean result;
+        try {
+            result = statement.execute();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, null);
+        return result;
     }
 
     public boolean execute(Object... parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.execute();
+        long t1 = recordTiming(Phase.BIND, t);
+        boolean result;
+        try {
+            result = statement.execute();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, null);
+        return result;
     }
 
     public int executeUpdate(Map<String, Object> parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.executeUpdate();
+        long t1 = recordTiming(Phase.BIND, t);
+        int result;
+        try {
+            result = statement.executeUpdate();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, new int[] {result});
+        return result;
     }
 
     public int executeUpdate(Object... parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.executeUpdate();
+        long t1 = recordTiming(Phase.BIND, t);
+        int result;
+        try {
+            result = statement.executeUpdate();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, new int[] {result});
+        return result;
     }
 
     public ResultSet executeQuery(Map<String, Object> parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.executeQuery();
+        long t1 = recordTiming(Phase.BIND, t);
+        ResultSet result;
+        try {
+            result = statement.executeQuery();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, null);
+        return result;
     }
 
     public ResultSet executeQuery(Object... parameterValues) throws SQLException {
+        long t = startTiming();
         setParameters(parameterValues);
-        return statement.executeQuery();
+        long t1 = recordTiming(Phase.BIND, t);
+        ResultSet result;
+        try {
+            result = statement.executeQuery();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+        recordExecution(t, t1, parameterValues, null);
+        return result;
+    }
+
+    /**
+     * Executes the query and maps its rows lazily into beans or records, see {@link MRowMapper}.
+     * The ResultSet is closed at its end or when the Stream is closed.
+     *
+     * @param type the class of the beans or records
+     * @param parameterValues the values of the Named Parameters
+     * @return the rows mapped
+     * @throws SQLException when the query failed
+     */
+    public <T> Stream<T> stream(Class<T> type, Map<String, Object> parameterValues)
+            throws SQLException {
+        return MRowMapper.of(type).stream(executeQuery(parameterValues));
+    }
+
+    public MPreparedStatement setFetchSize(int fetchSize) throws SQLException {
+        captureDefaults();
+        statement.setFetchSize(fetchSize);
+        return this;
+    }
+
+    public MPreparedStatement setMaxRows(int maxRows) throws SQLException {
+        captureDefaults();
+        statement.setMaxRows(maxRows);
+        return this;
+    }
+
+    public MPreparedStatement setQueryTimeout(int seconds) throws SQLException {
+        captureDefaults();
+        statement.setQueryTimeout(seconds);
+        return this;
+    }
+
+    private void captureDefaults() throws SQLException {
+        if (defaults == null) {
+            defaults = new int[] {statement.getFetchSize(), statement.getMaxRows(),
+                    statement.getQueryTimeout()};
+        }
+    }
+
+    /**
+     * Configures the prepared statement for streaming huge results, see {@link MQueryOptions}.
+     * The cursor must be forward only and read only, which is the default.
+     *
+     * @param fetchSize the number of rows fetched per round trip, 0 for the default
+     * @return this statement
+     * @throws SQLException when the statement can't be configured
+     */
+    public MPreparedStatement enableStreaming(int fetchSize) throws SQLException {
+        captureDefaults();
+        new MQueryOptions().setStreaming(true).setFetchSize(fetchSize).apply(statement);
+        return this;
+    }
+
+    public MPreparedStatement enableStreaming() throws SQLException {
+        return enableStreaming(0);
+    }
+
+    /**
+     * Resets the statement to the state it has been prepared with, so it can be reused by another
+     * owner: discards the batch and the bound parameters, restores the fetch size, row limit and
+     * query timeout and disables the multi row INSERT and bulk load modes.
+     *
+     * @throws SQLException when the statement can't be reset
+     */
+    void reset() throws SQLException {
+        clearBatch();
+        statement.clearParameters();
+        lastBatchValues = null;
+
+        if (defaults != null) {
+            // some drivers reject a fetch size above the row limit
+            statement.setMaxRows(defaults[1]);
+            statement.setFetchSize(defaults[0]);
+            statement.setQueryTimeout(defaults[2]);
+            defaults = null;
+        }
+
+        if (multiRowBuffer != null) {
+            closeMultiRowStatements();
+            multiRowCount = 0;
+            multiRowBuffer = null;
+            bulkLoader = null;
+            bulkTarget = null;
+        }
+    }
+
+    private void closeMultiRowStatements() {
+        for (PreparedStatement st : multiRowStatements.values()) {
+            MParameterStreams.close(st);
+            try {
+                st.close();
+            } catch (Exception ignore) {
+                // nothing we can do here
+            }
+        }
+        multiRowStatements.clear();
     }
 
     public void close() {
+        closeMultiRowStatements();
+
+        MParameterStreams.close(statement);
         try {
             statement.close();
         } catch (Exception ignore) {
@@ -229,22 +494,227 @@ public final class MPreparedStatement implements Closeable {
 
 
     public void addBatch(Map<String, Object> parameterValues) throws SQLException {
+        if (multiRowBuffer != null) {
+            multiRowBuffer.add(getParameterArray(parameterValues));
+            recordCount++;
+            if (slowQueryLog != null) {
+                lastBatchValues = parameterValues;
+            }
+            return;
+        }
+
+        long t = startTiming();
         statement.clearParameters();
         setParameters(parameterValues);
         statement.addBatch();
+        recordTiming(Phase.BIND, t);
+        if (slowQueryLog != null) {
+            lastBatchValues = parameterValues;
+        }
 
         recordCount++;
     }
 
     public void addBatch(Object... parameterValues) throws SQLException {
+        if (multiRowBuffer != null) {
+            multiRowBuffer.add(Arrays.copyOf(parameterValues, indexToSlot.length - 1));
+            recordCount++;
+            if (slowQueryLog != null) {
+                lastBatchValues = parameterValues;
+            }
+            return;
+        }
+
+        long t = startTiming();
         statement.clearParameters();
         setParameters(parameterValues);
         statement.addBatch();
+        recordTiming(Phase.BIND, t);
+        if (slowQueryLog != null) {
+            lastBatchValues = parameterValues;
+        }
+
+        recordCount++;
     }
 
     public int[] executeBatch() throws SQLException {
+        final long rows = recordCount;
         recordCount = 0;
-        return statement.executeBatch();
+        if (!timed) {
+            return flushBatch();
+        }
+
+        long t = System.nanoTime();
+        int[] results = flushBatch();
+        long nanos = System.nanoTime() - t;
+        if (metrics != null) {
+            metrics.recordBatch(nanos, rows);
+        }
+        if (slowQueryLog != null) {
+            if (slowQueryLog.isSlow(nanos)) {
+                slowQueryLog.record(parsedStatement.getOriginalSqlStr(), nanos,
+                        getParameterMap(lastBatchValues), results, rows);
+            }
+            lastBatchValues = null;
+        }
+        return results;
+    }
+
+    private int[] flushBatch() throws SQLException {
+        if (bulkLoader != null) {
+            return executeBulkLoad();
+        } else if (multiRowBuffer != null) {
+            return executeMultiRowBatch();
+        }
+        try {
+            return statement.executeBatch();
+        } finally {
+            MParameterStreams.close(statement);
+        }
+    }
+
+    /**
+     * Enables the multi row INSERT mode for a single row `INSERT ... VALUES (:a, :b, ...)`
+     * statement: batched records are buffered and inserted by statements `VALUES (...), (...),
+     * ...` of the given number of rows, which most drivers execute in one round trip. The remaining
+     * records are inserted by a statement of fewer rows. The statements for each row count are
+     * prepared once and reused.
+     * <p>
+     * Mind the limits on the number of parameters per statement of your database, e.g. 32767 for
+     * PostgreSQL or 2100 for SQL Server.
+     *
+     * @param rowsPerStatement the number of rows to insert per statement
+     * @return TRUE if the mode was enabled, FALSE if the statement is no single row INSERT or holds
+     *         Named Parameters outside of its VALUES
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public boolean enableMultiRowInsert(int rowsPerStatement) throws JSQLParserException {
+        if (rowsPerStatement > 1 && MStatementCache
+                .getMultiRowInsert(parsedStatement.getOriginalSqlStr(), rowsPerStatement) != null) {
+            multiRowCount = rowsPerStatement;
+            multiRowBuffer = new ArrayList<>(rowsPerStatement);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Enables the bulk load mode for a single row `INSERT INTO table (columns) VALUES (:a, :b,
+     * ...)` statement holding one Named Parameter per column: batched records are buffered and
+     * loaded by the {@link MBulkLoader} of the database, e.g. by COPY for PostgreSQL. When there is
+     * no loader for the database, the multi row INSERT mode is enabled instead, with as many rows
+     * per statement as fit into {@value #BULK_LOAD_PARAMETER_LIMIT} parameters.
+     *
+     * @return TRUE if the bulk load or the multi row INSERT mode was enabled, FALSE if the
+     *         statement does not qualify
+     * @throws SQLException when the database can't be queried for its driver
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public boolean enableBulkLoad() throws SQLException, JSQLParserException {
+        MBulkLoader.Target target = MBulkLoader.Target.parse(parsedStatement.getOriginalSqlStr());
+        if (target == null || target.columnNames.size() != indexToSlot.length - 1) {
+            return false;
+        }
+
+        MBulkLoader loader = MBulkLoader.forConnection(statement.getConnection());
+        if (loader == null) {
+            return enableMultiRowInsert(Math.min(1000,
+                    Math.max(2, BULK_LOAD_PARAMETER_LIMIT / target.columnNames.size())));
+        }
+        bulkLoader = loader;
+        bulkTarget = target;
+        multiRowBuffer = new ArrayList<>();
+        return true;
+    }
+
+    private int[] executeBulkLoad() throws SQLException {
+        int[] results = new int[multiRowBuffer.size()];
+        if (results.length > 0) {
+            try {
+                long count = bulkLoader.load(statement.getConnection(), bulkTarget.tableName,
+                        bulkTarget.columnNames, multiRowBuffer);
+                Arrays.fill(results, count == results.length ? 1 : Statement.SUCCESS_NO_INFO);
+            } finally {
+                multiRowBuffer.clear();
+            }
+        }
+        return results;
+    }
+
+    private PreparedStatement getMultiRowStatement(int rows) throws SQLException {
+        PreparedStatement st = multiRowStatements.get(rows);
+        if (st == null) {
+            MParsedStatement parsed;
+            try {
+                parsed = MStatementCache.getMultiRowInsert(parsedStatement.getOriginalSqlStr(),
+                        rows);
+            } catch (JSQLParserException ex) {
+                throw new SQLException("Failed to rewrite the multi row INSERT statement.", ex);
+            }
+            st = statement.getConnection().prepareStatement(parsed.getSqlStr());
+            multiRowStatements.put(rows, st);
+        }
+        return st;
+    }
+
+    private void bindRows(PreparedStatement st, int firstRow, int rows) throws SQLException {
+        final int rowParameterCount = indexToSlot.length - 1;
+
+        st.clearParameters();
+        for (int r = 0; r < rows; r++) {
+            Object[] values = multiRowBuffer.get(firstRow + r);
+            for (int i = 1; i <= rowParameterCount; i++) {
+                int parameterIndex = r * rowParameterCount + i;
+                try {
+                    binders[i].bind(st, parameterIndex, values[i - 1]);
+                } catch (Exception ignore) {
+                    recordBindFallback();
+                    st.setObject(parameterIndex, values[i - 1]);
+                }
+            }
+        }
+    }
+
+    private static void fillUpdateCounts(int[] results, int firstRow, int rows, int count) {
+        Arrays.fill(results, firstRow, firstRow + rows,
+                count == rows ? 1 : Statement.SUCCESS_NO_INFO);
+    }
+
+    private int[] executeMultiRowBatch() throws SQLException {
+        final int rowCount = multiRowBuffer.size();
+        final int statementCount = rowCount / multiRowCount;
+        final int remainder = rowCount % multiRowCount;
+        int[] results = new int[rowCount];
+
+        try {
+            if (statementCount > 0) {
+                PreparedStatement st = getMultiRowStatement(multiRowCount);
+                for (int i = 0; i < statementCount; i++) {
+                    bindRows(st, i * multiRowCount, multiRowCount);
+                    st.addBatch();
+                }
+                int[] counts = st.executeBatch();
+                for (int i = 0; i < statementCount; i++) {
+                    fillUpdateCounts(results, i * multiRowCount, multiRowCount,
+                            i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO);
+                }
+            }
+
+            if (remainder > 0) {
+                PreparedStatement st =
+                        remainder > 1 ? getMultiRowStatement(remainder) : statement;
+                bindRows(st, statementCount * multiRowCount, remainder);
+                fillUpdateCounts(results, statementCount * multiRowCount, remainder,
+                        st.executeUpdate());
+            }
+        } finally {
+            multiRowBuffer.clear();
+            MParameterStreams.close(statement);
+            for (PreparedStatement st : multiRowStatements.values()) {
+                MParameterStreams.close(st);
+            }
+        }
+        return results;
     }
 
     public int[] addAndExecuteBatch(Map<String, Object> parameterValues) throws SQLException {
@@ -257,9 +727,23 @@ public final class MPreparedStatement implements Closeable {
         }
     }
 
+    public int[] addAndExecuteBatch(Object... parameterValues) throws SQLException {
+        addBatch(parameterValues);
+
+        if (recordCount % batchSize == 0) {
+            return executeBatch();
+        } else {
+            return new int[0];
+        }
+    }
+
     public void clearBatch() throws SQLException {
         recordCount = 0;
+        if (multiRowBuffer != null) {
+            multiRowBuffer.clear();
+        }
         statement.clearBatch();
+        MParameterStreams.close(statement);
     }
 
     public ResultSet getResultSet() throws SQLException {
@@ -270,29 +754,67 @@ public final class MPreparedStatement implements Closeable {
         return statement.getUpdateCount();
     }
 
-    private void setParameterTypes() throws SQLException {
-        for (int i = 1; i <= parameterMetaData.getParameterCount(); i++) {
-            for (MNamedParameter p : parameters.values()) {
-                if (p.getPositions().first() == i) {
-                    int type = parameterMetaData.getParameterType(i);
-                    String typeName = parameterMetaData.getParameterTypeName(i);
-                    int precision = parameterMetaData.getPrecision(i);
-                    int scale = parameterMetaData.getScale(i);
-                    int nullable = parameterMetaData.isNullable(i);
-                    String className = parameterMetaData.getParameterClassName(i);
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public MParsedStatement getParsedStatement() {
+        return parsedStatement;
+    }
+
+    /**
+     * @return the metrics of the statement's shape, NULL unless enabled when it was created
+     */
+    public MStatementMetrics getMetrics() {
+        return metrics;
+    }
 
-                    p.setType(type, typeName, className, precision, scale, nullable);
+    private void setParameterTypes(Map<String, Integer> types) {
+        CaseInsensitiveMap<String, Integer> typeMap = new CaseInsensitiveMap<>(types);
+        parameterTypes = new int[parsedStatement.getParameterCount() + 1];
+        Arrays.fill(parameterTypes, Types.OTHER);
+
+        for (int slot = 0; slot < parsedStatement.getSlotCount(); slot++) {
+            Integer type = typeMap.get(parsedStatement.getName(slot));
+            if (type != null) {
+                parameters.get(parsedStatement.getName(slot)).setType(type);
+                for (int position : parsedStatement.getSlotPositions(slot)) {
+                    parameterTypes[position] = type;
                 }
             }
         }
     }
 
+    private void setParameterTypes(ParameterMetaData parameterMetaData) throws SQLException {
+        int parameterCount = parameterMetaData.getParameterCount();
+        parameterTypes =
+                new int[Math.max(parameterCount, parsedStatement.getParameterCount()) + 1];
+        Arrays.fill(parameterTypes, Types.OTHER);
+        for (int i = 1; i <= parameterCount; i++) {
+            parameterTypes[i] = parameterMetaData.getParameterType(i);
+        }
+
+        for (MNamedParameter p : parameters.values()) {
+            int i = p.getFirstPosition();
+            if (i <= parameterCount) {
+                int type = parameterTypes[i];
+                String typeName = parameterMetaData.getParameterTypeName(i);
+                int precision = parameterMetaData.getPrecision(i);
+                int scale = parameterMetaData.getScale(i);
+                int nullable = parameterMetaData.isNullable(i);
+                String className = parameterMetaData.getParameterClassName(i);
+
+                p.setType(type, typeName, className, precision, scale, nullable);
+            }
+        }
+    }
+
     public List<MNamedParameter> getNamedParametersByAppearance() {
         LinkedList<MNamedParameter> values = new LinkedList<>(parameters.values());
         Comparator<MNamedParameter> comparator = new Comparator<MNamedParameter>() {
             @Override
             public int compare(MNamedParameter o1, MNamedParameter o2) {
-                return Integer.compare(o1.getPositions().first(), o2.getPositions().first());
+                return Integer.compare(o1.getFirstPosition(), o2.getFirstPosition());
             }
         };
         values.sort(comparator);
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * The cursor, fetch size, row limit and timeout of the queries of a {@link MPreparedStatement}.
+ * Options which are not set keep the driver's defaults.
+ * <p>
+ * The streaming mode configures the statement so that the driver fetches huge results in chunks
+ * instead of buffering them in memory, e.g. for exports or as input of
+ * {@link MJdbcTools#getPivotFromQuery}: a forward only and read only cursor with a fetch size of
+ * {@link #DEFAULT_STREAMING_FETCH_SIZE} rows, unless set explicitly. The driver is detected by its
+ * name:
+ * <ul>
+ * <li>PostgreSQL uses a cursor only outside of auto commit. The state of the connection is left to
+ * the caller, who must turn auto commit off before, otherwise preparing the statement fails.</li>
+ * <li>MySQL streams row by row with a fetch size of {@link Integer#MIN_VALUE}, unless a fetch size
+ * is set explicitly (e.g. for {@code useCursorFetch=true}).</li>
+ * </ul>
+ */
+public final class MQueryOptions {
+    public static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
+
+    private int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+    private int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
+    private int fetchSize = 0;
+    private int maxRows = 0;
+    private int queryTimeout = 0;
+    private boolean streaming = false;
+
+    public int getResultSetType() {
+        return resultSetType;
+    }
+
+    /**
+     * @param resultSetType e.g. {@link ResultSet#TYPE_FORWARD_ONLY} (default) or
+     *        {@link ResultSet#TYPE_SCROLL_INSENSITIVE}
+     * @return these options
+     */
+    public MQueryOptions setResultSetType(int resultSetType) {
+        this.resultSetType = resultSetType;
+        return this;
+    }
+
+    public int getResultSetConcurrency() {
+        return resultSetConcurrency;
+    }
+
+    /**
+     * @param resultSetConcurrency {@link ResultSet#CONCUR_READ_ONLY} (default) or
+     *        {@link ResultSet#CONCUR_UPDATABLE}
+     * @return these options
+     */
+    public MQueryOptions setResultSetConcurrency(int resultSetConcurrency) {
+        this.resultSetConcurrency = resultSetConcurrency;
+        return this;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @param fetchSize the number of rows fetched per round trip, 0 keeps the driver's default
+     * @return these options
+     */
+    public MQueryOptions setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * @param maxRows the maximum number of rows of a result, 0 for no limit
+     * @return these options
+     */
+    public MQueryOptions setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * @param queryTimeout the timeout of the execution in seconds, 0 for no timeout
+     * @return these options
+     */
+    public MQueryOptions setQueryTimeout(int queryTimeout) {
+        this.queryTimeout = queryTimeout;
+        return this;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @param streaming if to configure the statement for streaming huge results, see above
+     * @return these options
+     */
+    public MQueryOptions setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        if (streaming) {
+            resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+            resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
+        }
+        return this;
+    }
+
+    PreparedStatement prepare(Connection conn, String sqlStr) throws SQLException {
+        PreparedStatement statement =
+                conn.prepareStatement(sqlStr, resultSetType, resultSetConcurrency);
+        try {
+            apply(statement);
+        } catch (SQLException | RuntimeException ex) {
+            statement.close();
+            throw ex;
+        }
+        return statement;
+    }
+
+    void apply(PreparedStatement statement) throws SQLException {
+        if (maxRows > 0) {
+            statement.setMaxRows(maxRows);
+        }
+        if (queryTimeout > 0) {
+            statement.setQueryTimeout(queryTimeout);
+        }
+
+        if (!streaming) {
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            return;
+        }
+
+        Connection conn = statement.getConnection();
+        String driverName = conn.getMetaData().getDriverName().toLowerCase(Locale.ROOT);
+        if (driverName.contains("mysql") && fetchSize <= 0) {
+            statement.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            if (driverName.contains("postgresql") && conn.getAutoCommit()) {
+                throw new SQLException(
+                        "PostgreSQL streams results only outside of auto commit, "
+                                + "turn auto commit off before executing the query.");
+            }
+            statement.setFetchSize(fetchSize > 0 ? fetchSize : DEFAULT_STREAMING_FETCH_SIZE);
+        }
+    }
+}
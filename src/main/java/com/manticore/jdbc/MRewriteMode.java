@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+/**
+ * Defines how Named Parameters are found and rewritten in a SQL statement.
+ */
+public enum MRewriteMode {
+    /**
+     * Parse the statement with JSQLParser and deparse the AST, which validates the SQL but
+     * normalizes its formatting. This is the default.
+     */
+    PARSER,
+
+    /**
+     * Scan the statement lexically in a single pass without building an AST. The SQL text is
+     * preserved as written and vendor syntax unknown to JSQLParser is supported.
+     */
+    LEXICAL,
+
+    /**
+     * Scan the statement lexically and fall back to JSQLParser when the scanner finds a token it
+     * can't tell from a parameter, e.g. the PostgreSQL JSON operator `?|` or an array slice
+     * `[a:b]`, or rejects the statement. The scanner's result is kept when the parser fails on
+     * vendor syntax.
+     */
+    LEXICAL_WITH_PARSER_FALLBACK
+}
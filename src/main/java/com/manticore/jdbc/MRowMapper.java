@@ -0,0 +1,500 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps the rows of a ResultSet into beans or records. The columns are matched to the properties by
+ * their labels, ignoring case and underscores, so {@code VALUE_DATE} fills {@code valueDate}.
+ * <p>
+ * For each distinct ResultSet layout a row reader is compiled once from {@link MethodHandle}s,
+ * which reads every column with the typed getter of its property (e.g. {@code getLong()} for a
+ * {@code long}) and passes primitives to bean setters without boxing. Records are created by their
+ * canonical constructor. Columns without a property are ignored.
+ *
+ * @param <T> the class of the beans or records
+ */
+public final class MRowMapper<T> {
+    private static final ConcurrentHashMap<Class<?>, MRowMapper<?>> MAPPERS =
+            new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    private interface ValueGetter {
+        Object get(ResultSet rs, int column) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        void read(ResultSet rs, Object target) throws Throwable;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        Object read(ResultSet rs) throws Throwable;
+    }
+
+    private static final class Property {
+        private final Class<?> type;
+        private final MethodHandle setter;
+        private final int index;
+
+        Property(Class<?> type, MethodHandle setter, int index) {
+            this.type = type;
+            this.setter = setter;
+            this.index = index;
+        }
+    }
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final boolean isRecord;
+    private final Class<?>[] componentTypes;
+    private final HashMap<String, Property> properties = new HashMap<>();
+    private final ConcurrentHashMap<String, RowReader> readers = new ConcurrentHashMap<>();
+
+    private MRowMapper(Class<T> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Object[] components = getRecordComponents(type);
+            isRecord = components != null;
+            if (isRecord) {
+                componentTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    Method getName = components[i].getClass().getMethod("getName");
+                    Method getType = components[i].getClass().getMethod("getType");
+                    componentTypes[i] = (Class<?>) getType.invoke(components[i]);
+                    properties.put(normalize((String) getName.invoke(components[i])),
+                            new Property(componentTypes[i], null, i));
+                }
+                Constructor<T> c = type.getDeclaredConstructor(componentTypes);
+                constructor = lookup.unreflectConstructor(accessible(c))
+                        .asSpreader(Object[].class, componentTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } else {
+                componentTypes = null;
+                for (Field field : type.getFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                        properties.put(normalize(field.getName()), new Property(field.getType(),
+                                lookup.unreflectSetter(accessible(field)), -1));
+                    }
+                }
+                for (Method method : type.getMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers())
+                            && method.getName().startsWith("set")
+                            && method.getName().length() > 3
+                            && method.getParameterCount() == 1) {
+                        properties.put(normalize(method.getName().substring(3)),
+                                new Property(method.getParameterTypes()[0],
+                                        lookup.unreflect(accessible(method)), -1));
+                    }
+                }
+                constructor = lookup.unreflectConstructor(accessible(type.getDeclaredConstructor()))
+                        .asType(MethodType.methodType(Object.class));
+            }
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException(
+                    type.getName() + " is neither a record nor a bean with a default constructor.",
+                    ex);
+        }
+    }
+
+    /**
+     * @param type the class of a record or of a bean with a default constructor
+     * @return the mapper of the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MRowMapper<T> of(Class<T> type) {
+        return (MRowMapper<T>) MAPPERS.computeIfAbsent(type, MRowMapper::new);
+    }
+
+    private static Object[] getRecordComponents(Class<?> type)
+            throws ReflectiveOperationException {
+        // records exist since Java 16
+        try {
+            if (!(Boolean) Class.class.getMethod("isRecord").invoke(type)) {
+                return null;
+            }
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+        return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+    }
+
+    private static <A extends AccessibleObject> A accessible(A object) {
+        try {
+            object.setAccessible(true);
+        } catch (RuntimeException ignore) {
+            // try the public access
+        }
+        return object;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    private static ValueGetter getValueGetter(Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type == long.class || type == Long.class) {
+            return (rs, c) -> {
+                long v = rs.getLong(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == int.class || type == Integer.class) {
+            return (rs, c) -> {
+                int v = rs.getInt(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == double.class || type == Double.class) {
+            return (rs, c) -> {
+                double v = rs.getDouble(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == float.class || type == Float.class) {
+            return (rs, c) -> {
+                float v = rs.getFloat(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == short.class || type == Short.class) {
+            return (rs, c) -> {
+                short v = rs.getShort(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == byte.class || type == Byte.class) {
+            return (rs, c) -> {
+                byte v = rs.getByte(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == boolean.class || type == Boolean.class) {
+            return (rs, c) -> {
+                boolean v = rs.getBoolean(c);
+                return rs.wasNull() ? null : v;
+            };
+        } else if (type == char.class || type == Character.class) {
+            return (rs, c) -> {
+                String s = rs.getString(c);
+                return s != null && !s.isEmpty() ? s.charAt(0) : null;
+            };
+        } else if (type == byte[].class) {
+            return ResultSet::getBytes;
+        } else if (type == java.sql.Timestamp.class || type == java.util.Date.class) {
+            return ResultSet::getTimestamp;
+        } else if (type == java.sql.Date.class) {
+            return ResultSet::getDate;
+        } else if (type == java.sql.Time.class) {
+            return ResultSet::getTime;
+        } else if (type == Object.class) {
+            return ResultSet::getObject;
+        } else if (type.isEnum()) {
+            return (rs, c) -> {
+                String s = rs.getString(c);
+                return s != null ? getEnumConstant(type, s) : null;
+            };
+        }
+        return (rs, c) -> rs.getObject(c, type);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object getEnumConstant(Class<?> type, String name) {
+        return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+
+    /**
+     * Reads a column into a bean property, primitives are passed to the setter without boxing.
+     */
+    private static ColumnReader getColumnReader(Property property, int column) {
+        final MethodType setterType = MethodType.methodType(void.class, Object.class,
+                property.type.isPrimitive() ? property.type : Object.class);
+        final MethodHandle setter = property.setter.asType(setterType);
+
+        if (property.type == long.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getLong(column));
+            };
+        } else if (property.type == int.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getInt(column));
+            };
+        } else if (property.type == double.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getDouble(column));
+            };
+        } else if (property.type == float.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getFloat(column));
+            };
+        } else if (property.type == short.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getShort(column));
+            };
+        } else if (property.type == byte.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getByte(column));
+            };
+        } else if (property.type == boolean.class) {
+            return (rs, target) -> {
+                setter.invokeExact(target, rs.getBoolean(column));
+            };
+        } else if (property.type == char.class) {
+            return (rs, target) -> {
+                String s = rs.getString(column);
+                if (s != null && !s.isEmpty()) {
+                    setter.invokeExact(target, s.charAt(0));
+                }
+            };
+        }
+
+        final ValueGetter getter = getValueGetter(property.type);
+        return (rs, target) -> {
+            setter.invokeExact(target, getter.get(rs, column));
+        };
+    }
+
+    private static Object getDefaultValue(Class<?> type) {
+        if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == double.class) {
+            return 0.0d;
+        } else if (type == float.class) {
+            return 0.0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == boolean.class) {
+            return false;
+        }
+        return null;
+    }
+
+    private RowReader compile(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        ArrayList<Property> columnProperties = new ArrayList<>();
+        ArrayList<Integer> columns = new ArrayList<>();
+        for (int column = 1; column <= columnCount; column++) {
+            Property property = properties.get(normalize(metaData.getColumnLabel(column)));
+            if (property != null) {
+                columnProperties.add(property);
+                columns.add(column);
+            }
+        }
+
+        if (isRecord) {
+            final int n = componentTypes.length;
+            final Object[] defaults = new Object[n];
+            for (int i = 0; i < n; i++) {
+                defaults[i] = getDefaultValue(componentTypes[i]);
+            }
+            final int[] indexes = new int[columnProperties.size()];
+            final int[] columnIndexes = new int[indexes.length];
+            final ValueGetter[] getters = new ValueGetter[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = columnProperties.get(i).index;
+                columnIndexes[i] = columns.get(i);
+                getters[i] = getValueGetter(columnProperties.get(i).type);
+            }
+            return rs -> {
+                Object[] arguments = defaults.clone();
+                for (int i = 0; i < indexes.length; i++) {
+                    Object value = getters[i].get(rs, columnIndexes[i]);
+                    if (value != null) {
+                        arguments[indexes[i]] = value;
+                    }
+                }
+                return (Object) constructor.invokeExact(arguments);
+            };
+        } else {
+            final ColumnReader[] columnReaders = new ColumnReader[columnProperties.size()];
+            for (int i = 0; i < columnReaders.length; i++) {
+                columnReaders[i] = getColumnReader(columnProperties.get(i), columns.get(i));
+            }
+            return rs -> {
+                Object target = (Object) constructor.invokeExact();
+                for (ColumnReader columnReader : columnReaders) {
+                    columnReader.read(rs, target);
+                }
+                return target;
+            };
+        }
+    }
+
+    private RowReader getReader(ResultSetMetaData metaData) throws SQLException {
+        StringBuilder key = new StringBuilder();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            key.append(metaData.getColumnLabel(column)).append(',');
+        }
+        RowReader reader = readers.get(key.toString());
+        if (reader == null) {
+            reader = compile(metaData);
+            readers.putIfAbsent(key.toString(), reader);
+        }
+        return reader;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T read(RowReader reader, ResultSet rs) throws SQLException {
+        try {
+            return (T) reader.read(rs);
+        } catch (SQLException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new SQLException("Failed to map the row into " + type.getName() + ".", t);
+        }
+    }
+
+    /**
+     * @param rs the ResultSet positioned on a row
+     * @return the current row mapped
+     * @throws SQLException when reading the row failed
+     */
+    public T map(ResultSet rs) throws SQLException {
+        return read(getReader(rs.getMetaData()), rs);
+    }
+
+    /**
+     * @param rs the ResultSet, which is read until its end but not closed
+     * @return all remaining rows mapped
+     * @throws SQLException when reading the rows failed
+     */
+    public List<T> list(ResultSet rs) throws SQLException {
+        RowReader reader = getReader(rs.getMetaData());
+        ArrayList<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(read(reader, rs));
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the rows lazily. The ResultSet is closed at its end or when the Stream is closed, an
+     * {@link SQLException} while reading is wrapped into a {@link RuntimeException}.
+     *
+     * @param rs the ResultSet
+     * @return the remaining rows mapped
+     * @throws SQLException when the ResultSet's metadata can't be read
+     */
+    public Stream<T> stream(ResultSet rs) throws SQLException {
+        return stream(rs, rs);
+    }
+
+    /**
+     * Executes the query and reads the rows lazily. The statement is closed at the end of the
+     * ResultSet or when the Stream is closed.
+     *
+     * @param conn the connection
+     * @param sqlStr the query with Named Parameters
+     * @param parameterValues the values of the Named Parameters
+     * @return the rows mapped
+     * @throws SQLException when the query failed
+     * @throws JSQLParserException when the query can't be parsed
+     */
+    public Stream<T> stream(Connection conn, String sqlStr, Map<String, Object> parameterValues)
+            throws SQLException, JSQLParserException {
+        MPreparedStatement st = new MPreparedStatement(conn, sqlStr);
+        try {
+            ResultSet rs = st.executeQuery(parameterValues);
+            return stream(rs, () -> {
+                try {
+                    rs.close();
+                } finally {
+                    st.close();
+                }
+            });
+        } catch (SQLException | RuntimeException ex) {
+            st.close();
+            throw ex;
+        }
+    }
+
+    private Stream<T> stream(ResultSet rs, AutoCloseable resource) throws SQLException {
+        final RowReader reader = getReader(rs.getMetaData());
+        final boolean[] closed = {false};
+        final Runnable close = () -> {
+            if (!closed[0]) {
+                closed[0] = true;
+                try {
+                    resource.close();
+                } catch (Exception ex) {
+                    throw new RuntimeException("Failed to close the ResultSet.", ex);
+                }
+            }
+        };
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (closed[0]) {
+                    return false;
+                }
+                try {
+                    if (rs.next()) {
+                        action.accept(read(reader, rs));
+                        return true;
+                    }
+                } catch (SQLException ex) {
+                    close.run();
+                    throw new RuntimeException("Failed to read the ResultSet.", ex);
+                }
+                close.run();
+                return false;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(close);
+    }
+}
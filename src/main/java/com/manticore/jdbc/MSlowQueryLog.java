@@ -0,0 +1,348 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded, lock-free ring buffer of the last executions of {@link MPreparedStatement} which took
+ * longer than a threshold, holding the statement with its parameter values, the duration and the
+ * update counts. The values are truncated or redacted when captured, while the SQL statement with
+ * the inlined literals for replaying is rendered only when an entry is dumped.
+ * <p>
+ * Statements capture into the log installed when they are created. Fast executions cost a clock
+ * read and a comparison only.
+ *
+ * <pre>
+ * MSlowQueryLog.install(new MSlowQueryLog(128).setThreshold(500, TimeUnit.MILLISECONDS));
+ * ...
+ * MSlowQueryLog.getInstalled().dump(System.err);
+ * </pre>
+ */
+public final class MSlowQueryLog {
+    public static final Pattern DEFAULT_REDACTED_NAMES =
+            Pattern.compile("(?i).*(password|passwd|secret|token|credential).*");
+    public static final String REDACTED = "***";
+
+    private static volatile MSlowQueryLog installed = null;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile long thresholdNanos = TimeUnit.SECONDS.toNanos(1);
+    private volatile Pattern redactedNames = DEFAULT_REDACTED_NAMES;
+    private volatile int maxValueLength = 256;
+
+    /**
+     * A captured execution.
+     */
+    public static final class Entry {
+        private final MFingerprint fingerprint;
+        private final String sqlStr;
+        private final Map<String, Object> parameters;
+        private final long durationNanos;
+        private final int[] updateCounts;
+        private final long rows;
+        private final long timestamp;
+        private volatile String replaySqlStr;
+
+        private Entry(String sqlStr, Map<String, Object> parameters, long durationNanos,
+                int[] updateCounts, long rows) {
+            this.fingerprint = MStatementCache.getFingerprint(sqlStr);
+            this.sqlStr = sqlStr;
+            this.parameters = parameters;
+            this.durationNanos = durationNanos;
+            this.updateCounts = updateCounts;
+            this.rows = rows;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        public MFingerprint getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return the SQL statement with Named Parameters as executed
+         */
+        public String getSqlStr() {
+            return sqlStr;
+        }
+
+        /**
+         * @return the truncated or redacted parameter values by case-insensitive name, of the last
+         *         record for a batch
+         */
+        public Map<String, Object> getParameters() {
+            return parameters;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return the update counts, NULL for a query
+         */
+        public int[] getUpdateCounts() {
+            return updateCounts != null ? updateCounts.clone() : null;
+        }
+
+        /**
+         * @return the number of records, 1 unless for a batch
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return the time of the capture in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Renders the SQL statement with the literals of the captured parameter values, see
+         * {@link MJdbcTools#rewriteStatementWithNamedParameters(String, MRewriteMode, Map)}. It is
+         * rendered on first use only.
+         *
+         * @return the SQL statement for replaying, or the statement with Named Parameters when it
+         *         can't be rewritten
+         */
+        public String getReplaySqlStr() {
+            String s = replaySqlStr;
+            if (s == null) {
+                try {
+                    s = MJdbcTools.rewriteStatementWithNamedParameters(sqlStr,
+                            MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK, parameters);
+                } catch (Exception ex) {
+                    s = sqlStr;
+                }
+                replaySqlStr = s;
+            }
+            return s;
+        }
+
+        /**
+         * Appends a comment with the duration, the fingerprint, the rows and the update counts
+         * followed by the SQL statement for replaying.
+         *
+         * @param appendable the target
+         * @throws IOException when appending fails
+         */
+        public void appendTo(Appendable appendable) throws IOException {
+            long millis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+            appendable.append("-- ").append(Instant.ofEpochMilli(timestamp).toString())
+                    .append(", ").append(String.valueOf(millis)).append(" ms, fingerprint ")
+                    .append(fingerprint.toHex()).append(", rows ").append(String.valueOf(rows));
+            if (updateCounts != null) {
+                appendable.append(", update counts ").append(Arrays.toString(updateCounts));
+            }
+            appendable.append('\n').append(getReplaySqlStr()).append(";\n");
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            try {
+                appendTo(builder);
+            } catch (IOException ex) {
+                // a StringBuilder does not throw
+                throw new IllegalStateException(ex);
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * @param capacity the number of entries to keep, rounded up to a power of two
+     */
+    public MSlowQueryLog(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        entries = new AtomicReferenceArray<>(size);
+        mask = entries.length() - 1;
+    }
+
+    /**
+     * Installs the log, which statements created from now on capture into.
+     *
+     * @param log the log, NULL to stop capturing by new statements
+     */
+    public static void install(MSlowQueryLog log) {
+        installed = log;
+    }
+
+    /**
+     * @return the installed log, or NULL
+     */
+    public static MSlowQueryLog getInstalled() {
+        return installed;
+    }
+
+    public MSlowQueryLog setThreshold(long duration, TimeUnit unit) {
+        thresholdNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * @param redactedNames the pattern of the parameter names, whose values are replaced by
+     *        {@value #REDACTED}; NULL redacts none
+     * @return this log
+     */
+    public MSlowQueryLog setRedactedNames(Pattern redactedNames) {
+        this.redactedNames = redactedNames;
+        return this;
+    }
+
+    /**
+     * @param maxValueLength the maximum length of captured text and binary values, longer ones are
+     *        truncated
+     * @return this log
+     */
+    public MSlowQueryLog setMaxValueLength(int maxValueLength) {
+        this.maxValueLength = maxValueLength;
+        return this;
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    /**
+     * Captures the execution when it has been slow.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param durationNanos the duration in nanoseconds
+     * @param parameterValues the parameter values by name, may be NULL
+     * @param updateCounts the update counts, NULL for a query
+     * @param rows the number of records
+     * @return TRUE if the execution has been captured
+     */
+    public boolean record(String sqlStr, long durationNanos, Map<String, ?> parameterValues,
+            int[] updateCounts, long rows) {
+        if (!isSlow(durationNanos)) {
+            return false;
+        }
+        Entry entry = new Entry(sqlStr, capture(parameterValues), durationNanos,
+                updateCounts != null ? updateCounts.clone() : null, rows);
+        entries.set((int) (sequence.getAndIncrement() & mask), entry);
+        return true;
+    }
+
+    private Map<String, Object> capture(Map<String, ?> parameterValues) {
+        if (parameterValues == null || parameterValues.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Pattern redacted = redactedNames;
+        // the names are matched case-insensitively, like by MPreparedStatement
+        CaseInsensitiveMap<String, Object> values = new CaseInsensitiveMap<>();
+        for (Map.Entry<String, ?> e : parameterValues.entrySet()) {
+            String name = e.getKey();
+            Object value = e.getValue();
+            if (redacted != null && name != null && redacted.matcher(name).matches()) {
+                values.put(name, REDACTED);
+            } else {
+                values.put(name, truncate(value));
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private Object truncate(Object value) {
+        final int max = maxValueLength;
+        if (value instanceof CharSequence && ((CharSequence) value).length() > max) {
+            return ((CharSequence) value).subSequence(0, max) + "...";
+        } else if (value instanceof byte[] && ((byte[]) value).length > max) {
+            return Arrays.copyOf((byte[]) value, max);
+        } else if (value instanceof ByteBuffer) {
+            // the execution reads a duplicate, so the remaining bytes are still there
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[Math.min(buffer.remaining(), max)];
+            buffer.get(bytes);
+            return bytes;
+        } else if (value instanceof InputStream || value instanceof Reader) {
+            // streams have been consumed by the execution already
+            return value.getClass().getSimpleName();
+        } else if (value instanceof ReadableByteChannel) {
+            return ReadableByteChannel.class.getSimpleName();
+        } else if (value instanceof Path) {
+            // the file may be huge or gone by the time of the replay
+            return Path.class.getSimpleName();
+        }
+        return value;
+    }
+
+    /**
+     * @return the captured entries from the oldest to the latest
+     */
+    public List<Entry> getEntries() {
+        long end = sequence.get();
+        long start = Math.max(0, end - entries.length());
+        ArrayList<Entry> list = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Entry entry = entries.get((int) (i & mask));
+            if (entry != null) {
+                list.add(entry);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Appends all captured entries with the SQL statements for replaying, from the oldest to the
+     * latest.
+     *
+     * @param appendable the target, e.g. a Writer or System.err
+     * @throws IOException when appending fails
+     */
+    public void dump(Appendable appendable) throws IOException {
+        for (Entry entry : getEntries()) {
+            entry.appendTo(appendable);
+            appendable.append('\n');
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A single pass, lexical scanner for Named Parameters (e.g. `:Customer_Id`) and Positional
+ * Parameters `?` in SQL statements, which does not build an AST.
+ * <p>
+ * It skips string literals (including `E'...'` escapes), quoted identifiers (`"..."` and
+ * `&#96;...&#96;`), line and block comments, PostgreSQL dollar quoting (`$tag$...$tag$`), `::`
+ * casts and `:=` assignments. Everything else is passed through unchanged.
+ * <p>
+ * Some tokens can't be told apart without a grammar and are reported as ambiguous: a `?` next to
+ * an operand or followed by `|` or `&amp;`, which may be a PostgreSQL JSON operator, and a `:`
+ * inside square brackets, which may be an array slice. The scanner still treats them as
+ * parameters, while {@link MRewriteMode#LEXICAL_WITH_PARSER_FALLBACK} hands such statements to
+ * JSQLParser.
+ */
+public final class MSqlScanner {
+
+    /**
+     * Receives the tokens of a scanned SQL statement in order of appearance.
+     */
+    interface Visitor {
+        /**
+         * A fragment of the SQL text, which is not a parameter.
+         *
+         * @param sqlStr the scanned SQL statement
+         * @param start the start index of the fragment, inclusive
+         * @param end the end index of the fragment, exclusive
+         */
+        void text(String sqlStr, int start, int end);
+
+        /**
+         * A Named or a Positional Parameter.
+         *
+         * @param name the name of the Named Parameter without the colon, or NULL for a Positional
+         *        Parameter `?`
+         */
+        void parameter(String name);
+
+        /**
+         * A token which may be a parameter or an operator, reported before the parameter.
+         *
+         * @param index the index of the token
+         */
+        default void ambiguous(int index) {
+            // the scanner treats the token as parameter
+        }
+    }
+
+    private MSqlScanner() {
+        // static utility
+    }
+
+    /**
+     * Scans the SQL statement and rewrites any Named Parameter into a Positional Parameter `?`,
+     * producing the same parameter positions as {@link MParsedStatement#parse(String)}.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @return the rewritten statement
+     * @throws JSQLParserException when the statement holds an unterminated literal or comment
+     */
+    public static MParsedStatement parse(String sqlStr) throws JSQLParserException {
+        return parse(sqlStr, false);
+    }
+
+    /**
+     * @param strict whether to give up on ambiguous tokens
+     * @return the rewritten statement or NULL, when strict and an ambiguous token was found
+     */
+    private static MParsedStatement parse(String sqlStr, boolean strict)
+            throws JSQLParserException {
+        StringBuilder builder = new StringBuilder(sqlStr.length());
+        Map<String, TreeSet<Integer>> params = new LinkedHashMap<>();
+        boolean[] ambiguous = {false};
+
+        scan(sqlStr, new Visitor() {
+            int i = 1;
+
+            @Override
+            public void text(String s, int start, int end) {
+                builder.append(s, start, end);
+            }
+
+            @Override
+            public void parameter(String name) {
+                String id = name != null ? name : ":" + (i + 1);
+                params.computeIfAbsent(id.toUpperCase(), k -> new TreeSet<>()).add(i);
+                builder.append('?');
+                i++;
+            }
+
+            @Override
+            public void ambiguous(int index) {
+                ambiguous[0] = true;
+            }
+        });
+
+        return strict && ambiguous[0]
+                ? null
+                : new MParsedStatement(sqlStr, builder.toString(), params);
+    }
+
+    /**
+     * Parses the SQL statement in the given mode.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param mode the rewrite mode
+     * @return the rewritten statement
+     * @throws JSQLParserException when the statement can't be parsed or scanned
+     */
+    public static MParsedStatement parse(String sqlStr, MRewriteMode mode)
+            throws JSQLParserException {
+        switch (mode) {
+            case LEXICAL:
+                return parse(sqlStr);
+            case LEXICAL_WITH_PARSER_FALLBACK:
+                MParsedStatement statement;
+                try {
+                    statement = parse(sqlStr, true);
+                } catch (JSQLParserException ex) {
+                    return MParsedStatement.parse(sqlStr);
+                }
+                if (statement != null) {
+                    return statement;
+                }
+                try {
+                    return MParsedStatement.parse(sqlStr);
+                } catch (JSQLParserException ex) {
+                    // vendor syntax unknown to the parser, the scanner's guess is the best we have
+                    return parse(sqlStr);
+                }
+            case PARSER:
+            default:
+                return MParsedStatement.parse(sqlStr);
+        }
+    }
+
+    /**
+     * Checks quickly whether the SQL statement holds any Named or Positional Parameter outside of
+     * literals and comments. Malformed statements are reported as having parameters, so they will
+     * be handed to the parser.
+     *
+     * @param sqlStr the SQL statement
+     * @return TRUE if any parameter was found
+     */
+    public static boolean hasParameters(String sqlStr) {
+        if (sqlStr.indexOf(':') < 0 && sqlStr.indexOf('?') < 0) {
+            return false;
+        }
+        return find(sqlStr, false);
+    }
+
+    /**
+     * Checks quickly whether the SQL statement holds any Named Parameter outside of literals and
+     * comments, while Positional Parameters `?` are ignored. Malformed statements are reported as
+     * having parameters, so they will be handed to the parser.
+     *
+     * @param sqlStr the SQL statement
+     * @return TRUE if any Named Parameter was found
+     */
+    public static boolean hasNamedParameters(String sqlStr) {
+        if (sqlStr.indexOf(':') < 0) {
+            return false;
+        }
+        return find(sqlStr, true);
+    }
+
+    private static boolean find(String sqlStr, boolean namedOnly) {
+        final boolean[] found = {false};
+        try {
+            scan(sqlStr, new Visitor() {
+                @Override
+                public void text(String s, int start, int end) {
+                    // not interested
+                }
+
+                @Override
+                public void parameter(String name) {
+                    found[0] |= name != null || !namedOnly;
+                }
+            });
+        } catch (JSQLParserException ex) {
+            return true;
+        }
+        return found[0];
+    }
+
+    static void scan(String sqlStr, Visitor visitor) throws JSQLParserException {
+        final int length = sqlStr.length();
+        int textStart = 0;
+        int bracketDepth = 0;
+        int i = 0;
+        while (i < length) {
+            char c = sqlStr.charAt(i);
+            switch (c) {
+                case '[':
+                    bracketDepth++;
+                    i++;
+                    break;
+                case ']':
+                    bracketDepth = Math.max(0, bracketDepth - 1);
+                    i++;
+                    break;
+                case '\'':
+                    i = skipQuoted(sqlStr, i, '\'', isEscapeString(sqlStr, i));
+                    break;
+                case '"':
+                case '`':
+                    i = skipQuoted(sqlStr, i, c, false);
+                    break;
+                case '-':
+                    if (i + 1 < length && sqlStr.charAt(i + 1) == '-') {
+                        int end = sqlStr.indexOf('\n', i + 2);
+                        i = end < 0 ? length : end + 1;
+                    } else {
+                        i++;
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < length && sqlStr.charAt(i + 1) == '*') {
+                        int end = sqlStr.indexOf("*/", i + 2);
+                        if (end < 0) {
+                            throw new JSQLParserException(
+                                    "Unterminated comment starting at index " + i);
+                        }
+                        i = end + 2;
+                    } else {
+                        i++;
+                    }
+                    break;
+                case '$':
+                    i = skipDollarQuoted(sqlStr, i);
+                    break;
+                case ':':
+                    if (i + 1 < length && (sqlStr.charAt(i + 1) == ':'
+                            || sqlStr.charAt(i + 1) == '=')) {
+                        // a cast `::type` or an assignment `:=`
+                        i += 2;
+                    } else if (i + 1 < length && isIdentifierStart(sqlStr.charAt(i + 1))) {
+                        int end = i + 2;
+                        while (end < length && isIdentifierPart(sqlStr.charAt(end))) {
+                            end++;
+                        }
+                        visitor.text(sqlStr, textStart, i);
+                        if (bracketDepth > 0) {
+                            visitor.ambiguous(i);
+                        }
+                        visitor.parameter(sqlStr.substring(i + 1, end));
+                        i = end;
+                        textStart = end;
+                    } else {
+                        i++;
+                    }
+                    break;
+                case '?':
+                    visitor.text(sqlStr, textStart, i);
+                    if (isOperator(sqlStr, i)) {
+                        visitor.ambiguous(i);
+                    }
+                    visitor.parameter(null);
+                    i++;
+                    textStart = i;
+                    break;
+                default:
+                    i++;
+            }
+        }
+        visitor.text(sqlStr, textStart, length);
+    }
+
+    /**
+     * @return TRUE if the `?` at the index follows an operand, is followed by `|`, `&amp;` or a
+     *         literal, so it is rather an operator than a Positional Parameter
+     */
+    private static boolean isOperator(String sqlStr, int index) {
+        int previous = index - 1;
+        while (previous >= 0 && Character.isWhitespace(sqlStr.charAt(previous))) {
+            previous--;
+        }
+        if (previous >= 0) {
+            char c = sqlStr.charAt(previous);
+            if (c == ')' || c == ']' || Character.isDigit(c)) {
+                return true;
+            }
+        }
+
+        int next = index + 1;
+        if (next < sqlStr.length() && (sqlStr.charAt(next) == '|' || sqlStr.charAt(next) == '&')) {
+            return true;
+        }
+        while (next < sqlStr.length() && Character.isWhitespace(sqlStr.charAt(next))) {
+            next++;
+        }
+        return next < sqlStr.length() && sqlStr.charAt(next) == '\'';
+    }
+
+    static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    static boolean isEscapeString(String sqlStr, int quoteIndex) {
+        if (quoteIndex == 0) {
+            return false;
+        }
+        char prefix = sqlStr.charAt(quoteIndex - 1);
+        return (prefix == 'E' || prefix == 'e')
+                && (quoteIndex == 1 || !isIdentifierPart(sqlStr.charAt(quoteIndex - 2)));
+    }
+
+    static int skipQuoted(String sqlStr, int start, char quote, boolean backslashEscapes)
+            throws JSQLParserException {
+        final int length = sqlStr.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = sqlStr.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                // a doubled quote is an escaped quote
+                if (i + 1 < length && sqlStr.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw new JSQLParserException(
+                "Unterminated literal " + quote + " starting at index " + start);
+    }
+
+    static int skipDollarQuoted(String sqlStr, int start) throws JSQLParserException {
+        // `$` inside identifiers (e.g. Oracle's V$SESSION) or `$1` parameters are no quotes
+        if (start > 0 && isIdentifierPart(sqlStr.charAt(start - 1))) {
+            return start + 1;
+        }
+
+        final int length = sqlStr.length();
+        int i = start + 1;
+        if (i < length && isIdentifierStart(sqlStr.charAt(i))) {
+            i++;
+            while (i < length && isIdentifierPart(sqlStr.charAt(i))) {
+                i++;
+            }
+        }
+        if (i >= length || sqlStr.charAt(i) != '$') {
+            return start + 1;
+        }
+
+        String tag = sqlStr.substring(start, i + 1);
+        int end = sqlStr.indexOf(tag, i + 1);
+        if (end < 0) {
+            throw new JSQLParserException(
+                    "Unterminated dollar quoted literal starting at index " + start);
+        }
+        return end + tag.length();
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+/**
+ * The process-wide cache of parsed and rewritten SQL statements, keyed by the original SQL text. On
+ * a cache hit, constructing a {@link MPreparedStatement} does not invoke JSQLParser at all.
+ */
+public final class MStatementCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final MLruCache<Key, MParsedStatement> CACHE =
+            new MLruCache<>(Integer.getInteger("mjdbcutils.statementCacheSize",
+                    DEFAULT_MAXIMUM_SIZE));
+    private static final MLruCache<Key, MLiteralTemplate> TEMPLATES =
+            new MLruCache<>(CACHE.getMaximumSize());
+    private static final MLruCache<String, MFingerprint> FINGERPRINTS =
+            new MLruCache<>(CACHE.getMaximumSize());
+
+    private static final class Key {
+        private final String sqlStr;
+        private final MRewriteMode mode;
+        private final int rows;
+
+        private Key(String sqlStr, MRewriteMode mode, int rows) {
+            this.sqlStr = sqlStr;
+            this.mode = mode;
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return mode == that.mode && rows == that.rows && sqlStr.equals(that.sqlStr);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * sqlStr.hashCode() + mode.hashCode()) + rows;
+        }
+    }
+
+    private MStatementCache() {
+        // static utility
+    }
+
+    /**
+     * Returns the cached rewrite of a SQL statement, parsing and caching it on a miss.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @return the parsed statement, shared between all callers
+     * @throws JSQLParserException when the SQL statement can't be parsed
+     */
+    public static MParsedStatement get(String sqlStr) throws JSQLParserException {
+        return get(sqlStr, MRewriteMode.PARSER);
+    }
+
+    /**
+     * Returns the cached rewrite of a SQL statement in the given mode, parsing or scanning and
+     * caching it on a miss.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param mode the rewrite mode
+     * @return the parsed statement, shared between all callers
+     * @throws JSQLParserException when the SQL statement can't be parsed
+     */
+    public static MParsedStatement get(String sqlStr, MRewriteMode mode)
+            throws JSQLParserException {
+        return CACHE.get(new Key(sqlStr, mode, 0), k -> MSqlScanner.parse(k.sqlStr, k.mode));
+    }
+
+    /**
+     * Returns the cached multi row rewrite of a single row INSERT statement, see
+     * {@link MParsedStatement#parseMultiRowInsert(String, int)}.
+     *
+     * @param sqlStr the single row INSERT statement with Named Parameters
+     * @param rows the number of rows to insert per statement
+     * @return the parsed statement, or NULL when the statement does not qualify
+     * @throws JSQLParserException when the SQL statement can't be parsed
+     */
+    public static MParsedStatement getMultiRowInsert(String sqlStr, int rows)
+            throws JSQLParserException {
+        return CACHE.get(new Key(sqlStr, MRewriteMode.PARSER, rows),
+                k -> MParsedStatement.parseMultiRowInsert(k.sqlStr, k.rows));
+    }
+
+    /**
+     * Returns the cached literal template of a SQL statement, compiling and caching it on a miss.
+     * The templates are cached apart from the parsed statements, but with the same maximum size.
+     *
+     * @param sqlStr the SQL statement with Named Parameters
+     * @param mode the rewrite mode
+     * @return the template, shared between all callers
+     * @throws JSQLParserException when the SQL statement can't be parsed or scanned
+     */
+    public static MLiteralTemplate getTemplate(String sqlStr, MRewriteMode mode)
+            throws JSQLParserException {
+        return TEMPLATES.get(new Key(sqlStr, mode, 0),
+                k -> MLiteralTemplate.compile(k.sqlStr, k.mode));
+    }
+
+    /**
+     * Returns the cached fingerprint of a SQL statement, computing and caching it on a miss.
+     *
+     * @param sqlStr the SQL statement
+     * @return the fingerprint
+     */
+    public static MFingerprint getFingerprint(String sqlStr) {
+        return FINGERPRINTS.get(sqlStr, MFingerprint::compute);
+    }
+
+    /**
+     * Sets the maximum number of cached statements, 0 disables the cache.
+     *
+     * @param maximumSize the maximum number of cached statements
+     */
+    public static void setMaximumSize(int maximumSize) {
+        CACHE.setMaximumSize(maximumSize);
+        TEMPLATES.setMaximumSize(maximumSize);
+        FINGERPRINTS.setMaximumSize(maximumSize);
+    }
+
+    public static int getMaximumSize() {
+        return CACHE.getMaximumSize();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+        TEMPLATES.clear();
+        FINGERPRINTS.clear();
+    }
+
+    public static long getHitCount() {
+        return CACHE.getHitCount();
+    }
+
+    public static long getMissCount() {
+        return CACHE.getMissCount();
+    }
+
+    public static long getEvictionCount() {
+        return CACHE.getEvictionCount();
+    }
+
+    public static void resetCounters() {
+        CACHE.resetCounters();
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in execution metrics of {@link MPreparedStatement}, aggregated per statement shape by its
+ * {@link MFingerprint}: latency histograms in nanoseconds for each {@link Phase}, the rows per
+ * executed batch and the number of parameters bound by the
+ * {@link java.sql.PreparedStatement#setObject} fallback after their typed binder failed.
+ * <p>
+ * Metrics are disabled by default. Statements look up their metrics once when being created and
+ * skip any timing when there are none, so the disabled instrumentation costs a single null check
+ * per call. Statements created while enabled stop recording when the metrics get disabled.
+ *
+ * <pre>
+ * MStatementMetrics.enable(); // exported as JMX MBeans
+ * ...
+ * for (MStatementMetrics m : MStatementMetrics.getAll()) {
+ *     System.out.println(m.getSqlStr() + " " + m.getHistogram(Phase.EXECUTE));
+ * }
+ * </pre>
+ */
+public final class MStatementMetrics {
+
+    public enum Phase {
+        /** Parsing and rewriting the Named Parameters, mostly a cache lookup */
+        PARSE,
+        /** Preparing the JDBC statement including the parameter metadata lookup */
+        PREPARE,
+        /** Binding the parameter values of one execution or batched record */
+        BIND,
+        /** Executing a single statement or query */
+        EXECUTE,
+        /** Executing a batch */
+        BATCH_FLUSH
+    }
+
+    /**
+     * Publishes the metrics of each statement shape, e.g. via JMX.
+     */
+    public interface Exporter {
+        /**
+         * Called once for the metrics of a new statement shape.
+         *
+         * @param metrics the new metrics
+         */
+        void export(MStatementMetrics metrics);
+
+        /**
+         * Called when the metrics are discarded, after {@link #clear()} or {@link #disable()}.
+         *
+         * @param metrics the discarded metrics
+         */
+        void remove(MStatementMetrics metrics);
+    }
+
+    private static final ConcurrentHashMap<MFingerprint, MStatementMetrics> REGISTRY =
+            new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+    private static volatile Exporter exporter = null;
+
+    private final MFingerprint fingerprint;
+    private final EnumMap<Phase, MHistogram> histograms = new EnumMap<>(Phase.class);
+    private final MHistogram rowsPerBatch = new MHistogram();
+    private final LongAdder bindFallbackCount = new LongAdder();
+
+    private MStatementMetrics(MFingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new MHistogram());
+        }
+    }
+
+    /**
+     * Enables the metrics, exported as JMX MBeans by the {@link MJmxExporter}.
+     */
+    public static void enable() {
+        enable(new MJmxExporter());
+    }
+
+    /**
+     * Enables the metrics with the given exporter.
+     *
+     * @param exporter the exporter, NULL to keep the metrics in memory only
+     */
+    public static synchronized void enable(Exporter exporter) {
+        clear();
+        MStatementMetrics.exporter = exporter;
+        enabled = true;
+    }
+
+    /**
+     * Disables and discards the metrics.
+     */
+    public static synchronized void disable() {
+        enabled = false;
+        clear();
+        exporter = null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the metrics of the statement's shape, registering and exporting them on first use.
+     *
+     * @param sqlStr the SQL statement
+     * @return the metrics, or NULL when disabled
+     */
+    public static MStatementMetrics forStatement(String sqlStr) {
+        if (!enabled) {
+            return null;
+        }
+        MFingerprint fingerprint = MStatementCache.getFingerprint(sqlStr);
+        MStatementMetrics metrics = REGISTRY.get(fingerprint);
+        if (metrics == null) {
+            MStatementMetrics created = new MStatementMetrics(fingerprint);
+            metrics = REGISTRY.putIfAbsent(fingerprint, created);
+            if (metrics == null) {
+                metrics = created;
+                Exporter e = exporter;
+                if (e != null) {
+                    e.export(created);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of all statement shapes recorded so far
+     */
+    public static List<MStatementMetrics> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(REGISTRY.values()));
+    }
+
+    /**
+     * Discards the metrics of all statement shapes.
+     */
+    public static synchronized void clear() {
+        Exporter e = exporter;
+        for (Map.Entry<MFingerprint, MStatementMetrics> entry : REGISTRY.entrySet()) {
+            if (REGISTRY.remove(entry.getKey(), entry.getValue()) && e != null) {
+                e.remove(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        if (enabled) {
+            histograms.get(phase).record(nanos);
+        }
+    }
+
+    /**
+     * Records the duration and the number of rows of an executed batch.
+     *
+     * @param nanos the duration in nanoseconds
+     * @param rows the number of batched rows
+     */
+    public void recordBatch(long nanos, long rows) {
+        if (enabled) {
+            histograms.get(Phase.BATCH_FLUSH).record(nanos);
+            rowsPerBatch.record(rows);
+        }
+    }
+
+    public void recordBindFallback() {
+        if (enabled) {
+            bindFallbackCount.increment();
+        }
+    }
+
+    public MFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the normalized SQL statement
+     */
+    public String getSqlStr() {
+        return fingerprint.getNormalizedSqlStr();
+    }
+
+    /**
+     * @param phase the phase
+     * @return the latencies of the phase in nanoseconds
+     */
+    public MHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    public MHistogram getRowsPerBatch() {
+        return rowsPerBatch;
+    }
+
+    public long getBindFallbackCount() {
+        return bindFallbackCount.sum();
+    }
+
+    public void reset() {
+        for (MHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        rowsPerBatch.reset();
+        bindFallbackCount.reset();
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of {@link MPreparedStatement}s keyed by connection and SQL, for sharing statements
+ * between the threads of a server. A {@link Handle} owns its statement exclusively until it is
+ * closed, which returns the statement to the pool. Checking out and returning are lock-free.
+ * Returned statements are reset to the state they have been prepared with, so the settings and
+ * parameters of one owner never leak to the next.
+ * <p>
+ * All statements of the same SQL share the cached parsed statement. The parameter types are read
+ * from the {@link java.sql.ParameterMetaData} of the first statement only and shared by all
+ * connections to the same database URL.
+ * <p>
+ * The pooled statements live as long as their connection: call {@link #release(Connection)}
+ * before closing a connection, statements of connections found closed are dropped on their
+ * return or by {@link #purge()}.
+ */
+public final class MStatementPool implements AutoCloseable {
+    private final ConcurrentHashMap<Connection,
+            ConcurrentHashMap<String, ConcurrentLinkedQueue<MPreparedStatement>>> idleStatements =
+                    new ConcurrentHashMap<>();
+    // the parameter types by database URL and SQL
+    private final ConcurrentHashMap<String,
+            ConcurrentHashMap<String, Map<String, Integer>>> parameterTypes =
+                    new ConcurrentHashMap<>();
+    private final MRewriteMode mode;
+    private final AtomicLong createdCount = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * An exclusively owned statement, which is returned to the pool when closed.
+     */
+    public final class Handle implements Closeable {
+        private final Connection conn;
+        private final String sqlStr;
+        private MPreparedStatement statement;
+
+        private Handle(Connection conn, String sqlStr, MPreparedStatement statement) {
+            this.conn = conn;
+            this.sqlStr = sqlStr;
+            this.statement = statement;
+        }
+
+        public MPreparedStatement getStatement() {
+            if (statement == null) {
+                throw new IllegalStateException("The handle has been closed.");
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() {
+            if (statement != null) {
+                checkin(conn, sqlStr, statement);
+                statement = null;
+            }
+        }
+    }
+
+    public MStatementPool() {
+        this(MRewriteMode.PARSER);
+    }
+
+    public MStatementPool(MRewriteMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @param conn the connection of the statement
+     * @param sqlStr the SQL statement with Named Parameters
+     * @return a handle owning an idle statement of the pool or a newly prepared one
+     * @throws SQLException when the statement can't be prepared
+     * @throws JSQLParserException when the statement can't be parsed
+     */
+    public Handle checkout(Connection conn, String sqlStr)
+            throws SQLException, JSQLParserException {
+        if (closed) {
+            throw new IllegalStateException("The pool has been closed.");
+        }
+
+        MPreparedStatement statement = getIdleStatements(conn, sqlStr).poll();
+        if (statement == null) {
+            statement = prepare(conn, sqlStr);
+        }
+        return new Handle(conn, sqlStr, statement);
+    }
+
+    private ConcurrentLinkedQueue<MPreparedStatement> getIdleStatements(Connection conn,
+            String sqlStr) {
+        return idleStatements.computeIfAbsent(conn, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sqlStr, k -> new ConcurrentLinkedQueue<>());
+    }
+
+    private MPreparedStatement prepare(Connection conn, String sqlStr)
+            throws SQLException, JSQLParserException {
+        String url = conn.getMetaData().getURL();
+        ConcurrentHashMap<String, Map<String, Integer>> typesBySql = parameterTypes
+                .computeIfAbsent(url != null ? url : "", k -> new ConcurrentHashMap<>());
+        Map<String, Integer> types = typesBySql.get(sqlStr);
+        MPreparedStatement statement = new MPreparedStatement(conn, sqlStr,
+                MPreparedStatement.DEFAULT_BATCH_SIZE, mode, types);
+        createdCount.incrementAndGet();
+
+        if (types == null) {
+            HashMap<String, Integer> typeMap = new HashMap<>();
+            for (MNamedParameter p : statement.getNamedParametersByName()) {
+                if (p.getType() != null) {
+                    typeMap.put(p.getId(), p.getType());
+                }
+            }
+            typesBySql.putIfAbsent(sqlStr, Collections.unmodifiableMap(typeMap));
+        }
+        return statement;
+    }
+
+    private void checkin(Connection conn, String sqlStr, MPreparedStatement statement) {
+        ConcurrentHashMap<String, ConcurrentLinkedQueue<MPreparedStatement>> statements =
+                idleStatements.get(conn);
+        ConcurrentLinkedQueue<MPreparedStatement> queue =
+                statements != null ? statements.get(sqlStr) : null;
+
+        boolean reusable = !closed && queue != null;
+        if (reusable) {
+            try {
+                if (conn.isClosed()) {
+                    reusable = false;
+                } else {
+                    statement.reset();
+                }
+            } catch (SQLException ex) {
+                reusable = false;
+            }
+        }
+
+        if (reusable) {
+            queue.offer(statement);
+            // the connection may have been released meanwhile
+            if (closed || idleStatements.get(conn) != statements) {
+                close(queue);
+            }
+        } else {
+            statement.close();
+        }
+    }
+
+    private static void close(ConcurrentLinkedQueue<MPreparedStatement> queue) {
+        MPreparedStatement statement;
+        while ((statement = queue.poll()) != null) {
+            statement.close();
+        }
+    }
+
+    /**
+     * Closes the idle statements of the connection, statements still checked out are closed on
+     * their return.
+     *
+     * @param conn the connection about to be closed
+     */
+    public void release(Connection conn) {
+        ConcurrentHashMap<String, ConcurrentLinkedQueue<MPreparedStatement>> statements =
+                idleStatements.remove(conn);
+        if (statements != null) {
+            for (ConcurrentLinkedQueue<MPreparedStatement> queue : statements.values()) {
+                close(queue);
+            }
+        }
+    }
+
+    /**
+     * Releases the statements of all connections which have been closed.
+     */
+    public void purge() {
+        for (Connection conn : idleStatements.keySet()) {
+            boolean isClosed;
+            try {
+                isClosed = conn.isClosed();
+            } catch (SQLException ex) {
+                isClosed = true;
+            }
+            if (isClosed) {
+                release(conn);
+            }
+        }
+    }
+
+    public int getIdleCount() {
+        int count = 0;
+        for (Map<String, ConcurrentLinkedQueue<MPreparedStatement>> statements : idleStatements
+                .values()) {
+            for (ConcurrentLinkedQueue<MPreparedStatement> queue : statements.values()) {
+                count += queue.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of statements prepared by the pool
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection conn : idleStatements.keySet()) {
+            release(conn);
+        }
+    }
+}
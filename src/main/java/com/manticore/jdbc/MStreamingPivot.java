@@ -0,0 +1,280 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.text.Format;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * A pivot table streamed from a {@link ResultSet}, which is sorted by its row key columns (all
+ * columns except the Category and the Aggregate Column). Each pivoted row is emitted as soon as
+ * its group is complete, followed by the Total row of its main category (the first row key
+ * column), so the memory used is proportional to one group instead of the whole report.
+ * <p>
+ * The emitted rows are laid out like the data of
+ * {@link MJdbcTools#getPivotFromQuery(ResultSet, MJdbcTools.AggregateFunction, String, String,
+ * Format, boolean, boolean)}. Since the value columns must be known before the first row is
+ * emitted, the categories have to be provided up front.
+ */
+public final class MStreamingPivot implements Iterable<Object[]> {
+
+    /**
+     * Receives the pivoted rows in order.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(Object[] rowData) throws SQLException;
+    }
+
+    private final ResultSet rs;
+    private final boolean buildTotals;
+    private final int[] keyColumnIndexes;
+    private final int categoryColumnIndex;
+    private final int aggregateColumnIndex;
+    private final HashMap<Object, Integer> categoryIndexes = new HashMap<>();
+    private final int categoryCount;
+    private final String[] columnNames;
+
+    // the state of the current group, each accumulator uses the first slot only
+    private Object[] currentKey = null;
+    private final MPivotAccumulator[] currentValues;
+    private final MPivotAccumulator rowTotal;
+    private final MPivotAccumulator[] subTotals;
+    private Object mainCategory = null;
+    private boolean finished = false;
+
+    /**
+     * @param rs The ResultSet holding the source data, sorted by the row key columns
+     * @param function Determine what type of aggregate function to use (SUM, COUNT, ...)
+     * @param aggregateColumnName Specify the column name of the aggregate value
+     * @param categoryColumnName Identify the column that will be transformed into separate Value
+     *        Columns
+     * @param categories The values of the Category Column, which become the Value Columns
+     * @param categoryFormat Format the key values into column labels
+     * @param buildTotals If to insert Total rows below and column on the right side
+     * @throws SQLException when the ResultSet's metadata can't be read
+     */
+    public MStreamingPivot(ResultSet rs, MJdbcTools.AggregateFunction function,
+            String aggregateColumnName, String categoryColumnName, Collection<?> categories,
+            Format categoryFormat, boolean buildTotals) throws SQLException {
+        this.rs = rs;
+        this.buildTotals = buildTotals;
+
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Integer> keyColumns = new ArrayList<>();
+        int categoryColumn = -1;
+        int aggregateColumn = -1;
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String columnName = metaData.getColumnName(i);
+            if (columnName.equalsIgnoreCase(categoryColumnName)) {
+                categoryColumn = i;
+            } else if (columnName.equalsIgnoreCase(aggregateColumnName)) {
+                aggregateColumn = i;
+            } else {
+                names.add(columnName);
+                keyColumns.add(i);
+            }
+        }
+        if (categoryColumn < 0 || aggregateColumn < 0) {
+            throw new SQLException("Unable to find the Aggregate or Category Column.");
+        }
+        MPivotAccumulator prototype =
+                MPivotAccumulator.create(function, metaData, aggregateColumn);
+
+        categoryColumnIndex = categoryColumn;
+        aggregateColumnIndex = aggregateColumn;
+        keyColumnIndexes = new int[keyColumns.size()];
+        for (int i = 0; i < keyColumnIndexes.length; i++) {
+            keyColumnIndexes[i] = keyColumns.get(i);
+        }
+
+        for (Object k : new TreeSet<Object>(categories)) {
+            categoryIndexes.put(k, categoryIndexes.size());
+            names.add(categoryFormat != null ? categoryFormat.format(k) : k.toString());
+        }
+        categoryCount = categoryIndexes.size();
+        if (buildTotals) {
+            names.add("Total");
+        }
+        columnNames = names.toArray(new String[0]);
+
+        currentValues = new MPivotAccumulator[categoryCount];
+        subTotals = new MPivotAccumulator[categoryCount + 1];
+        for (int c = 0; c < categoryCount; c++) {
+            currentValues[c] = prototype.newInstance();
+            subTotals[c] = prototype.newInstance();
+        }
+        subTotals[categoryCount] = prototype.newInstance();
+        rowTotal = prototype.newInstance();
+    }
+
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    /**
+     * Reads the whole ResultSet and hands each pivoted row to the handler as soon as its group is
+     * complete.
+     *
+     * @param handler the receiver of the pivoted rows
+     * @throws SQLException when reading the ResultSet or handling a row failed
+     */
+    public void process(RowHandler handler) throws SQLException {
+        ArrayDeque<Object[]> pending = new ArrayDeque<>();
+        while (advance(pending)) {
+            while (!pending.isEmpty()) {
+                handler.handle(pending.poll());
+            }
+        }
+    }
+
+    /**
+     * @return an Iterator reading the ResultSet lazily, which wraps any {@link SQLException} into
+     *         a {@link RuntimeException}
+     */
+    @Override
+    public Iterator<Object[]> iterator() {
+        return new Iterator<Object[]>() {
+            private final ArrayDeque<Object[]> pending = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (pending.isEmpty() && advance(pending)) {
+                        // read until the next group is complete
+                    }
+                } catch (SQLException ex) {
+                    throw new RuntimeException("Failed to read the pivot source.", ex);
+                }
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pending.poll();
+            }
+        };
+    }
+
+    /**
+     * Reads the ResultSet until at least one group is complete or the ResultSet is exhausted.
+     *
+     * @param out the queue receiving the completed rows
+     * @return FALSE when the ResultSet was exhausted before
+     */
+    private boolean advance(ArrayDeque<Object[]> out) throws SQLException {
+        if (finished) {
+            return false;
+        }
+
+        Object[] key = new Object[keyColumnIndexes.length];
+        while (rs.next()) {
+            for (int i = 0; i < keyColumnIndexes.length; i++) {
+                key[i] = rs.getObject(keyColumnIndexes[i]);
+            }
+            Object category = rs.getObject(categoryColumnIndex);
+            Object value = rs.getObject(aggregateColumnIndex);
+
+            Integer categoryIndex = categoryIndexes.get(category);
+            if (categoryIndex == null) {
+                throw new SQLException("The category " + category + " was not provided.");
+            }
+
+            boolean complete = currentKey != null && !Arrays.equals(currentKey, key);
+            if (complete) {
+                emitRow(out);
+            }
+            if (currentKey == null || complete) {
+                currentKey = key.clone();
+            }
+
+            currentValues[categoryIndex].add(0, value);
+
+            if (complete) {
+                return true;
+            }
+        }
+
+        if (currentKey != null) {
+            emitRow(out);
+            if (buildTotals) {
+                out.add(getTotalRow());
+            }
+        }
+        finished = true;
+        return !out.isEmpty();
+    }
+
+    private void emitRow(ArrayDeque<Object[]> out) {
+        Object[] rowData = new Object[columnNames.length];
+        System.arraycopy(currentKey, 0, rowData, 0, currentKey.length);
+
+        if (buildTotals && !rowData[0].equals(mainCategory)) {
+            if (mainCategory != null) {
+                out.add(getTotalRow());
+                out.add(new Object[columnNames.length]);
+            }
+            mainCategory = rowData[0];
+            for (MPivotAccumulator subTotal : subTotals) {
+                subTotal.clear(0);
+            }
+        }
+
+        for (int c = 0; c < categoryCount; c++) {
+            rowData[currentKey.length + c] = currentValues[c].get(0);
+            if (buildTotals) {
+                rowTotal.merge(0, currentValues[c], 0);
+                subTotals[c].merge(0, currentValues[c], 0);
+            }
+            // start the next group
+            currentValues[c].clear(0);
+        }
+        if (buildTotals) {
+            rowData[currentKey.length + categoryCount] = rowTotal.getTotal(0);
+            subTotals[categoryCount].merge(0, rowTotal, 0);
+            rowTotal.clear(0);
+        }
+        out.add(rowData);
+    }
+
+    private Object[] getTotalRow() {
+        Object[] totalRowData = new Object[columnNames.length];
+        totalRowData[0] = mainCategory;
+        totalRowData[Math.max(0, currentKey.length - 2)] = "Total";
+        for (int c = 0; c <= categoryCount; c++) {
+            totalRowData[currentKey.length + c] = subTotals[c].getTotal(0);
+        }
+        return totalRowData;
+    }
+}
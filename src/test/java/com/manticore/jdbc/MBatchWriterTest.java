@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MBatchWriterTest {
+    private static final String DML_STR = "INSERT INTO batch_test VALUES ( :a, :b )";
+    private static Connection conn;
+
+    public MBatchWriterTest() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:batch_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("CREATE TABLE batch_test ( a INT PRIMARY KEY, b VARCHAR(128) )");
+        }
+    }
+
+    @BeforeEach
+    public void truncateTable() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("TRUNCATE table batch_test");
+        }
+    }
+
+    @AfterAll
+    public static void closeConnection() throws SQLException {
+        conn.close();
+    }
+
+    private static int countRows() throws SQLException {
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT Count(*) FROM batch_test")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void flushByRowCount() throws Exception {
+        Map<String, Object> parameters = new CaseInsensitiveMap<>();
+        final MBatchWriter writer = new MBatchWriter(conn, DML_STR).setMaxRows(3);
+        try (writer) {
+            for (int i = 0; i < 10; i++) {
+                parameters.put("a", i);
+                parameters.put("b", "Test String " + i);
+                writer.add(parameters);
+            }
+            Assertions.assertEquals(3, writer.getBatchCount());
+            Assertions.assertEquals(9, countRows());
+        }
+        Assertions.assertEquals(4, writer.getBatchCount());
+        Assertions.assertEquals(10, writer.getRowCount());
+        Assertions.assertEquals(10, writer.getUpdateCount());
+        Assertions.assertEquals(10, countRows());
+    }
+
+    @Test
+    public void flushByBytes() throws Exception {
+        try (MBatchWriter writer = new MBatchWriter(conn, DML_STR).setMaxBytes(100)) {
+            // 8 bytes for the Integer and 2 bytes per character
+            writer.add(1, "0123456789012345678901234567890123456789");
+            Assertions.assertEquals(0, writer.getBatchCount());
+            writer.add(2, "0123456789012345678901234567890123456789");
+            Assertions.assertEquals(1, writer.getBatchCount());
+        }
+        Assertions.assertEquals(2, countRows());
+    }
+
+    @Test
+    public void asyncFlushByLatency() throws Exception {
+        try (MBatchWriter writer = new MBatchWriter(conn, DML_STR)
+                .setAsync(true)
+                .setMaxRows(1000)
+                .setMaxLatency(20, TimeUnit.MILLISECONDS)) {
+            writer.add(1, "Test String");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (writer.getRowCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Assertions.assertEquals(1, writer.getBatchCount());
+            Assertions.assertEquals(1, countRows());
+
+            for (int i = 2; i <= 100; i++) {
+                writer.add(i, "Test String " + i);
+            }
+        }
+        Assertions.assertEquals(100, countRows());
+    }
+
+    @Test
+    public void asyncFailure() throws Exception {
+        MBatchWriter writer = new MBatchWriter(conn, DML_STR).setAsync(true).setMaxRows(2);
+        writer.add(1, "Test String");
+        // violates the primary key
+        writer.add(1, "Test String");
+
+        Assertions.assertThrows(SQLException.class, writer::close);
+    }
+
+    /**
+     * Slows down each inserted row, called by H2 via the alias SLOW_ID.
+     */
+    public static final class Slow {
+        public static int slowId(int id) throws InterruptedException {
+            Thread.sleep(5);
+            return id;
+        }
+    }
+
+    @Test
+    public void asyncBackPressureWithLatency() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE ALIAS IF NOT EXISTS SLOW_ID FOR \""
+                    + Slow.class.getName() + ".slowId\"");
+        }
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (MBatchWriter writer =
+                    new MBatchWriter(conn, "INSERT INTO batch_test VALUES ( SLOW_ID(:a), :b )")
+                            .setAsync(true)
+                            .setMaxRows(1)
+                            .setMaxPendingBatches(2)
+                            .setMaxLatency(1, TimeUnit.MILLISECONDS)) {
+                for (int i = 0; i < 100; i++) {
+                    writer.add(i, "Test String " + i);
+                }
+            }
+        });
+        Assertions.assertEquals(100, countRows());
+    }
+}
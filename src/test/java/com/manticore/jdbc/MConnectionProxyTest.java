@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+class MConnectionProxyTest {
+
+    @Test
+    void prepareNamedParameters() throws Exception {
+        Class.forName(MNamedParameterDriver.class.getName());
+        try (Connection conn =
+                DriverManager.getConnection("jdbc:mjdbc:h2:mem:proxy_test", "sa", "")) {
+            try (PreparedStatement st = conn.prepareStatement("SELECT :a + :b * :A")) {
+                Assertions.assertTrue(st instanceof MNamedPreparedStatement);
+                Assertions.assertSame(conn, st.getConnection());
+
+                MNamedPreparedStatement namedSt = (MNamedPreparedStatement) st;
+                namedSt.setInt("a", 2);
+                namedSt.setLong("B", 3L);
+                try (ResultSet rs = namedSt.executeQuery()) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals(8, rs.getInt(1));
+                }
+                Assertions.assertThrows(SQLException.class, () -> namedSt.setInt("c", 1));
+            }
+
+            long missCount = MStatementCache.getMissCount();
+            try (PreparedStatement st = conn.prepareStatement("SELECT :a + :b * :A")) {
+                ((MNamedPreparedStatement) st).setObject("a", 1);
+                st.setInt(2, 1);
+                st.setInt(3, 1);
+                try (ResultSet rs = st.executeQuery()) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals(2, rs.getInt(1));
+                }
+            }
+            Assertions.assertEquals(missCount, MStatementCache.getMissCount());
+        }
+    }
+
+    @Test
+    void passThroughWithoutNamedParameters() throws Exception {
+        JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:proxy_test");
+        h2DataSource.setUser("sa");
+        MNamedParameterDataSource dataSource = new MNamedParameterDataSource(h2DataSource);
+
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement st = conn.prepareStatement("SELECT ? || ':a', 1::int")) {
+            Assertions.assertFalse(st instanceof MNamedPreparedStatement);
+            Assertions.assertSame(conn, st.getConnection());
+            st.setString(1, "x");
+            try (ResultSet rs = st.executeQuery()) {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertEquals("x:a", rs.getString(1));
+            }
+
+            try (Statement statement = conn.createStatement();
+                    CallableStatement call = conn.prepareCall("CALL 1")) {
+                Assertions.assertSame(conn, statement.getConnection());
+                Assertions.assertSame(conn, call.getConnection());
+                try (ResultSet rs = statement.executeQuery("SELECT 2")) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals(2, rs.getInt(1));
+                }
+            }
+        }
+        Assertions.assertFalse(MSqlScanner.hasNamedParameters("SELECT ?, ':a' -- :b"));
+        Assertions.assertTrue(MSqlScanner.hasNamedParameters("SELECT ?, :a"));
+        Assertions.assertSame(h2DataSource, dataSource.unwrap(JdbcDataSource.class));
+    }
+}
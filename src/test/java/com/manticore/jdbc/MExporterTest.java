@@ -0,0 +1,329 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MExporterTest {
+    private static final String SELECT_STR =
+            "SELECT id, name, amount, flag, booked FROM export_test ORDER BY id";
+
+    private static Connection conn;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:export_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE export_test (id BIGINT, name VARCHAR(20), "
+                    + "amount NUMERIC(18,2), flag BOOLEAN, booked DATE)");
+            st.execute("INSERT INTO export_test VALUES (1, 'plain', 1.50, TRUE, DATE '2025-01-02')"
+                    + ", (2, 'with, comma', -20.25, FALSE, NULL)"
+                    + ", (3, 'say \"hi\"', NULL, NULL, DATE '1970-01-01')"
+                    + ", (4, NULL, 0.01, TRUE, DATE '2024-02-29')"
+                    + ", (5, 'Z\u00fcrich', 12345678901234.56, FALSE, DATE '1969-12-31')");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void exportCsv() throws Exception {
+        Path path = tempDir.resolve("export.csv");
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SELECT_STR);) {
+            // a tiny buffer forces many flushes
+            Assertions.assertEquals(5,
+                    new MExporter(MExporter.Format.CSV).setBufferSize(32).export(rs, path));
+        }
+
+        String expected = "ID,NAME,AMOUNT,FLAG,BOOKED\n"
+                + "1,plain,1.50,TRUE,2025-01-02\n"
+                + "2,\"with, comma\",-20.25,FALSE,\n"
+                + "3,\"say \"\"hi\"\"\",,,1970-01-01\n"
+                + "4,,0.01,TRUE,2024-02-29\n"
+                + "5,Z\u00fcrich,12345678901234.56,FALSE,1969-12-31\n";
+        Assertions.assertEquals(expected,
+                new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportArrow() throws Exception {
+        Path path = tempDir.resolve("export.arrows");
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SELECT_STR);) {
+            Assertions.assertEquals(5,
+                    new MExporter(MExporter.Format.ARROW).setBatchSize(2).export(rs, path));
+        }
+
+        ArrowStream stream = new ArrowStream(Files.readAllBytes(path));
+        Assertions.assertEquals(Arrays.asList("ID", "NAME", "AMOUNT", "FLAG", "BOOKED"),
+                stream.fieldNames);
+        // Int, Utf8, Decimal, Bool, Date
+        Assertions.assertEquals(Arrays.asList(2, 5, 7, 6, 8), stream.fieldTypes);
+        Assertions.assertEquals(Arrays.asList(2L, 2L, 1L), stream.batchLengths);
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), stream.getLongs(0));
+        Assertions.assertEquals(
+                Arrays.asList("plain", "with, comma", "say \"hi\"", null, "Z\u00fcrich"),
+                stream.getStrings(1));
+        Assertions.assertEquals(
+                Arrays.asList(new BigDecimal("1.50"), new BigDecimal("-20.25"), null,
+                        new BigDecimal("0.01"), new BigDecimal("12345678901234.56")),
+                stream.getDecimals(2, 2));
+        Assertions.assertEquals(Arrays.asList(true, false, null, true, false),
+                stream.getBooleans(3));
+        Assertions.assertEquals(
+                Arrays.asList((int) LocalDate.of(2025, 1, 2).toEpochDay(), null, 0,
+                        (int) LocalDate.of(2024, 2, 29).toEpochDay(), -1),
+                stream.getInts(4));
+
+
+        // LOBs, arrays and decimals too wide for Decimal128 are exported as text
+        path = tempDir.resolve("text.arrows");
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT CAST(name AS CLOB) note, "
+                        + "CAST(amount AS NUMERIC(60, 2)) wide, ARRAY[id, 2] ids "
+                        + "FROM export_test WHERE id <= 2 ORDER BY id")) {
+            new MExporter(MExporter.Format.ARROW).export(rs, path);
+        }
+        stream = new ArrowStream(Files.readAllBytes(path));
+        Assertions.assertEquals(Arrays.asList(5, 5, 5), stream.fieldTypes);
+        Assertions.assertEquals(Arrays.asList("plain", "with, comma"), stream.getStrings(0));
+        Assertions.assertEquals(Arrays.asList("1.50", "-20.25"), stream.getStrings(1));
+        Assertions.assertEquals(Arrays.asList("[1, 2]", "[2, 2]"), stream.getStrings(2));
+    }
+
+    @Test
+    void exportPivot() throws Exception {
+        Object[][] pivot;
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT flag, id, amount FROM export_test WHERE flag IS NOT NULL")) {
+            pivot = MJdbcTools.getPivotFromQuery(rs, MJdbcTools.AggregateFunction.SUM, "AMOUNT",
+                    "ID", null, false, false);
+        }
+
+        Path csvPath = tempDir.resolve("pivot.csv");
+        Assertions.assertEquals(2, new MExporter(MExporter.Format.CSV).exportPivot(pivot, csvPath));
+        Assertions.assertEquals("FLAG,1,2,4,5\n"
+                + "false,,-20.25,,12345678901234.56\n"
+                + "true,1.50,,0.01,\n",
+                new String(Files.readAllBytes(csvPath), StandardCharsets.UTF_8));
+
+        Path arrowPath = tempDir.resolve("pivot.arrows");
+        new MExporter(MExporter.Format.ARROW).exportPivot(pivot, arrowPath);
+        ArrowStream stream = new ArrowStream(Files.readAllBytes(arrowPath));
+        Assertions.assertEquals(Arrays.asList("FLAG", "1", "2", "4", "5"), stream.fieldNames);
+        Assertions.assertEquals(Arrays.asList(5, 7, 7, 7, 7), stream.fieldTypes);
+        Assertions.assertEquals(Arrays.asList("false", "true"), stream.getStrings(0));
+        Assertions.assertEquals(Arrays.asList(null, new BigDecimal("1.50")),
+                stream.getDecimals(1, 2));
+    }
+
+    @Test
+    void exportWideDecimalsAsText() throws Exception {
+        // 1E+37 fits into 128 bits, but not with a scale of 2
+        Object[][] pivot = {{"KEY", "AMOUNT"},
+                new Object[][] {{"a", new BigDecimal("1E+37")}, {"b", new BigDecimal("0.25")}}};
+
+        Path arrowPath = tempDir.resolve("wide.arrows");
+        new MExporter(MExporter.Format.ARROW).exportPivot(pivot, arrowPath);
+        ArrowStream stream = new ArrowStream(Files.readAllBytes(arrowPath));
+        Assertions.assertEquals(Arrays.asList(5, 5), stream.fieldTypes);
+        Assertions.assertEquals(Arrays.asList("10000000000000000000000000000000000000", "0.25"),
+                stream.getStrings(1));
+    }
+
+    /**
+     * Decodes an Arrow IPC stream following the FlatBuffers and Arrow specifications, independent
+     * of the writer.
+     */
+    private static final class ArrowStream {
+        final ByteBuffer buffer;
+        final List<String> fieldNames = new ArrayList<>();
+        final List<Integer> fieldTypes = new ArrayList<>();
+        final List<Long> batchLengths = new ArrayList<>();
+        // validity and data buffers per batch and column
+        final List<List<ByteBuffer[]>> batches = new ArrayList<>();
+
+        ArrowStream(byte[] bytes) {
+            buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            int position = 0;
+            while (true) {
+                Assertions.assertEquals(0, position % 8);
+                Assertions.assertEquals(-1, buffer.getInt(position));
+                int metadataLength = buffer.getInt(position + 4);
+                if (metadataLength == 0) {
+                    Assertions.assertEquals(bytes.length, position + 8);
+                    break;
+                }
+                Assertions.assertEquals(0, metadataLength % 8);
+
+                int metadata = position + 8;
+                int message = metadata + buffer.getInt(metadata);
+                Assertions.assertEquals(4, buffer.getShort(field(message, 0)));
+                int headerType = buffer.get(field(message, 1));
+                int header = deref(field(message, 2));
+                long bodyLength = buffer.getLong(field(message, 3));
+                int body = metadata + metadataLength;
+
+                if (headerType == 1) {
+                    Assertions.assertEquals(0, bodyLength);
+                    int fields = deref(field(header, 1));
+                    for (int i = 0; i < buffer.getInt(fields); i++) {
+                        int f = deref(fields + 4 + 4 * i);
+                        fieldNames.add(string(field(f, 0)));
+                        fieldTypes.add((int) buffer.get(field(f, 2)));
+                    }
+                } else {
+                    Assertions.assertEquals(3, headerType);
+                    batchLengths.add(buffer.getLong(field(header, 0)));
+                    int nodes = deref(field(header, 1));
+                    int buffers = deref(field(header, 2));
+                    Assertions.assertEquals(fieldNames.size(), buffer.getInt(nodes));
+                    List<ByteBuffer[]> columns = new ArrayList<>();
+                    int b = 0;
+                    for (int i = 0; i < fieldNames.size(); i++) {
+                        // Utf8 has offsets and data
+                        ByteBuffer[] columnBuffers = new ByteBuffer[fieldTypes.get(i) == 5 ? 3 : 2];
+                        for (int j = 0; j < columnBuffers.length; j++, b++) {
+                            int region = buffers + 4 + 16 * b;
+                            long offset = buffer.getLong(region);
+                            long length = buffer.getLong(region + 8);
+                            Assertions.assertEquals(0, offset % 8);
+                            Assertions.assertTrue(offset + length <= bodyLength);
+                            columnBuffers[j] = slice(body + (int) offset, (int) length);
+                        }
+                        columns.add(columnBuffers);
+                    }
+                    Assertions.assertEquals(b, buffer.getInt(buffers));
+                    batches.add(columns);
+                }
+                position = body + (int) bodyLength;
+            }
+        }
+
+        private ByteBuffer slice(int position, int length) {
+            ByteBuffer b = buffer.duplicate();
+            b.position(position).limit(position + length);
+            return b.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private int deref(int position) {
+            return position + buffer.getInt(position);
+        }
+
+        private int field(int table, int slot) {
+            int vtable = table - buffer.getInt(table);
+            int vtableSize = buffer.getShort(vtable);
+            Assertions.assertTrue(4 + 2 * slot < vtableSize, "missing slot " + slot);
+            int offset = buffer.getShort(vtable + 4 + 2 * slot);
+            Assertions.assertNotEquals(0, offset, "missing slot " + slot);
+            return table + offset;
+        }
+
+        private String string(int position) {
+            int s = deref(position);
+            byte[] bytes = new byte[buffer.getInt(s)];
+            ByteBuffer b = buffer.duplicate();
+            b.position(s + 4);
+            b.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static boolean isSet(ByteBuffer bitmap, int index) {
+            return (bitmap.get(index >> 3) & 1 << (index & 7)) != 0;
+        }
+
+        private interface ValueReader {
+            Object read(ByteBuffer[] buffers, int row);
+        }
+
+        private List<Object> getValues(int column, ValueReader reader) {
+            ArrayList<Object> values = new ArrayList<>();
+            for (int b = 0; b < batches.size(); b++) {
+                ByteBuffer[] buffers = batches.get(b).get(column);
+                for (int row = 0; row < batchLengths.get(b); row++) {
+                    boolean valid = buffers[0].limit() == 0 || isSet(buffers[0], row);
+                    values.add(valid ? reader.read(buffers, row) : null);
+                }
+            }
+            return values;
+        }
+
+        List<Object> getLongs(int column) {
+            return getValues(column, (buffers, row) -> buffers[1].getLong(row * 8));
+        }
+
+        List<Object> getInts(int column) {
+            return getValues(column, (buffers, row) -> buffers[1].getInt(row * 4));
+        }
+
+        List<Object> getBooleans(int column) {
+            return getValues(column, (buffers, row) -> isSet(buffers[1], row));
+        }
+
+        List<Object> getDecimals(int column, int scale) {
+            return getValues(column, (buffers, row) -> {
+                byte[] bytes = new byte[16];
+                for (int i = 0; i < 16; i++) {
+                    bytes[15 - i] = buffers[1].get(row * 16 + i);
+                }
+                return new BigDecimal(new BigInteger(bytes), scale);
+            });
+        }
+
+        List<Object> getStrings(int column) {
+            return getValues(column, (buffers, row) -> {
+                int start = buffers[1].getInt(row * 4);
+                byte[] bytes = new byte[buffers[1].getInt(row * 4 + 4) - start];
+                ByteBuffer data = buffers[2].duplicate();
+                data.position(start);
+                data.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            });
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+class MFingerprintTest {
+    @Test
+    void normalizeLiteralsAndParameters() {
+        Assertions.assertEquals("SELECT A,B FROM T WHERE X=? AND Y=? AND Z IN(?)",
+                MFingerprint.normalize("select a, b from t where x = 1 and y = 'abc' -- c\n"
+                        + " and z in (1,2, 3)"));
+        Assertions.assertEquals("SELECT A,B FROM T WHERE X=? AND Y=? AND Z IN(?)",
+                MFingerprint.normalize("SELECT a,b\nFROM t WHERE x=:x AND y=E'a\\'b' /* c */"
+                        + " AND z IN (?, ?)"));
+        Assertions.assertEquals("INSERT INTO T(A,B)VALUES(?)",
+                MFingerprint.normalize("insert into t (a, b) values (1, 'x'), (2, 'y')"));
+        Assertions.assertEquals("SELECT A::INT,?,?-?,X-?,?,?,?,?,\"Mixed ?\" FROM V$SESSION",
+                MFingerprint.normalize("select a::int, -1, 2 - 1, x-1, 1.5e-3, $1, $$ x $$,"
+                        + " N'abc', \"Mixed ?\" from v$session"));
+        Assertions.assertEquals("SELECT*FROM T WHERE A=?",
+                MFingerprint.normalize("select * from t where a = 'unterminated"));
+    }
+
+    @Test
+    void sameShapeSameFingerprint() {
+        MFingerprint f1 = MFingerprint.compute("SELECT * FROM t WHERE a = 1 AND b IN (1, 2)");
+        MFingerprint f2 = MFingerprint.compute("select *\n from T where A = :a and B in (?)");
+        MFingerprint f3 = MFingerprint.compute("SELECT * FROM t WHERE a = 1 OR b IN (1, 2)");
+
+        Assertions.assertEquals(f1, f2);
+        Assertions.assertEquals(f1.getId(), f2.getId());
+        Assertions.assertEquals(f1.hashCode(), f2.hashCode());
+        Assertions.assertNotEquals(f1, f3);
+        Assertions.assertNotEquals(f1.getId(), f3.getId());
+
+        Assertions.assertTrue(f1.toHex().matches("[0-9a-f]{32}"));
+        Assertions.assertEquals(Long.parseUnsignedLong(f1.toHex().substring(0, 16), 16),
+                f1.getId());
+    }
+
+    @Test
+    void murmur3() {
+        // MurmurHash3_x64_128 of the UTF-16LE encoded text, seed 0
+        Assertions.assertArrayEquals(new long[] {0, 0}, MFingerprint.murmur3(""));
+        Assertions.assertArrayEquals(
+                new long[] {0xa9fd21ccac144d44L, 0xa2768ccebde581e9L},
+                MFingerprint.murmur3("hello world!"));
+        Assertions.assertArrayEquals(
+                new long[] {0x407e326dad7960faL, 0xa2075d5b76f17479L},
+                MFingerprint.murmur3("0123456789abcdefXYZ"));
+    }
+
+    @Test
+    void sha256() throws Exception {
+        MFingerprint fingerprint = MFingerprint.compute("SELECT \"A\u00fc\" FROM t");
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(fingerprint.getNormalizedSqlStr().getBytes(StandardCharsets.UTF_8));
+        StringBuilder expected = new StringBuilder();
+        for (byte b : digest) {
+            expected.append(String.format("%02x", b));
+        }
+        Assertions.assertEquals(expected.toString(), fingerprint.getSha256());
+
+        String hash = MJdbcTools.getSQLHash("select a from t where b = 'x'");
+        Assertions.assertTrue(hash.matches("[0-9a-f]{64}"));
+        Assertions.assertEquals(hash, MJdbcTools.getSQLHash("SELECT a\nFROM t WHERE b = 'x'"));
+    }
+
+    @Test
+    void cacheFingerprints() {
+        MStatementCache.clear();
+        String sqlStr = "SELECT * FROM t WHERE a = :a";
+        Assertions.assertSame(MStatementCache.getFingerprint(sqlStr),
+                MStatementCache.getFingerprint(sqlStr));
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -204,6 +205,62 @@ class MJdbcToolsTest {
         Assertions.assertEquals(expectedCSV, builder.toString());
     }
 
+    private static Object[][] getPivot(Statement st, String column,
+            MJdbcTools.AggregateFunction function) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT grp, item, cat, " + column + " FROM agg_test")) {
+            return (Object[][]) MJdbcTools.getPivotFromQuery(rs, function, column, "cat", null,
+                    true, true)[1];
+        }
+    }
+
+    @Test
+    void getPivotWithAggregateFunctions() throws SQLException {
+        try (
+                Connection conn = DriverManager.getConnection("jdbc:h2:mem:agg_test", "sa", "");
+                Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE agg_test (grp VARCHAR(5), item VARCHAR(5), cat INT, i INT, "
+                    + "d DOUBLE, n NUMERIC(10,2))");
+            st.execute("INSERT INTO agg_test VALUES ('A', 'a', 1, 1, 1.5, 1.10), "
+                    + "('A', 'a', 1, 3, 2.5, 2.20), ('A', 'a', 2, 3, 0.5, NULL), "
+                    + "('A', 'b', 1, 5, 1.0, 5.00)");
+
+            // columns: grp, item, 1, 2, Total
+            Object[][] data = getPivot(st, "i", MJdbcTools.AggregateFunction.SUM);
+            Assertions.assertArrayEquals(new Object[] {"A", "a", 4L, 3L, 7L}, data[0]);
+            Assertions.assertArrayEquals(new Object[] {"Total", null, 9L, 3L, 12L}, data[2]);
+
+            data = getPivot(st, "n", MJdbcTools.AggregateFunction.COUNT);
+            Assertions.assertArrayEquals(new Object[] {"A", "a", 2L, 0L, 2L}, data[0]);
+            Assertions.assertArrayEquals(new Object[] {"A", "b", 1L, null, 1L}, data[1]);
+            Assertions.assertArrayEquals(new Object[] {"Total", null, 3L, 0L, 3L}, data[2]);
+
+            data = getPivot(st, "i", MJdbcTools.AggregateFunction.COUNT_DISTINCT);
+            Assertions.assertArrayEquals(new Object[] {"A", "a", 2L, 1L, 2L}, data[0]);
+            Assertions.assertArrayEquals(new Object[] {"Total", null, 3L, 1L, 3L}, data[2]);
+
+            data = getPivot(st, "n", MJdbcTools.AggregateFunction.MIN);
+            Assertions.assertArrayEquals(
+                    new Object[] {"A", "a", new BigDecimal("1.10"), null, new BigDecimal("1.10")},
+                    data[0]);
+
+            data = getPivot(st, "n", MJdbcTools.AggregateFunction.MAX);
+            Assertions.assertArrayEquals(
+                    new Object[] {"Total", null, new BigDecimal("5.00"), null,
+                            new BigDecimal("5.00")},
+                    data[2]);
+
+            data = getPivot(st, "d", MJdbcTools.AggregateFunction.AVG);
+            Assertions.assertArrayEquals(new Object[] {"A", "a", 2.0d, 0.5d, 1.5d}, data[0]);
+            Assertions.assertArrayEquals(new Object[] {"Total", null, 5.0d / 3, 0.5d, 1.375d},
+                    data[2]);
+
+            data = getPivot(st, "n", MJdbcTools.AggregateFunction.AVG);
+            Assertions.assertArrayEquals(
+                    new Object[] {"A", "a", new BigDecimal("1.65"), null, new BigDecimal("1.65")},
+                    data[0]);
+        }
+    }
+
     @Test
     @Disabled
     void testDataCube() throws Exception {
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.UUID;
+
+class MLiteralRendererTest {
+    /**
+     * The rendering before the MLiteralRenderer, which it must reproduce exactly.
+     */
+    private static String getLegacyParameterStr(Object o) {
+        if (o == null) {
+            return "NULL";
+        } else if (o instanceof java.sql.Date) {
+            return "{d '" + o + "'}";
+        } else if (o instanceof Date || o instanceof Calendar) {
+            Calendar cal;
+            if (o instanceof Date) {
+                cal = GregorianCalendar.getInstance();
+                cal.setTime((Date) o);
+            } else {
+                cal = (Calendar) o;
+            }
+            LocalDateTime localDateTime = Instant.ofEpochMilli(cal.getTimeInMillis())
+                    .atZone(ZoneId.systemDefault()).toLocalDateTime();
+            if (cal.get(Calendar.MILLISECOND) == 0
+                    && cal.get(Calendar.SECOND) == 0
+                    && cal.get(Calendar.MINUTE) == 0
+                    && cal.get(Calendar.HOUR_OF_DAY) == 0) {
+                return "{d '" + MJdbcTools.SQL_DATE_FORMAT.format(localDateTime) + "'}";
+            } else {
+                return "{ts '" + MJdbcTools.SQL_TIMESTAMP_FORMAT.format(localDateTime) + "'}";
+            }
+        } else if (o instanceof Number && !(o instanceof BigDecimal)) {
+            return o.toString();
+        } else if (o instanceof BigDecimal) {
+            return ((BigDecimal) o).toPlainString();
+        } else if (o instanceof Boolean) {
+            return (Boolean) o ? "TRUE" : "FALSE";
+        } else if (o instanceof String) {
+            String s = (String) o;
+            s = s.replace("'", "''");
+            s = s.replace("&", "' || chr(38) || '");
+            return "'" + s + "'";
+        } else {
+            return "'" + o + "'";
+        }
+    }
+
+    private static List<Object> getValues(Random random) {
+        ArrayList<Object> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // from the year 1500 to 2500, with a bias to midnight and whole seconds
+            long millis = -14831769600000L + (long) (random.nextDouble() * 31556952000000L);
+            switch (i % 4) {
+                case 0:
+                    millis = LocalDate.ofEpochDay(Math.floorDiv(millis, 86400000L))
+                            .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    break;
+                case 1:
+                    millis -= Math.floorMod(millis, 1000);
+                    break;
+                default:
+            }
+            values.add(new Date(millis));
+            values.add(new java.sql.Date(millis));
+            values.add(new Timestamp(millis));
+
+            Calendar cal = new GregorianCalendar(
+                    TimeZone.getTimeZone(i % 3 == 0 ? "Asia/Tokyo" : "America/New_York"));
+            cal.setTimeInMillis(millis);
+            values.add(cal);
+        }
+        // the extremes, where the years have more than 4 digits
+        values.add(new Date(Long.MAX_VALUE / 2));
+        values.add(new Date(-Long.MAX_VALUE / 2));
+        values.add(new java.sql.Date(253402300800000L));
+        values.add(new Date(-62135769600001L));
+        return values;
+    }
+
+    @Test
+    void renderLikeLegacy() throws Exception {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            for (String zone : new String[] {"UTC", "Europe/Berlin", "America/Sao_Paulo",
+                    "Asia/Kolkata", "Australia/Lord_Howe"}) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zone));
+                for (Object value : getValues(new Random(zone.hashCode()))) {
+                    Assertions.assertEquals(getLegacyParameterStr(value),
+                            MLiteralRenderer.render(value), () -> zone + " " + value);
+                }
+            }
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+
+        Object[] values = {null, 1, -2L, (short) 3, (byte) -4, 1.5, 1e-10, 2.5f, Double.NaN,
+                new BigInteger("123456789012345678901234567890"), new BigDecimal("1E+3"),
+                new BigDecimal("-0.000100"), true, false, "", "plain", "'", "O'Neil & Sons",
+                "&&''&", new StringBuilder("it's")};
+        for (Object value : values) {
+            Assertions.assertEquals(getLegacyParameterStr(value), MLiteralRenderer.render(value));
+        }
+
+        StringWriter writer = new StringWriter();
+        MLiteralRenderer.append(writer.append("x = "), "a&b");
+        Assertions.assertEquals("x = 'a' || chr(38) || 'b'", writer.toString());
+    }
+
+    @Test
+    void renderTemporals() throws Exception {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:", "sa", "")) {
+            Object[][] values = {
+                    {LocalDate.of(2024, 2, 29), "{d '2024-02-29'}"},
+                    {LocalDate.of(12024, 1, 1), "{d '+12024-01-01'}"},
+                    {LocalDateTime.of(2024, 7, 1, 0, 0), "{ts '2024-07-01 00:00:00.000'}"},
+                    {LocalDateTime.of(2024, 7, 1, 8, 5, 3, 120000000),
+                            "{ts '2024-07-01 08:05:03.120'}"},
+                    {LocalDateTime.of(2024, 7, 1, 8, 5, 3, 123456000),
+                            "{ts '2024-07-01 08:05:03.123456'}"},
+                    {LocalDateTime.of(2024, 7, 1, 8, 5, 3, 1),
+                            "{ts '2024-07-01 08:05:03.000000001'}"},
+                    {LocalTime.of(23, 59, 1), "{t '23:59:01'}"},
+                    {LocalTime.of(23, 59, 1, 500000000), "{t '23:59:01.500'}"},
+                    // summer and winter time in Berlin
+                    {Instant.parse("2024-07-01T10:00:00Z"), "{ts '2024-07-01 12:00:00.000'}"},
+                    {Instant.parse("2024-12-31T23:30:00.25Z"), "{ts '2025-01-01 00:30:00.250'}"},
+                    {OffsetDateTime.parse("2024-03-31T01:59:59+00:00"),
+                            "{ts '2024-03-31 03:59:59.000'}"},
+                    {ZonedDateTime.parse("2024-10-27T02:30:00+01:00[Europe/Berlin]"),
+                            "{ts '2024-10-27 02:30:00.000'}"},
+                    {UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+                            "'123e4567-e89b-12d3-a456-426614174000'"}};
+            for (Object[] value : values) {
+                String literal = MLiteralRenderer.render(value[0]);
+                Assertions.assertEquals(value[1], literal);
+
+                // the database reads the literal as the local value itself
+                if (!(value[0] instanceof Instant || value[0] instanceof OffsetDateTime
+                        || value[0] instanceof ZonedDateTime || literal.contains("+"))) {
+                    try (PreparedStatement st =
+                            conn.prepareStatement("SELECT ? = " + literal)) {
+                        st.setObject(1, value[0]);
+                        try (ResultSet rs = st.executeQuery()) {
+                            Assertions.assertTrue(rs.next());
+                            Assertions.assertTrue(rs.getBoolean(1), literal);
+                        }
+                    }
+                }
+            }
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+}
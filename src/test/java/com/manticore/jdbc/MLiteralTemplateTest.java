@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+
+class MLiteralTemplateTest {
+    private static final String SQL_STR =
+            "SELECT * FROM test WHERE a = :a AND b = ? AND c IN (:c, 'x') AND d = :a";
+
+    @Test
+    void renderFromMap() throws Exception {
+        HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("a", "O'Neil");
+        parameters.put("c", 3);
+
+        for (MRewriteMode mode : MRewriteMode.values()) {
+            MLiteralTemplate template = MLiteralTemplate.compile(SQL_STR, mode);
+            Assertions.assertEquals(4, template.getParameterCount());
+            Assertions.assertEquals(Arrays.asList("a", null, "c", "a"),
+                    template.getParameterNames());
+
+            String sqlStr = template.render(parameters);
+            Assertions.assertTrue(
+                    sqlStr.contains("a = 'O''Neil' AND b = ? AND c IN (3, 'x') AND d = 'O''Neil'"),
+                    sqlStr);
+            Assertions.assertEquals(sqlStr, template.render(parameters));
+        }
+
+        // a missing value renders as NULL
+        Assertions.assertEquals("SELECT * FROM test WHERE a = NULL",
+                MLiteralTemplate.compile("SELECT * FROM test WHERE a = :a")
+                        .render(new HashMap<>()));
+    }
+
+    @Test
+    void renderFromVarArgs() throws Exception {
+        MLiteralTemplate template = MLiteralTemplate.compile(SQL_STR, MRewriteMode.LEXICAL);
+        Assertions.assertEquals(
+                "SELECT * FROM test WHERE a = 1 AND b = 2 AND c IN ('3', 'x') AND d = NULL",
+                template.render(1, 2, "3", null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> template.render(1, 2));
+    }
+
+    @Test
+    void keepPositionalParameterText() throws Exception {
+        MLiteralTemplate template =
+                MLiteralTemplate.compile("SELECT * FROM test WHERE a = ?1 AND b = :b");
+        Assertions.assertEquals("SELECT * FROM test WHERE a = ?1 AND b = 2",
+                template.render(java.util.Collections.singletonMap("b", 2)));
+    }
+
+    @Test
+    void sameAsRewrite() throws Exception {
+        HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("a", java.sql.Date.valueOf("2024-01-31"));
+        parameters.put("c", "A & B");
+
+        for (MRewriteMode mode : MRewriteMode.values()) {
+            MStatementCache.clear();
+            String expected = MJdbcTools.rewriteStatementWithNamedParameters(SQL_STR, mode,
+                    parameters);
+            Assertions.assertSame(MStatementCache.getTemplate(SQL_STR, mode),
+                    MStatementCache.getTemplate(SQL_STR, mode));
+            Assertions.assertEquals(expected,
+                    MStatementCache.getTemplate(SQL_STR, mode).render(parameters));
+
+            StringWriter writer = new StringWriter();
+            MStatementCache.getTemplate(SQL_STR, mode).appendTo(writer, parameters);
+            Assertions.assertEquals(expected, writer.toString());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class MParallelExecutorTest {
+    private static final String URL = "jdbc:h2:mem:parallel_test;DB_CLOSE_DELAY=-1";
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        conn = DriverManager.getConnection(URL, "sa", "");
+        try (Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE account (id INT PRIMARY KEY, balance INT)");
+            st.execute("INSERT INTO account SELECT X, X * 10 FROM SYSTEM_RANGE(1, 200)");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    private static List<Map<String, Object>> getParameters(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> {
+            CaseInsensitiveMap<String, Object> parameters = new CaseInsensitiveMap<>();
+            parameters.put("id", i);
+            return parameters;
+        }).collect(Collectors.toList());
+    }
+
+    @Test
+    void executeQueryInOrder() throws Exception {
+        MParallelExecutor executor = new MParallelExecutor(
+                () -> DriverManager.getConnection(URL, "sa", ""),
+                "SELECT balance FROM account WHERE id = :id").setConcurrency(4);
+
+        List<Integer> balances = executor.executeQuery(getParameters(200), rs -> {
+            rs.next();
+            return rs.getInt(1);
+        });
+        Assertions.assertEquals(200, balances.size());
+        for (int i = 0; i < 200; i++) {
+            Assertions.assertEquals((i + 1) * 10, balances.get(i));
+        }
+
+        HashSet<Integer> indexes = new HashSet<>();
+        ArrayList<Integer> completed = new ArrayList<>();
+        Stream<Map<String, Object>> stream = getParameters(50).stream();
+        executor.executeQuery(stream::iterator, rs -> {
+            rs.next();
+            return rs.getInt(1);
+        }, (index, balance) -> {
+            indexes.add(index);
+            completed.add(balance);
+        });
+        Assertions.assertEquals(50, indexes.size());
+        Assertions.assertEquals(50, completed.size());
+    }
+
+    @Test
+    void executeUpdateAndFailure() throws Exception {
+        MParallelExecutor executor = new MParallelExecutor(
+                () -> DriverManager.getConnection(URL, "sa", ""),
+                "UPDATE account SET balance = balance + 1 WHERE id = :id").setConcurrency(3);
+        int[] updateCounts = executor.executeUpdate(getParameters(210));
+        Assertions.assertEquals(210, updateCounts.length);
+        Assertions.assertEquals(1, updateCounts[199]);
+        Assertions.assertEquals(0, updateCounts[209]);
+
+        MParallelExecutor failing = new MParallelExecutor(
+                () -> DriverManager.getConnection(URL, "sa", ""),
+                "SELECT 1 / (id - 50) FROM account WHERE id = :id").setConcurrency(2);
+        Assertions.assertThrows(SQLException.class,
+                () -> failing.executeQuery(getParameters(100), rs -> rs.next()));
+    }
+
+    @Test
+    void noMoreConnectionsThanExecutions() throws Exception {
+        AtomicInteger connectionCount = new AtomicInteger();
+        MParallelExecutor executor = new MParallelExecutor(() -> {
+            connectionCount.incrementAndGet();
+            return DriverManager.getConnection(URL, "sa", "");
+        }, "SELECT balance FROM account WHERE id = :id").setConcurrency(16);
+
+        Assertions.assertEquals(2, executor.executeQuery(getParameters(2), rs -> rs.next()).size());
+        Assertions.assertTrue(connectionCount.get() <= 2);
+        Assertions.assertEquals(0,
+                executor.executeQuery(new ArrayList<Map<String, Object>>(), rs -> rs.next())
+                        .size());
+        Assertions.assertTrue(connectionCount.get() <= 2);
+    }
+}
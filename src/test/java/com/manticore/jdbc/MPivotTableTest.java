@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+class MPivotTableTest {
+    @Test
+    void dictionary() {
+        MPivotTable.Dictionary dictionary = new MPivotTable.Dictionary();
+        for (int i = 1000; i > 0; i--) {
+            Assertions.assertEquals(1000 - i,
+                    dictionary.getOrdinal(new Object[] {"K" + (i % 10), i}));
+        }
+        Assertions.assertEquals(1000, dictionary.size());
+        Assertions.assertEquals(999, dictionary.getOrdinal(new Object[] {"K1", 1}));
+        Assertions.assertEquals(500, dictionary.getOrdinal(new Object[] {"K0", 500}));
+
+        int[] order = dictionary.getSortedOrdinals();
+        Assertions.assertArrayEquals(new Object[] {"K0", 10}, dictionary.getKey(order[0]));
+        Assertions.assertArrayEquals(new Object[] {"K9", 999}, dictionary.getKey(order[999]));
+
+        // grouped like in a sorted map
+        Object[] key = new Object[] {new BigDecimal("1.0"), null};
+        int ordinal = dictionary.getOrdinal(key);
+        Assertions.assertEquals(ordinal,
+                dictionary.getOrdinal(new Object[] {new BigDecimal("1.00"), null}));
+        Assertions.assertSame(key[0], dictionary.getKey(ordinal)[0]);
+    }
+
+    @Test
+    void longSumOverflow() {
+        MPivotAccumulator sum =
+                MPivotAccumulator.create(MJdbcTools.AggregateFunction.SUM, Long.class, 0);
+        sum.add(0, Long.MAX_VALUE);
+        sum.add(0, 1L);
+        sum.add(1, 1L);
+        Assertions.assertEquals(
+                BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE), sum.get(0));
+        Assertions.assertEquals(1L, sum.get(1));
+
+        MPivotAccumulator merged = sum.newInstance();
+        merged.add(0, Long.MAX_VALUE);
+        merged.merge(0, sum, 0);
+        merged.merge(1, sum, 1);
+        Assertions.assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2))
+                .add(BigDecimal.ONE), merged.get(0));
+        Assertions.assertEquals(1L, merged.get(1));
+
+        MPivotAccumulator avg =
+                MPivotAccumulator.create(MJdbcTools.AggregateFunction.AVG, Long.class, 0);
+        avg.add(0, Long.MAX_VALUE);
+        avg.add(0, Long.MAX_VALUE);
+        Assertions.assertEquals((double) Long.MAX_VALUE, (Double) avg.get(0), 1.0);
+        avg.clear(0);
+        avg.add(0, 3L);
+        Assertions.assertEquals(3.0, avg.get(0));
+    }
+
+    @Test
+    void parallelPartitions() throws Exception {
+        try (
+                Connection conn = DriverManager.getConnection("jdbc:h2:mem:partition_test", "sa",
+                        "");
+                Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE partition_test (id INT, region VARCHAR(10), "
+                    + "product VARCHAR(10), period INT, amount NUMERIC(18,2))");
+            st.execute("INSERT INTO partition_test SELECT X, 'R' || MOD(X, 3), 'P' || MOD(X, 7), "
+                    + "MOD(X, 5), X / 10 FROM SYSTEM_RANGE(1, 2000)");
+
+            String expected;
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT region, product, period, amount FROM partition_test")) {
+                expected = Arrays.deepToString(MJdbcTools.getPivotFromQuery(rs,
+                        MJdbcTools.AggregateFunction.SUM, "amount", "period", null, true, true));
+            }
+
+            ArrayList<Map<String, Object>> partitions = new ArrayList<>();
+            for (int i = 0; i < 2000; i += 300) {
+                CaseInsensitiveMap<String, Object> parameters = new CaseInsensitiveMap<>();
+                parameters.put("lower", i);
+                parameters.put("upper", i + 300);
+                partitions.add(parameters);
+            }
+            Object[][] data = MJdbcTools.getPivotFromQuery(conn,
+                    "SELECT region, product, period, amount FROM partition_test "
+                            + "WHERE id > :lower AND id <= :upper",
+                    partitions, MJdbcTools.AggregateFunction.SUM, "amount", "period", null, true,
+                    true);
+            Assertions.assertEquals(expected, Arrays.deepToString(data));
+
+            data = MJdbcTools.getPivotFromQuery(
+                    () -> DriverManager.getConnection("jdbc:h2:mem:partition_test", "sa", ""),
+                    "SELECT region, product, period, amount FROM partition_test "
+                            + "WHERE id > :lower AND id <= :upper",
+                    partitions, MJdbcTools.AggregateFunction.SUM, "amount", "period", null, true,
+                    true);
+            Assertions.assertEquals(expected, Arrays.deepToString(data));
+
+            // one connection per partition, as they are read concurrently
+            ArrayList<Connection> connections = new ArrayList<>();
+            ArrayList<ResultSet> resultSets = new ArrayList<>();
+            try {
+                for (int i = 0; i < 3; i++) {
+                    Connection partitionConn =
+                            DriverManager.getConnection("jdbc:h2:mem:partition_test", "sa", "");
+                    connections.add(partitionConn);
+                    resultSets.add(partitionConn.createStatement().executeQuery(
+                            "SELECT region, product, period, amount FROM partition_test "
+                                    + "WHERE MOD(id, 3) = " + i));
+                }
+                data = MJdbcTools.getPivotFromQueries(resultSets,
+                        MJdbcTools.AggregateFunction.SUM, "amount", "period", null, true, true);
+                Assertions.assertEquals(expected, Arrays.deepToString(data));
+            } finally {
+                for (Connection partitionConn : connections) {
+                    partitionConn.close();
+                }
+            }
+
+            Assertions.assertThrows(SQLException.class,
+                    () -> MJdbcTools.getPivotFromQuery(conn,
+                            "SELECT region, product, period, amount FROM partition_test "
+                                    + "WHERE id > :lower AND id <= (SELECT 1 UNION SELECT 2)",
+                            partitions, MJdbcTools.AggregateFunction.SUM, "amount", "period",
+                            null, true, true));
+        }
+    }
+}
@@ -26,16 +26,37 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.function.Executable;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.logging.Logger;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -61,11 +82,12 @@ public class MPreparedStatementTest {
         }
     }
 
-    private static CaseInsensitiveMap<String, Object> toMap(Object... values) throws Exception {
+    @SuppressWarnings("unchecked")
+    private static <T> CaseInsensitiveMap<String, T> toMap(Object... values) throws Exception {
         if (values.length % 2 == 0) {
-            CaseInsensitiveMap<String, Object> map = new CaseInsensitiveMap<>();
+            CaseInsensitiveMap<String, T> map = new CaseInsensitiveMap<>();
             for (int i = 0; i < values.length; i += 2) {
-                map.put(values[i].toString(), values[i + 1]);
+                map.put(values[i].toString(), (T) values[i + 1]);
             }
             return map;
         } else {
@@ -233,4 +255,451 @@ public class MPreparedStatementTest {
         });
     }
 
+    @Test
+    public void statementCache() throws Exception {
+        String qryStr = "SELECT * FROM test WHERE a = :a and b = :b and c = :a";
+
+        MStatementCache.clear();
+        long misses = MStatementCache.getMissCount();
+        long hits = MStatementCache.getHitCount();
+
+        try (MPreparedStatement st1 = new MPreparedStatement(conn, qryStr);
+                MPreparedStatement st2 = new MPreparedStatement(conn, qryStr);) {
+            Assertions.assertSame(st1.getParsedStatement(), st2.getParsedStatement());
+            Assertions.assertEquals(misses + 1, MStatementCache.getMissCount());
+            Assertions.assertEquals(hits + 1, MStatementCache.getHitCount());
+
+            MParsedStatement parsed = st2.getParsedStatement();
+            Assertions.assertEquals("SELECT * FROM test WHERE a = ? AND b = ? AND c = ?",
+                    parsed.getSqlStr());
+            Assertions.assertArrayEquals(new int[] {1, 3}, parsed.getPositions("a"));
+            Assertions.assertArrayEquals(new int[] {2}, parsed.getPositions("B"));
+            Assertions.assertEquals(3, parsed.getParameterCount());
+        }
+    }
+
+    @Test
+    public void executeWithRepeatedParameters() throws Exception {
+        String ddlStr = "INSERT INTO test VALUES ( :a, :b, :c, :c, :c, :f, :f, :f, :a )";
+        String qryStr = "SELECT Count(*) FROM test WHERE a = :a AND i = :a AND c = :c AND b = :b";
+
+        Map<String, Object> parameters =
+                toMap("a", 7, "b", "Test String", "c", new Date(), "f", new GregorianCalendar());
+
+        try (MPreparedStatement st = new MPreparedStatement(conn, ddlStr)) {
+            Assertions.assertEquals(1, st.executeUpdate(parameters));
+        }
+
+        try (MPreparedStatement st = new MPreparedStatement(conn, qryStr);
+                ResultSet rs = st.executeQuery(parameters);) {
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void explicitParameterTypes() throws Exception {
+        String ddlStr = "INSERT INTO test VALUES ( :a, :b, :c, :d, :e, :f, :g, :h, :i )";
+        Map<String, Integer> types =
+                toMap("A", Types.DECIMAL, "C", Types.DATE, "f", Types.TIMESTAMP);
+
+        Date date = new Date();
+        GregorianCalendar calendar = new GregorianCalendar();
+        try (MPreparedStatement st = new MPreparedStatement(conn, ddlStr, 4, MRewriteMode.PARSER,
+                types)) {
+            MNamedParameter a = st.getNamedParametersByAppearance().get(0);
+            Assertions.assertEquals(Types.DECIMAL, a.getType());
+            Assertions.assertNull(a.getClassName());
+            Assertions.assertNull(st.getNamedParametersByAppearance().get(1).getType());
+
+            for (int i = 0; i < 8; i++) {
+                st.addBatch(i, "Test String", date, calendar, LocalDate.now(), date, calendar,
+                        LocalDate.now(), "0.12345");
+            }
+            Assertions.assertEquals(8, st.executeBatch().length);
+        }
+
+        // skip the metadata lookup completely
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT Count(*) FROM test WHERE a < :a", 4, MRewriteMode.PARSER,
+                Collections.emptyMap());
+                ResultSet rs = st.executeQuery(toMap("a", 4))) {
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals(4, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void multiRowInsert() throws Exception {
+        String ddlStr = "INSERT INTO test VALUES ( :a, :b, :c, :d, :e, :f, :g, :h, :i )";
+        Map<String, Object> parameters =
+                toMap(
+                        "a", 1, "b", "Test String", "c", new Date(), "d", new GregorianCalendar(),
+                        "e", LocalDate.now(), "f", new Date(), "g", new GregorianCalendar(), "h",
+                        LocalDate.now(), "i", "0.12345");
+
+        try (MPreparedStatement st = new MPreparedStatement(conn, ddlStr, 10)) {
+            Assertions.assertTrue(st.enableMultiRowInsert(4));
+
+            for (int i = 0; i < 10; i++) {
+                parameters.put("a", i);
+                parameters.put("b", "Test String " + i);
+
+                int[] results = st.addAndExecuteBatch(parameters);
+                Assertions.assertEquals(i == 9 ? 10 : 0, results.length);
+            }
+            st.addBatch(10, "Test String 10", new Date(), new Date(), new Date(), new Date(),
+                    new Date(), new Date(), "1.2345");
+            Assertions.assertArrayEquals(new int[] {1}, st.executeBatch());
+        }
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT Count(*), Sum(a) FROM test WHERE b LIKE :b");
+                ResultSet rs = st.executeQuery(toMap("b", "Test String%"))) {
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals(11, rs.getInt(1));
+            Assertions.assertEquals(55, rs.getInt(2));
+        }
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "UPDATE test SET b = :b WHERE a = :a")) {
+            Assertions.assertFalse(st.enableMultiRowInsert(4));
+        }
+
+        MParsedStatement parsed =
+                MParsedStatement.parseMultiRowInsert("INSERT INTO t (a, b) VALUES (:a, :b)", 3);
+        Assertions.assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)",
+                parsed.getSqlStr());
+        Assertions.assertArrayEquals(new int[] {1, 3, 5}, parsed.getPositions("a"));
+        Assertions.assertNull(MParsedStatement.parseMultiRowInsert(
+                "INSERT INTO t (a, b) VALUES (:a, :b) ON DUPLICATE KEY UPDATE b = :b", 3));
+    }
+
+    @Test
+    public void bulkLoad() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE bulk_test (id INT, txt VARCHAR(20), bin VARBINARY(4), "
+                    + "booked DATE, amount DECIMAL(10,2))");
+        }
+        String sqlStr =
+                "INSERT INTO bulk_test (id, txt, bin, booked, amount) VALUES (:id, :t, :b, :d, :a)";
+        try (MPreparedStatement st = new MPreparedStatement(conn, sqlStr)) {
+            Assertions.assertTrue(st.enableBulkLoad());
+            for (int i = 0; i < 1000; i++) {
+                st.addBatch(toMap("id", i, "t", "row " + i, "b", null, "d",
+                        LocalDate.of(2025, 1, 1).plusDays(i), "a", i / 100.0));
+            }
+            st.addBatch(1000, "", null, null, null);
+            st.addBatch(1001, "a \"quoted\", text\n", null, null, new BigDecimal("1E+2"));
+            int[] results = st.executeBatch();
+            Assertions.assertEquals(1002, results.length);
+            Assertions.assertEquals(1, results[0]);
+            Assertions.assertEquals(0, st.executeBatch().length);
+
+            // H2 can't read binary values from CSV, so these rows are inserted by statement
+            st.addBatch(1002, "binary", new byte[] {0, -1}, null, null);
+            st.addBatch(1003, "binary", new byte[] {1, 2, 3}, null, null);
+            Assertions.assertArrayEquals(new int[] {1, 1}, st.executeBatch());
+
+            // files and buffers are bound by statement according to the column type
+            Path path = Files.createTempFile("mjdbcutils", ".bin");
+            try {
+                Files.write(path, new byte[] {4, 5});
+                st.addBatch(1004, "path", path, null, null);
+                st.addBatch(1005, "buffer", ByteBuffer.wrap(new byte[] {6, 7}), null, null);
+                Assertions.assertArrayEquals(new int[] {1, 1}, st.executeBatch());
+            } finally {
+                Files.delete(path);
+            }
+
+            // without a loader for the database the multi row INSERT mode is used
+            MBulkLoader.register("h2", null);
+            try (MPreparedStatement fallback = new MPreparedStatement(conn, sqlStr)) {
+                Assertions.assertTrue(fallback.enableBulkLoad());
+                fallback.addBatch(1006, "fallback", null, null, null);
+                fallback.addBatch(1007, "fallback", null, null, null);
+                Assertions.assertArrayEquals(new int[] {1, 1}, fallback.executeBatch());
+            } finally {
+                MBulkLoader.register("h2", new MBulkLoader.CsvReadLoader());
+            }
+        }
+
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT * FROM bulk_test ORDER BY id")) {
+            for (int i = 0; i < 1000; i++) {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertEquals(i, rs.getInt("id"));
+                Assertions.assertEquals("row " + i, rs.getString("txt"));
+                Assertions.assertEquals(LocalDate.of(2025, 1, 1).plusDays(i),
+                        rs.getObject("booked", LocalDate.class));
+                Assertions.assertEquals(BigDecimal.valueOf(i, 2), rs.getBigDecimal("amount"));
+            }
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals("", rs.getString("txt"));
+            Assertions.assertNull(rs.getBytes("bin"));
+            Assertions.assertNull(rs.getObject("booked"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals("a \"quoted\", text\n", rs.getString("txt"));
+            Assertions.assertEquals(new BigDecimal("100.00"), rs.getBigDecimal("amount"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertArrayEquals(new byte[] {0, -1}, rs.getBytes("bin"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertArrayEquals(new byte[] {1, 2, 3}, rs.getBytes("bin"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals("path", rs.getString("txt"));
+            Assertions.assertArrayEquals(new byte[] {4, 5}, rs.getBytes("bin"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals("buffer", rs.getString("txt"));
+            Assertions.assertArrayEquals(new byte[] {6, 7}, rs.getBytes("bin"));
+            Assertions.assertTrue(rs.next());
+            Assertions.assertTrue(rs.next());
+            Assertions.assertEquals("fallback", rs.getString("txt"));
+            Assertions.assertFalse(rs.next());
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE bulk_test");
+            }
+        }
+
+        // the rows as streamed to COPY
+        MBulkLoader.RowReader reader = new MBulkLoader.RowReader(
+                Arrays.asList(new Object[] {1, "x", new byte[] {10}}, new Object[3]), "\\x");
+        char[] buffer = new char[100];
+        StringBuilder copied = new StringBuilder();
+        for (int n; (n = reader.read(buffer, 0, 3)) > 0;) {
+            copied.append(buffer, 0, n);
+        }
+        Assertions.assertEquals("1,\"x\",\\x0a\n,,\n", copied.toString());
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "INSERT INTO test (a, b) VALUES (:a, Upper(:b))")) {
+            Assertions.assertFalse(st.enableBulkLoad());
+        }
+    }
+
+    @Test
+    public void bindTemporals() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE time_test (id INT, d DATE, ts TIMESTAMP(9), t TIME, "
+                    + "tz TIMESTAMP(9) WITH TIME ZONE, u UUID, s VARCHAR(36))");
+        }
+        LocalDate date = LocalDate.of(2024, 2, 29);
+        LocalDateTime dateTime = LocalDateTime.of(2024, 2, 29, 13, 14, 15, 123456789);
+        LocalTime time = LocalTime.of(13, 14, 15);
+        OffsetDateTime offsetDateTime = OffsetDateTime.of(dateTime, ZoneOffset.ofHours(5));
+        UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+
+        String sqlStr = "INSERT INTO time_test VALUES (:id, :d, :ts, :t, :tz, :u, :s)";
+        // bound by the types of the parameter metadata, and by the types of the values
+        try (MPreparedStatement st = new MPreparedStatement(conn, sqlStr);
+                MPreparedStatement untyped = new MPreparedStatement(conn, sqlStr, 1,
+                        MRewriteMode.PARSER, Collections.emptyMap())) {
+            st.executeUpdate(1, date, dateTime, time, offsetDateTime, uuid, uuid);
+            untyped.executeUpdate(2, date, dateTime, time, offsetDateTime, uuid, uuid);
+            // converted to the type of the parameter
+            st.executeUpdate(3, instant, date, dateTime, offsetDateTime.toZonedDateTime(), uuid,
+                    uuid);
+        }
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT * FROM time_test WHERE d = :d AND t = :t AND u = :u ORDER BY id");
+                ResultSet rs = st.executeQuery(toMap("d", date, "t", time, "u", uuid))) {
+            for (int id = 1; id <= 3; id++) {
+                Assertions.assertTrue(rs.next());
+                Assertions.assertEquals(id, rs.getInt("id"));
+                Assertions.assertEquals(date, rs.getObject("d", LocalDate.class));
+                Assertions.assertEquals(id < 3 ? dateTime : date.atStartOfDay(),
+                        rs.getObject("ts", LocalDateTime.class));
+                Assertions.assertEquals(time, rs.getObject("t", LocalTime.class));
+                Assertions.assertEquals(offsetDateTime.toInstant(),
+                        rs.getObject("tz", OffsetDateTime.class).toInstant());
+                Assertions.assertEquals(uuid, rs.getObject("u", UUID.class));
+                Assertions.assertEquals(uuid.toString(), rs.getString("s"));
+            }
+            Assertions.assertFalse(rs.next());
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE time_test");
+            }
+        }
+    }
+
+    @Test
+    public void lruCacheEviction() throws Exception {
+        MLruCache<String, String> cache = new MLruCache<>(2);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(3, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+
+        // "b" was the least recently used entry
+        Assertions.assertNull(cache.getIfPresent("b"));
+        Assertions.assertEquals("A", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void bindStreams() throws Exception {
+        byte[] bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        Path path = Files.createTempFile("mjdbcutils", ".bin");
+        Files.write(path, bytes);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE lob_test (id INT, bin BLOB, txt CLOB)");
+        }
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "INSERT INTO lob_test VALUES (:id, :bin, :txt)");
+                FileChannel channel = FileChannel.open(path)) {
+            st.executeUpdate(1, new ByteArrayInputStream(bytes), new StringReader("reader"));
+            st.executeUpdate(2, path, "string");
+            st.executeUpdate(3, direct, null);
+            st.executeUpdate(4, ByteBuffer.wrap(bytes, 10, 1000), null);
+            st.executeUpdate(5, channel, null);
+        } finally {
+            Files.delete(path);
+        }
+        Assertions.assertEquals(bytes.length, direct.remaining());
+
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT * FROM lob_test ORDER BY id")) {
+            for (int id = 1; id <= 5; id++) {
+                Assertions.assertTrue(rs.next());
+                byte[] expected = id == 4 ? Arrays.copyOfRange(bytes, 10, 1010) : bytes;
+                Assertions.assertArrayEquals(expected, rs.getBytes("bin"));
+                if (id <= 2) {
+                    Assertions.assertEquals(id == 1 ? "reader" : "string", rs.getString("txt"));
+                }
+            }
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE lob_test");
+            }
+        }
+    }
+
+    @Test
+    public void closePathStreams() throws Exception {
+        Path binPath = Files.createTempFile("mjdbcutils", ".bin");
+        Files.write(binPath, new byte[] {1, 2, 3});
+        Path txtPath = Files.createTempFile("mjdbcutils", ".txt");
+        Files.write(txtPath, "gr\u00fc\u00dfe".getBytes(StandardCharsets.UTF_8));
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE lob_path_test (id INT, bin BLOB, txt CLOB)");
+        }
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "INSERT INTO lob_path_test VALUES (:id, :bin, :txt)")) {
+            for (int id = 1; id <= 100; id++) {
+                st.executeUpdate(id, binPath, txtPath);
+                Assertions.assertEquals(0, MParameterStreams.getOpenedStatementCount());
+            }
+            st.addBatch(101, binPath, txtPath);
+            st.addBatch(102, binPath, txtPath);
+            st.executeBatch();
+            Assertions.assertEquals(0, MParameterStreams.getOpenedStatementCount());
+        } finally {
+            Files.delete(binPath);
+            Files.delete(txtPath);
+        }
+
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT * FROM lob_path_test WHERE id = 102")) {
+            Assertions.assertTrue(rs.next());
+            Assertions.assertArrayEquals(new byte[] {1, 2, 3}, rs.getBytes("bin"));
+            Assertions.assertEquals("gr\u00fc\u00dfe", rs.getString("txt"));
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP TABLE lob_path_test");
+            }
+        }
+    }
+
+    @Test
+    public void streamingKeepsAutoCommit() throws Exception {
+        // pretends to be a PostgreSQL connection, which streams only outside of auto commit
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {DatabaseMetaData.class},
+                (proxy, method, args) -> method.getName().equals("getDriverName")
+                        ? "PostgreSQL JDBC Driver"
+                        : method.invoke(conn.getMetaData(), args));
+        Connection pgConn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getMetaData")) {
+                        return metaData;
+                    }
+                    Object result = method.invoke(conn, args);
+                    if (!(result instanceof PreparedStatement)) {
+                        return result;
+                    }
+                    return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[] {PreparedStatement.class},
+                            (st, m, a) -> m.getName().equals("getConnection")
+                                    ? proxy
+                                    : m.invoke(result, a));
+                });
+
+        MQueryOptions options = new MQueryOptions().setStreaming(true);
+        Assertions.assertTrue(conn.getAutoCommit());
+        Assertions.assertThrows(SQLException.class,
+                () -> new MPreparedStatement(pgConn, "SELECT X FROM SYSTEM_RANGE(1, :n)",
+                        options));
+        Assertions.assertTrue(conn.getAutoCommit());
+
+        conn.setAutoCommit(false);
+        try (MPreparedStatement st = new MPreparedStatement(pgConn,
+                "SELECT X FROM SYSTEM_RANGE(1, :n)", options);
+                ResultSet rs = st.executeQuery(100)) {
+            Assertions.assertEquals(MQueryOptions.DEFAULT_STREAMING_FETCH_SIZE,
+                    rs.getStatement().getFetchSize());
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    @Test
+    public void queryOptions() throws Exception {
+        MQueryOptions options = new MQueryOptions().setFetchSize(3).setMaxRows(5)
+                .setQueryTimeout(30).setResultSetType(ResultSet.TYPE_SCROLL_INSENSITIVE);
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT X FROM SYSTEM_RANGE(1, :n)", options);
+                ResultSet rs = st.executeQuery(100)) {
+            Assertions.assertEquals(3, rs.getStatement().getFetchSize());
+            Assertions.assertEquals(30, rs.getStatement().getQueryTimeout());
+            Assertions.assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, rs.getType());
+            Assertions.assertTrue(rs.last());
+            Assertions.assertEquals(5, rs.getRow());
+        }
+
+        options = new MQueryOptions().setResultSetType(ResultSet.TYPE_SCROLL_INSENSITIVE)
+                .setStreaming(true);
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT X FROM SYSTEM_RANGE(1, :n)", options);
+                ResultSet rs = st.executeQuery(100)) {
+            Assertions.assertEquals(ResultSet.TYPE_FORWARD_ONLY, rs.getType());
+            Assertions.assertEquals(MQueryOptions.DEFAULT_STREAMING_FETCH_SIZE,
+                    rs.getStatement().getFetchSize());
+        }
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT X FROM SYSTEM_RANGE(1, :n)").enableStreaming(50).setMaxRows(3);
+                ResultSet rs = st.executeQuery(100)) {
+            Assertions.assertEquals(50, rs.getStatement().getFetchSize());
+            int count = 0;
+            while (rs.next()) {
+                count++;
+            }
+            Assertions.assertEquals(3, count);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class MRowMapperTest {
+    private static Connection conn;
+
+    public enum Status {
+        OPEN, CLOSED
+    }
+
+    public static class Booking {
+        private long id;
+        private String name;
+        private BigDecimal amount;
+        private LocalDate valueDate;
+        private Integer quantity = -1;
+        private Status status;
+        public boolean flagged;
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public Booking setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public void setValueDate(LocalDate valueDate) {
+            this.valueDate = valueDate;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+    }
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:mapper_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE booking (id BIGINT, name VARCHAR(20), amount NUMERIC(10,2), "
+                    + "value_date DATE, quantity INT, status VARCHAR(10), flagged BOOLEAN, "
+                    + "comment VARCHAR(20))");
+            st.execute("INSERT INTO booking SELECT X, 'B' || X, X * 1.5, DATEADD(DAY, X, "
+                    + "DATE '2024-01-01'), CASEWHEN(MOD(X, 2) = 0, X, NULL), "
+                    + "CASEWHEN(X < 50, 'OPEN', 'CLOSED'), MOD(X, 3) = 0, 'ignored' "
+                    + "FROM SYSTEM_RANGE(1, 100)");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void mapBeans() throws SQLException {
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT * FROM booking ORDER BY id")) {
+            List<Booking> bookings = MRowMapper.of(Booking.class).list(rs);
+            Assertions.assertEquals(100, bookings.size());
+
+            Booking b = bookings.get(2);
+            Assertions.assertEquals(3L, b.id);
+            Assertions.assertEquals("B3", b.name);
+            Assertions.assertEquals(new BigDecimal("4.50"), b.amount);
+            Assertions.assertEquals(LocalDate.of(2024, 1, 4), b.valueDate);
+            Assertions.assertNull(b.quantity);
+            Assertions.assertEquals(Status.OPEN, b.status);
+            Assertions.assertTrue(b.flagged);
+            Assertions.assertEquals(Integer.valueOf(4), bookings.get(3).quantity);
+            Assertions.assertEquals(Status.CLOSED, bookings.get(99).status);
+        }
+    }
+
+    @Test
+    void streamClosesResultSet() throws Exception {
+        ResultSet rs;
+        try (Statement st = conn.createStatement()) {
+            rs = st.executeQuery("SELECT id, amount FROM booking ORDER BY id");
+            try (Stream<Booking> stream = MRowMapper.of(Booking.class).stream(rs)) {
+                Assertions.assertEquals(5, stream.limit(5).count());
+                Assertions.assertFalse(rs.isClosed());
+            }
+            Assertions.assertTrue(rs.isClosed());
+        }
+
+        CaseInsensitiveMap<String, Object> parameters = new CaseInsensitiveMap<>();
+        parameters.put("status", "CLOSED");
+        List<String> names = MRowMapper.of(Booking.class)
+                .stream(conn, "SELECT name FROM booking WHERE status = :status ORDER BY id",
+                        parameters)
+                .map(b -> b.name).collect(Collectors.toList());
+        Assertions.assertEquals(51, names.size());
+        Assertions.assertEquals("B50", names.get(0));
+
+        try (MPreparedStatement st = new MPreparedStatement(conn,
+                "SELECT id FROM booking WHERE id <= :id")) {
+            parameters.clear();
+            parameters.put("id", 10);
+            Assertions.assertEquals(55L,
+                    st.stream(Booking.class, parameters).mapToLong(b -> b.id).sum());
+        }
+    }
+}
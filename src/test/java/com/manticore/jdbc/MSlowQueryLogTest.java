@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class MSlowQueryLogTest {
+    private static final String DML_STR =
+            "INSERT INTO slow_test (id, name, password) VALUES (:id, :name, :password)";
+
+    @Test
+    void captureSlowExecutions() throws Exception {
+        MSlowQueryLog log = new MSlowQueryLog(3).setThreshold(0, TimeUnit.NANOSECONDS)
+                .setMaxValueLength(5);
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:slow_test", "sa", "");
+                Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE slow_test (id INT, name VARCHAR(20), password VARCHAR(20))");
+
+            MSlowQueryLog.install(log);
+            try (MPreparedStatement statement = new MPreparedStatement(conn, DML_STR)) {
+                statement.executeUpdate(1, "Alexander", "secret");
+
+                HashMap<String, Object> parameters = new HashMap<>();
+                parameters.put("id", 2);
+                parameters.put("name", "Bo");
+                parameters.put("password", "secret");
+                statement.executeUpdate(parameters);
+
+                statement.addBatch(3, "Cy", "secret");
+                statement.addBatch(4, "Di", "secret");
+                statement.executeBatch();
+            }
+        } finally {
+            MSlowQueryLog.install(null);
+        }
+
+        List<MSlowQueryLog.Entry> entries = log.getEntries();
+        Assertions.assertEquals(3, entries.size());
+
+        MSlowQueryLog.Entry entry = entries.get(0);
+        Assertions.assertEquals(DML_STR, entry.getSqlStr());
+        Assertions.assertEquals(MStatementCache.getFingerprint(DML_STR), entry.getFingerprint());
+        Assertions.assertEquals("Alexa...", entry.getParameters().get("name"));
+        Assertions.assertEquals(MSlowQueryLog.REDACTED, entry.getParameters().get("password"));
+        Assertions.assertArrayEquals(new int[] {1}, entry.getUpdateCounts());
+        Assertions.assertEquals(
+                "INSERT INTO slow_test (id, name, password) VALUES (1, 'Alexa...', '***')",
+                entry.getReplaySqlStr());
+
+        entry = entries.get(2);
+        Assertions.assertEquals(2, entry.getRows());
+        Assertions.assertEquals(2, entry.getUpdateCounts().length);
+        Assertions.assertEquals(
+                "INSERT INTO slow_test (id, name, password) VALUES (4, 'Di', '***')",
+                entry.getReplaySqlStr());
+
+        StringBuilder builder = new StringBuilder();
+        log.dump(builder);
+        Assertions.assertTrue(builder.toString()
+                .contains("VALUES (2, 'Bo', '***');\n"), builder.toString());
+    }
+
+    @Test
+    void captureFilesAndBuffers() {
+        MSlowQueryLog log = new MSlowQueryLog(1).setThreshold(0, TimeUnit.NANOSECONDS)
+                .setMaxValueLength(2);
+        HashMap<String, Object> parameters = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {1, 2, 3});
+        parameters.put("buffer", buffer);
+        parameters.put("path", Paths.get("data.bin"));
+        parameters.put("channel", Channels.newChannel(new ByteArrayInputStream(new byte[1])));
+        log.record("INSERT INTO t VALUES (:buffer, :path, :channel)", 1L, parameters, null, 1);
+
+        MSlowQueryLog.Entry entry = log.getEntries().get(0);
+        Assertions.assertArrayEquals(new byte[] {1, 2},
+                (byte[]) entry.getParameters().get("buffer"));
+        Assertions.assertEquals(3, buffer.remaining());
+        Assertions.assertEquals("Path", entry.getParameters().get("path"));
+        Assertions.assertEquals("ReadableByteChannel", entry.getParameters().get("channel"));
+    }
+
+    @Test
+    void keepLatestEntries() {
+        MSlowQueryLog log = new MSlowQueryLog(3).setThreshold(1, TimeUnit.MILLISECONDS);
+        Assertions.assertFalse(log.record("SELECT 1", 999999L, null, null, 1));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(log.record("SELECT " + i, 1000000L, null, null, 1));
+        }
+
+        List<MSlowQueryLog.Entry> entries = log.getEntries();
+        // the capacity is rounded up to 4
+        Assertions.assertEquals(4, entries.size());
+        Assertions.assertEquals("SELECT 6", entries.get(0).getSqlStr());
+        Assertions.assertEquals("SELECT 9", entries.get(3).getSqlStr());
+
+        log.clear();
+        Assertions.assertTrue(log.getEntries().isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import net.sf.jsqlparser.JSQLParserException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+class MSqlScannerTest {
+    @Test
+    void parseSamePositionsAsParser() throws Exception {
+        String sqlStr = "SELECT * FROM test WHERE a = :a AND b = ? AND c = :c AND d = :A";
+
+        MParsedStatement parsed = MParsedStatement.parse(sqlStr);
+        MParsedStatement scanned = MSqlScanner.parse(sqlStr);
+
+        Assertions.assertEquals(parsed.getSqlStr(), scanned.getSqlStr());
+        Assertions.assertEquals(parsed.getParameterNames(), scanned.getParameterNames());
+        for (String name : parsed.getParameterNames()) {
+            Assertions.assertArrayEquals(parsed.getPositions(name), scanned.getPositions(name));
+        }
+    }
+
+    @Test
+    void skipLiteralsCommentsAndCasts() throws Exception {
+        String sqlStr = "select ':x', \"a:b\", `c:d`, E'\\':e', $$ :f $$, $tag$ :g $tag$\n"
+                + ", v$session\n"
+                + "-- :h\n"
+                + "/* :i */ from t where a::int = :j and b := 1 and c = :k";
+
+        MParsedStatement scanned = MSqlScanner.parse(sqlStr);
+
+        Assertions.assertEquals(sqlStr.replace(":j", "?").replace(":k", "?"),
+                scanned.getSqlStr());
+        Assertions.assertEquals(2, scanned.getParameterCount());
+        Assertions.assertArrayEquals(new int[] {1}, scanned.getPositions("j"));
+        Assertions.assertArrayEquals(new int[] {2}, scanned.getPositions("k"));
+    }
+
+    @Test
+    void unterminatedLiteral() throws Exception {
+        String sqlStr = "select * from t where a = 'abc and b = :b";
+
+        Assertions.assertThrows(JSQLParserException.class, () -> MSqlScanner.parse(sqlStr));
+        Assertions.assertTrue(MSqlScanner.hasParameters(sqlStr));
+        Assertions.assertFalse(MSqlScanner.hasParameters("select ':b' from t"));
+
+        String validSqlStr = "select * from t where a = :a /* unterminated";
+        Assertions.assertThrows(JSQLParserException.class,
+                () -> MSqlScanner.parse(validSqlStr, MRewriteMode.LEXICAL));
+        Assertions.assertThrows(JSQLParserException.class,
+                () -> MSqlScanner.parse(validSqlStr, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK));
+    }
+
+    @Test
+    void parserFallbackOnAmbiguousTokens() throws Exception {
+        String sqlStr = "select * from t where data ?| array['a'] and id = :id";
+        Assertions.assertEquals(2, MSqlScanner.parse(sqlStr, MRewriteMode.LEXICAL).getSlotCount());
+        MParsedStatement parsed =
+                MSqlScanner.parse(sqlStr, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK);
+        Assertions.assertEquals(1, parsed.getSlotCount());
+        Assertions.assertArrayEquals(new int[] {1}, parsed.getPositions("id"));
+
+        sqlStr = "select data ? 'a', arr[lo:hi] from t where id = :id";
+        parsed = MSqlScanner.parse(sqlStr, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK);
+        Assertions.assertEquals(1, parsed.getSlotCount());
+        Assertions.assertArrayEquals(new int[] {1}, parsed.getPositions("id"));
+        Assertions.assertEquals("SELECT * FROM t WHERE data ?| ARRAY['a'] AND id = 1",
+                MLiteralTemplate
+                        .compile("select * from t where data ?| array['a'] and id = :id",
+                                MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK)
+                        .render(1));
+
+        // unambiguous statements keep their text as written
+        sqlStr = "select a::text from t where id = :id and b = ?";
+        parsed = MSqlScanner.parse(sqlStr, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK);
+        Assertions.assertEquals("select a::text from t where id = ? and b = ?",
+                parsed.getSqlStr());
+
+        // the scanner's guess is kept, when the parser fails on vendor syntax
+        sqlStr = "select data ? 'a' from t where id = :id vendor specific syntax";
+        parsed = MSqlScanner.parse(sqlStr, MRewriteMode.LEXICAL_WITH_PARSER_FALLBACK);
+        Assertions.assertEquals(MSqlScanner.parse(sqlStr).getSqlStr(), parsed.getSqlStr());
+    }
+
+    @Test
+    void rewriteStatementLexically() throws Exception {
+        HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("param1", "' or 'A' <> 'B");
+        parameters.put("param2", 2);
+
+        String sqlStr = "select a::text from table_a where field_a = :param1 and b = :param2";
+        Assertions.assertEquals(
+                "select a::text from table_a where field_a = ''' or ''A'' <> ''B' and b = 2",
+                MJdbcTools.rewriteStatementWithNamedParameters(sqlStr, MRewriteMode.LEXICAL,
+                        parameters));
+
+        Assertions.assertEquals(
+                "select a::text from table_a where field_a = 'x' and b = 3",
+                MJdbcTools.rewriteStatementWithNamedParameters(sqlStr, MRewriteMode.LEXICAL,
+                        "x", 3));
+    }
+}
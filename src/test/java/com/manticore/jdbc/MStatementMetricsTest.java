@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import com.manticore.jdbc.MStatementMetrics.Phase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+class MStatementMetricsTest {
+    private static final String DDL_STR = "CREATE TABLE metrics_test (a INT, b VARCHAR(10))";
+    private static final String DML_STR = "INSERT INTO metrics_test VALUES (:a, :b)";
+
+    @Test
+    void histogramPercentiles() {
+        MHistogram histogram = new MHistogram();
+        for (long v = 1; v <= 100000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        Assertions.assertEquals(100000, histogram.getCount());
+        Assertions.assertEquals(100000000L, histogram.getMax());
+        Assertions.assertEquals(50000500d, histogram.getMean(), 1d);
+        Assertions.assertEquals(50000000d, histogram.getValueAtPercentile(50), 50000000d * 0.04);
+        Assertions.assertEquals(99000000d, histogram.getValueAtPercentile(99), 99000000d * 0.04);
+        Assertions.assertEquals(100000000L, histogram.getValueAtPercentile(100));
+
+        for (long v : new long[] {0, 1, 63, 64, 65, 1000, 123456789, 1L << 39}) {
+            long highest = MHistogram.highestValue(MHistogram.index(v));
+            Assertions.assertTrue(highest >= v && highest <= v + v / 32, v + " " + highest);
+        }
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void recordPhasesByFingerprint() throws Exception {
+        List<MStatementMetrics> exported = new ArrayList<>();
+        try (Connection conn =
+                DriverManager.getConnection("jdbc:h2:mem:metrics_test", "sa", "");
+                Statement st = conn.createStatement()) {
+            st.execute(DDL_STR);
+
+            MStatementMetrics.enable(new MStatementMetrics.Exporter() {
+                @Override
+                public void export(MStatementMetrics metrics) {
+                    exported.add(metrics);
+                }
+
+                @Override
+                public void remove(MStatementMetrics metrics) {
+                    exported.remove(metrics);
+                }
+            });
+            try (MPreparedStatement statement = new MPreparedStatement(conn, DML_STR, 3)) {
+                for (int i = 0; i < 7; i++) {
+                    statement.addAndExecuteBatch(i, "row " + i);
+                }
+                statement.executeBatch();
+            }
+            // the same shape shares the metrics
+            try (MPreparedStatement statement = new MPreparedStatement(conn,
+                    "insert into metrics_test\nvalues (:x, :y)")) {
+                statement.executeUpdate(7, "row 7");
+            }
+
+            Assertions.assertEquals(1, exported.size());
+            MStatementMetrics metrics = exported.get(0);
+            Assertions.assertEquals("INSERT INTO METRICS_TEST VALUES(?)", metrics.getSqlStr());
+            Assertions.assertEquals(2, metrics.getHistogram(Phase.PARSE).getCount());
+            Assertions.assertEquals(2, metrics.getHistogram(Phase.PREPARE).getCount());
+            Assertions.assertEquals(8, metrics.getHistogram(Phase.BIND).getCount());
+            Assertions.assertEquals(1, metrics.getHistogram(Phase.EXECUTE).getCount());
+            Assertions.assertEquals(3, metrics.getHistogram(Phase.BATCH_FLUSH).getCount());
+            Assertions.assertEquals(3, metrics.getRowsPerBatch().getMax());
+            Assertions.assertEquals(7, metrics.getRowsPerBatch().getSum());
+
+            MStatementMetrics.disable();
+            Assertions.assertTrue(exported.isEmpty());
+            try (MPreparedStatement statement = new MPreparedStatement(conn, DML_STR)) {
+                Assertions.assertNull(statement.getMetrics());
+                statement.executeUpdate(8, "row 8");
+            }
+            Assertions.assertTrue(MStatementMetrics.getAll().isEmpty());
+        } finally {
+            MStatementMetrics.disable();
+        }
+    }
+
+    @Test
+    void exportViaJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        try (Connection conn =
+                DriverManager.getConnection("jdbc:h2:mem:metrics_jmx_test", "sa", "")) {
+            MStatementMetrics.enable(new MJmxExporter(server));
+            try (MPreparedStatement statement = new MPreparedStatement(conn, "SELECT :a + 1");
+                    ResultSet rs = statement.executeQuery(1)) {
+                Assertions.assertTrue(rs.next());
+            }
+
+            MStatementMetrics metrics = MStatementMetrics.forStatement("SELECT :a + 1");
+            ObjectName name = MJmxExporter.getObjectName(metrics);
+            Assertions.assertTrue(server.isRegistered(name));
+            Assertions.assertEquals("SELECT ?+?", server.getAttribute(name, "SqlStr"));
+            Assertions.assertNotNull(server.getAttribute(name, "P99Nanos"));
+            Assertions.assertEquals(1L, metrics.getHistogram(Phase.EXECUTE).getCount());
+
+            MStatementMetrics.disable();
+            Assertions.assertFalse(server.isRegistered(name));
+        } finally {
+            MStatementMetrics.disable();
+        }
+    }
+}
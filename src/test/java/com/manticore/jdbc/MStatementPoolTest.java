@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MStatementPoolTest {
+    private static final String SELECT_STR = "SELECT :a + :b";
+
+    @Test
+    void reuseStatements() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:pool_test", "sa", "");
+                MStatementPool pool = new MStatementPool();) {
+            MPreparedStatement statement;
+            try (MStatementPool.Handle handle = pool.checkout(conn, SELECT_STR)) {
+                statement = handle.getStatement();
+                try (ResultSet rs = statement.executeQuery(1, 2)) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals(3, rs.getInt(1));
+                }
+            }
+            Assertions.assertEquals(1, pool.getIdleCount());
+
+            try (MStatementPool.Handle handle = pool.checkout(conn, SELECT_STR);
+                    MStatementPool.Handle other = pool.checkout(conn, SELECT_STR)) {
+                Assertions.assertSame(statement, handle.getStatement());
+                Assertions.assertNotSame(statement, other.getStatement());
+            }
+            Assertions.assertEquals(2, pool.getCreatedCount());
+            Assertions.assertEquals(2, pool.getIdleCount());
+
+            MStatementPool.Handle handle = pool.checkout(conn, SELECT_STR);
+            pool.release(conn);
+            Assertions.assertEquals(0, pool.getIdleCount());
+            handle.close();
+            Assertions.assertEquals(0, pool.getIdleCount());
+            Assertions.assertThrows(IllegalStateException.class, handle::getStatement);
+        }
+    }
+
+    @Test
+    void resetReturnedStatements() throws Exception {
+        final String sqlStr = "SELECT X FROM SYSTEM_RANGE(1, :n)";
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:pool_test", "sa", "");
+                MStatementPool pool = new MStatementPool();) {
+            MPreparedStatement statement;
+            try (MStatementPool.Handle handle = pool.checkout(conn, sqlStr)) {
+                statement = handle.getStatement().setMaxRows(2).setQueryTimeout(30)
+                        .setFetchSize(1);
+                statement.addBatch(5);
+            }
+
+            try (MStatementPool.Handle handle = pool.checkout(conn, sqlStr)) {
+                Assertions.assertSame(statement, handle.getStatement());
+                Assertions.assertEquals(0, statement.getRecordCount());
+                int rows = 0;
+                try (ResultSet rs = statement.executeQuery(5)) {
+                    while (rs.next()) {
+                        rows++;
+                    }
+                }
+                Assertions.assertEquals(5, rows);
+            }
+        }
+    }
+
+    @Test
+    void parameterTypesPerDatabase() throws Exception {
+        final String sqlStr = "SELECT v FROM pool_types WHERE v = :v";
+        try (Connection connA = DriverManager.getConnection("jdbc:h2:mem:pool_a", "sa", "");
+                Connection connB = DriverManager.getConnection("jdbc:h2:mem:pool_b", "sa", "");
+                MStatementPool pool = new MStatementPool();) {
+            try (Statement st = connA.createStatement()) {
+                st.execute("CREATE TABLE pool_types (v INT)");
+            }
+            try (Statement st = connB.createStatement()) {
+                st.execute("CREATE TABLE pool_types (v VARCHAR(10))");
+            }
+
+            try (MStatementPool.Handle a = pool.checkout(connA, sqlStr);
+                    MStatementPool.Handle b = pool.checkout(connB, sqlStr)) {
+                Assertions.assertEquals(Types.INTEGER,
+                        a.getStatement().getNamedParametersByName().get(0).getType());
+                Assertions.assertEquals(Types.VARCHAR,
+                        b.getStatement().getNamedParametersByName().get(0).getType());
+            }
+        }
+    }
+
+    @Test
+    void checkoutConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:pool_test", "sa", "");
+                MStatementPool pool = new MStatementPool();) {
+            AtomicInteger sum = new AtomicInteger();
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                final int a = i;
+                futures.add(executor.submit(() -> {
+                    try (MStatementPool.Handle handle = pool.checkout(conn, SELECT_STR);
+                            ResultSet rs = handle.getStatement().executeQuery(a, 1)) {
+                        rs.next();
+                        sum.addAndGet(rs.getInt(1));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Assertions.assertEquals(400 * 401 / 2, sum.get());
+            Assertions.assertTrue(pool.getCreatedCount() <= 8);
+            Assertions.assertEquals(pool.getCreatedCount(), pool.getIdleCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void dropStatementsOfClosedConnections() throws Exception {
+        try (MStatementPool pool = new MStatementPool();) {
+            Connection conn = DriverManager.getConnection("jdbc:h2:mem:pool_test", "sa", "");
+            pool.checkout(conn, SELECT_STR).close();
+            MStatementPool.Handle handle = pool.checkout(conn, "SELECT :a");
+            Assertions.assertEquals(1, pool.getIdleCount());
+
+            conn.close();
+            handle.close();
+            Assertions.assertEquals(1, pool.getIdleCount());
+            pool.purge();
+            Assertions.assertEquals(0, pool.getIdleCount());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2025 manticore-projects Co. Ltd. <support@manticore-projects.com>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * <p>
+ * This program is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU General Public License along with this program; if
+ * not, write to the Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ * <p>
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ */
+package com.manticore.jdbc;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MStreamingPivotTest {
+    private static final String SELECT_STR =
+            "SELECT region, product, period, amount FROM pivot_test ORDER BY region, product";
+
+    private static Connection conn;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:pivot_test;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = conn.createStatement();) {
+            st.execute("CREATE TABLE pivot_test (region VARCHAR(10), product VARCHAR(10), "
+                    + "period INT, amount NUMERIC(18,2))");
+            st.execute("INSERT INTO pivot_test SELECT 'R' || MOD(X, 3), 'P' || MOD(X, 7), "
+                    + "MOD(X, 5), X / 10 FROM SYSTEM_RANGE(1, 500)");
+            st.execute("INSERT INTO pivot_test VALUES ('R0', 'P9', 2, NULL)");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    private static List<String> getExpected(MJdbcTools.AggregateFunction function,
+            boolean buildTotals) throws SQLException {
+        ArrayList<String> rows = new ArrayList<>();
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(SELECT_STR);) {
+            Object[][] data = MJdbcTools.getPivotFromQuery(rs, function,
+                    "amount", "period", null, buildTotals, true);
+            rows.add(Arrays.toString((String[]) data[0]));
+            for (Object[] rowData : (Object[][]) data[1]) {
+                rows.add(Arrays.toString(rowData));
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void processSameAsPivot() throws SQLException {
+        for (MJdbcTools.AggregateFunction function : MJdbcTools.AggregateFunction.values()) {
+            for (boolean buildTotals : new boolean[] {true, false}) {
+                ArrayList<String> rows = new ArrayList<>();
+                try (Statement st = conn.createStatement();
+                        ResultSet rs = st.executeQuery(SELECT_STR);) {
+                    MStreamingPivot pivot = new MStreamingPivot(rs, function, "amount", "period",
+                            Arrays.asList(4, 3, 2, 1, 0), null, buildTotals);
+                    rows.add(Arrays.toString(pivot.getColumnNames()));
+                    pivot.process(rowData -> rows.add(Arrays.toString(rowData)));
+                }
+                Assertions.assertEquals(getExpected(function, buildTotals), rows,
+                        function.name());
+            }
+        }
+    }
+
+    @Test
+    void iterateSameAsPivot() throws SQLException {
+        ArrayList<String> rows = new ArrayList<>();
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SELECT_STR);) {
+            MStreamingPivot pivot = new MStreamingPivot(rs, MJdbcTools.AggregateFunction.SUM,
+                    "amount", "period", Arrays.asList(0, 1, 2, 3, 4), null, true);
+            rows.add(Arrays.toString(pivot.getColumnNames()));
+            for (Object[] rowData : pivot) {
+                rows.add(Arrays.toString(rowData));
+            }
+        }
+        Assertions.assertEquals(getExpected(MJdbcTools.AggregateFunction.SUM, true), rows);
+    }
+
+    @Test
+    void unknownCategory() throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SELECT_STR);) {
+            MStreamingPivot pivot = new MStreamingPivot(rs, MJdbcTools.AggregateFunction.SUM,
+                    "amount", "period", Arrays.asList(0, 1, 2), null, true);
+            Assertions.assertThrows(SQLException.class, () -> pivot.process(rowData -> {
+            }));
+        }
+    }
+}